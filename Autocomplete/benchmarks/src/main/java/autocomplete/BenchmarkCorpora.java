@@ -0,0 +1,151 @@
+/** ***************************************************************************
+ *
+ * File        : BenchmarkCorpora.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that prepares the corpora benchmarks run against.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Names the corpora benchmarks take as a parameter and writes each to a
+ * temporary file on first use. The trilogy is read from the path in the
+ * autocomplete.corpus system property, defaulting to ../lotr.csv as the
+ * benchmarks are run from the benchmarks directory. Synthetic corpora draw
+ * made up words with Zipf distributed frequencies, so they keep the skew of
+ * real text at any size. Every corpus is seeded and so identical between
+ * runs.
+ *
+ * @author Ali Jarjis
+ */
+class BenchmarkCorpora {
+
+    static final String LOTR = "lotr";
+    static final String LOTR_X32 = "lotr-x32";
+    static final String ZIPF_200K = "zipf-200k";
+    static final String ZIPF_2M = "zipf-2m";
+
+    private static final int ZIPF_VOCABULARY = 50000;
+
+    private BenchmarkCorpora() {}
+
+    /**
+     * Retrieves the file holding a named corpus, writing it if needed
+     *
+     * @param name name of corpus
+     * @return address of the corpus file
+     * @throws IOException if the corpus cannot be read or written
+     */
+    static synchronized String file(String name) throws IOException {
+        File trilogy = new File(System.getProperty("autocomplete.corpus",
+                "../lotr.csv"));
+
+        if (name.equals(LOTR)) {
+            return trilogy.getPath();
+        }
+
+        File corpus = new File(System.getProperty("java.io.tmpdir"),
+                "autocomplete-" + name + ".csv");
+
+        if (corpus.exists()) {
+            return corpus.getPath();
+        }
+
+        if (name.equals(LOTR_X32)) {
+            repeat(trilogy, corpus, 32);
+        } else if (name.equals(ZIPF_200K)) {
+            writeZipf(corpus, 200000);
+        } else if (name.equals(ZIPF_2M)) {
+            writeZipf(corpus, 2000000);
+        } else {
+            throw new IllegalArgumentException("Unknown corpus " + name);
+        }
+
+        corpus.deleteOnExit();
+
+        return corpus.getPath();
+    }
+
+    /**
+     * Writes a file repeated a number of times
+     *
+     * @param from  file to repeat
+     * @param to    file to write
+     * @param times number of times to repeat
+     * @throws IOException if either file cannot be used
+     */
+    private static void repeat(File from, File to, int times)
+            throws IOException {
+        byte[] text = Files.readAllBytes(from.toPath());
+        byte[] repeated = new byte[(text.length + 1) * times];
+
+        for (int i = 0; i < times; i++) {
+            System.arraycopy(text, 0, repeated, i * (text.length + 1),
+                    text.length);
+            repeated[(i + 1) * (text.length + 1) - 1] = '\n';
+        }
+
+        Files.write(to.toPath(), repeated);
+    }
+
+    /**
+     * Writes a comma separated corpus of made up words whose frequencies
+     * follow Zipf's law, the r-th most frequent word appearing about 1/r as
+     * often as the most frequent
+     *
+     * @param to        file to write
+     * @param tokens    number of words to write
+     * @throws IOException if file cannot be written
+     */
+    private static void writeZipf(File to, int tokens) throws IOException {
+        Random random = new Random(42);
+        String[] vocabulary = new String[ZIPF_VOCABULARY];
+        double[] cumulative = new double[ZIPF_VOCABULARY];
+        double total = 0;
+
+        // Makes up words of 2 to 10 letters, with common letters likelier
+        // to start them so prefixes share paths as English ones do
+        for (int r = 0; r < ZIPF_VOCABULARY; r++) {
+            int length = 2 + random.nextInt(9);
+            char[] word = new char[length];
+
+            for (int i = 0; i < length; i++) {
+                int letter = (int) (26 * Math.pow(random.nextDouble(), 2));
+                word[i] = (char) ('a' + letter);
+            }
+
+            vocabulary[r] = new String(word);
+            total += 1.0 / (r + 1);
+            cumulative[r] = total;
+        }
+
+        BufferedWriter out = new BufferedWriter(new FileWriter(to));
+
+        try {
+            for (int t = 0; t < tokens; t++) {
+                int r = Arrays.binarySearch(cumulative,
+                        random.nextDouble() * total);
+
+                if (t > 0) {
+                    out.write(t % 20 == 0 ? '\n' : ',');
+                }
+
+                out.write(vocabulary[r < 0 ? -(r + 1) : r]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/** ***************************************************************************
+ *
+ * File        : CompareResults.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that compares two sets of benchmark results.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads two JMH result files written with -rf csv, such as the committed
+ * baseline and a fresh run, and prints the change in every time and in
+ * bytes allocated per operation. A change is flagged when it is larger than
+ * the threshold and than both runs' error margins together, as lower times
+ * and fewer bytes allocated are both better. Exits with status 1 if anything
+ * regressed, so it can guard a build.
+ *
+ * Usage: CompareResults baseline.csv current.csv [threshold percent]
+ *
+ * @author Ali Jarjis
+ */
+public class CompareResults {
+
+    private CompareResults() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults baseline.csv "
+                    + "current.csv [threshold percent]");
+            System.exit(2);
+        }
+
+        Map<String, double[]> baseline = read(args[0]);
+        Map<String, double[]> current = read(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+        int regressions = 0;
+
+        for (Map.Entry<String, double[]> pair : current.entrySet()) {
+            double[] before = baseline.get(pair.getKey());
+
+            if (before == null) {
+                System.out.printf("%-90s %12s%n", pair.getKey(), "new");
+                continue;
+            }
+
+            double[] after = pair.getValue();
+
+            // Below a byte per operation both runs allocate nothing, and the
+            // score is only the profiler's noise
+            if (pair.getKey().endsWith("(B/op)") && before[0] < 1
+                    && after[0] < 1) {
+                System.out.printf("%-90s %12s%n", pair.getKey(), "none");
+                continue;
+            }
+
+            double change = (after[0] - before[0]) / before[0] * 100;
+            double noise = (before[1] + after[1]) / before[0] * 100;
+            String verdict = "";
+
+            if (Math.abs(change) > threshold && Math.abs(change) > noise) {
+                verdict = change > 0 ? "REGRESSION" : "improvement";
+                regressions += change > 0 ? 1 : 0;
+            }
+
+            System.out.printf("%-90s %+11.1f%% %s%n", pair.getKey(), change,
+                    verdict);
+        }
+
+        System.out.println(regressions + " regression(s)");
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /**
+     * Reads a JMH csv result file
+     *
+     * @param file address of file to read
+     * @return scores and their error keyed by benchmark, its parameters and
+     *         unit
+     * @throws IOException if file cannot be read
+     */
+    private static Map<String, double[]> read(String file)
+            throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file),
+                StandardCharsets.UTF_8);
+        Map<String, double[]> scores = new LinkedHashMap<>();
+        List<String> header = split(lines.get(0));
+        int score = header.indexOf("Score");
+        int error = header.indexOf("Score Error (99.9%)");
+        int unit = header.indexOf("Unit");
+
+        // Loops through each result row, naming it by its parameters
+        for (int i = 1; i < lines.size(); i++) {
+            List<String> row = split(lines.get(i));
+
+            // Of the profilers' rows only bytes per operation are kept, as
+            // rates rise whenever a benchmark gets faster
+            if (row.get(0).contains(":")
+                    && !row.get(0).endsWith("gc.alloc.rate.norm")) {
+                continue;
+            }
+
+            StringBuilder key = new StringBuilder(row.get(0)
+                    .replace("autocomplete.", ""));
+
+            for (int c = unit + 1; c < row.size(); c++) {
+                if (!row.get(c).isEmpty()) {
+                    key.append(' ').append(header.get(c)
+                            .replace("Param: ", "")).append('=')
+                            .append(row.get(c));
+                }
+            }
+
+            key.append(" (").append(row.get(unit)).append(')');
+
+            double scoreError = row.get(error).equals("NaN") ? 0
+                    : Double.parseDouble(row.get(error));
+
+            scores.put(key.toString(), new double[]{
+                Double.parseDouble(row.get(score)), scoreError});
+        }
+
+        return scores;
+    }
+
+    /**
+     * Splits a csv line on commas outside quotes
+     *
+     * @param line line to split
+     * @return fields with surrounding quotes removed
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        fields.add(field.toString());
+
+        return fields;
+    }
+}
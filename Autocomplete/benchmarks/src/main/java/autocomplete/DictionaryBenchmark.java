@@ -0,0 +1,66 @@
+/** ***************************************************************************
+ *
+ * File        : DictionaryBenchmark.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : Benchmarks of reading a corpus and forming its dictionary.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times DictionaryMaker over each corpus, reading the words of a file and
+ * counting them into a dictionary
+ *
+ * @author Ali Jarjis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryBenchmark {
+
+    @Param({BenchmarkCorpora.LOTR, BenchmarkCorpora.LOTR_X32,
+        BenchmarkCorpora.ZIPF_200K, BenchmarkCorpora.ZIPF_2M})
+    public String corpus;
+
+    private String file;
+    private ArrayList<String> words;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = BenchmarkCorpora.file(corpus);
+        words = DictionaryMaker.readWordsFromCSV(file);
+    }
+
+    @Benchmark
+    public ArrayList<String> readWordsFromCSV() throws IOException {
+        return DictionaryMaker.readWordsFromCSV(file);
+    }
+
+    @Benchmark
+    public TreeMap<String, Integer> formDictionary() {
+        return DictionaryMaker.formDictionary(words);
+    }
+}
@@ -0,0 +1,156 @@
+/** ***************************************************************************
+ *
+ * File        : TrieBenchmark.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : Benchmarks of building and querying an AutoCompletionTrie.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times building a trie from each corpus's dictionary and the queries made
+ * of it. Queries are drawn from the corpus itself, so common words are
+ * queried more often as they would be by users, and cycle through a fixed
+ * sample so every run asks the same questions.
+ *
+ * @author Ali Jarjis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrieBenchmark {
+
+    private static final int SAMPLE_SIZE = 1024;
+
+    /**
+     * A corpus's dictionary, its trie and a sample of its words
+     */
+    @State(Scope.Benchmark)
+    public static class CorpusState {
+
+        @Param({BenchmarkCorpora.LOTR, BenchmarkCorpora.LOTR_X32,
+            BenchmarkCorpora.ZIPF_200K, BenchmarkCorpora.ZIPF_2M})
+        public String corpus;
+
+        TreeMap<String, Integer> dictionary;
+        AutoCompletionTrie trie;
+        String[] words;
+        int next;
+
+        @Setup
+        public void setUp() throws IOException {
+            ArrayList<String> corpusWords = DictionaryMaker.readWordsFromCSV(
+                    BenchmarkCorpora.file(corpus));
+            Random random = new Random(42);
+
+            dictionary = DictionaryMaker.formDictionary(corpusWords);
+            trie = AutoCompletion.addDictionary(dictionary);
+            words = new String[SAMPLE_SIZE];
+
+            for (int i = 0; i < SAMPLE_SIZE; i++) {
+                words[i] = corpusWords.get(random.nextInt(corpusWords.size()));
+            }
+        }
+
+        String nextWord() {
+            return words[next++ & (SAMPLE_SIZE - 1)];
+        }
+    }
+
+    /**
+     * A corpus's trie and a sample of prefixes of one length
+     */
+    @State(Scope.Benchmark)
+    public static class PrefixState {
+
+        @Param({BenchmarkCorpora.LOTR, BenchmarkCorpora.ZIPF_2M})
+        public String corpus;
+
+        @Param({"1", "2", "3", "4", "5"})
+        public int prefixLength;
+
+        AutoCompletionTrie trie;
+        String[] prefixes;
+        CompletionResult result = new CompletionResult(3);
+        int next;
+
+        @Setup
+        public void setUp() throws IOException {
+            ArrayList<String> corpusWords = DictionaryMaker.readWordsFromCSV(
+                    BenchmarkCorpora.file(corpus));
+            Random random = new Random(42);
+
+            trie = AutoCompletion.addDictionary(
+                    DictionaryMaker.formDictionary(corpusWords));
+            prefixes = new String[SAMPLE_SIZE];
+
+            // Cuts words long enough down to the prefix length
+            for (int i = 0; i < SAMPLE_SIZE; i++) {
+                String word;
+
+                do {
+                    word = corpusWords.get(random.nextInt(corpusWords.size()));
+                } while (word.length() < prefixLength);
+
+                prefixes[i] = word.substring(0, prefixLength);
+            }
+        }
+
+        String nextPrefix() {
+            return prefixes[next++ & (SAMPLE_SIZE - 1)];
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public AutoCompletionTrie addDictionary(CorpusState state) {
+        return AutoCompletion.addDictionary(state.dictionary);
+    }
+
+    @Benchmark
+    public boolean contains(CorpusState state) {
+        return state.trie.contains(state.nextWord());
+    }
+
+    @Benchmark
+    public AutoCompletionTrie getSubTrie(PrefixState state) {
+        return state.trie.getSubTrie(state.nextPrefix());
+    }
+
+    @Benchmark
+    public LinkedHashMap<String, Double> getTopThreeWords(PrefixState state) {
+        return AutoCompletion.getTopThreeWords(state.nextPrefix(),
+                state.trie);
+    }
+
+    @Benchmark
+    public CompletionResult complete(PrefixState state) {
+        state.trie.complete(state.nextPrefix(), 3, state.result);
+
+        return state.result;
+    }
+}
@@ -0,0 +1,275 @@
+/** ***************************************************************************
+ *
+ * File        : ApproximateDictionaryBuilder.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that forms a dictionary of the most frequent words
+ *               of a stream, with approximate frequencies, in bounded memory.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Counts a stream of words in a CountMinSketch and decides which of them to
+ * keep with a SpaceSaving summary, so only the most frequent words get trie
+ * nodes at all. Rare words that could never rank in a top three cost
+ * nothing beyond their share of the sketch, so memory stays fixed however
+ * long the stream runs.
+ *
+ * Each word's new sketch estimate is passed to the summary, which keeps it
+ * in place of the least counted word only if the estimate is higher. For
+ * the trilogy's one and two letter prefixes this finds more of the exact
+ * top three words than plain Space-Saving counting at every budget, as a
+ * newly seen rare word no longer pushes out a kept one. Frequencies never
+ * fall below the truth and are within the sketch's error bound of it with
+ * probability 1 - delta.
+ *
+ * The trie built holds only the kept words, so a completion's probability
+ * is its share of the kept words under the prefix. Where rare completions
+ * were dropped that share runs higher than the exact one, by the dropped
+ * words' mass, which the sketch cannot give per prefix.
+ *
+ * @author Ali Jarjis
+ */
+public class ApproximateDictionaryBuilder implements TokenConsumer {
+
+    /**
+     * Chance of a frequency exceeding its error bound, unless given
+     */
+    public static final double DEFAULT_DELTA = 0.01;
+
+    // Rough bytes per kept word: its ids, slots, String and characters
+    private static final int BYTES_PER_WORD = 96;
+
+    private final CountMinSketch sketch;
+    private final SpaceSaving hitters;
+    private final CorpusTokenizer tokenizer;
+
+    /**
+     * Constructs a builder meeting given error bounds
+     *
+     * @param epsilon   frequency error allowed, as a fraction of the total
+     *                  number of words
+     * @param delta     chance of a frequency exceeding that error
+     * @param capacity  most words to keep
+     */
+    public ApproximateDictionaryBuilder(double epsilon, double delta,
+            int capacity) {
+        this(new CountMinSketch(epsilon, delta), new SpaceSaving(capacity));
+    }
+
+    /**
+     * Constructs a builder from a sketch and summary
+     *
+     * @param sketch    sketch to count frequencies in
+     * @param hitters   summary choosing words to keep
+     */
+    private ApproximateDictionaryBuilder(CountMinSketch sketch,
+            SpaceSaving hitters) {
+        this.sketch = sketch;
+        this.hitters = hitters;
+        this.tokenizer = new CorpusTokenizer();
+    }
+
+    /**
+     * Constructs a builder fitting in a memory budget, half for the sketch
+     * and half for the words kept
+     *
+     * @param bytes most bytes to use
+     * @return      the builder
+     */
+    public static ApproximateDictionaryBuilder withBudget(long bytes) {
+        return new ApproximateDictionaryBuilder(
+                CountMinSketch.withBytes(bytes / 2, DEFAULT_DELTA),
+                new SpaceSaving((int) Math.max(1, Math.min(1 << 28,
+                        bytes / 2 / BYTES_PER_WORD))));
+    }
+
+    /**
+     * Counts the words of a comma separated text document
+     *
+     * @param file  address of file to read from
+     * @throws IOException if file cannot be read
+     */
+    public void addFile(String file) throws IOException {
+        tokenizer.tokenize(file, this);
+    }
+
+    /**
+     * Counts one occurrence of a token
+     *
+     * @param token     buffer holding the token's characters
+     * @param length    number of characters in the token
+     */
+    @Override
+    public void accept(char[] token, int length) {
+        hitters.admit(token, 0, length, sketch.add(token, 0, length, 1));
+    }
+
+    /**
+     * Forms a dictionary (sorted alphabetically) of the words kept
+     *
+     * @return hash table of words and their approximate frequency
+     */
+    public TreeMap<String, Integer> toDictionary() {
+        TreeMap<String, Integer> dictionary = new TreeMap<>();
+
+        for (String word : hitters.words()) {
+            dictionary.put(word, sketch.estimate(word));
+        }
+
+        return dictionary;
+    }
+
+    /**
+     * Bulk loads the words kept into a trie. Subtree totals count only the
+     * kept words, so probabilities read from it are relative to them.
+     *
+     * @return trie of the words kept and their approximate frequency
+     */
+    public AutoCompletionTrie buildTrie() {
+        return AutoCompletionTrie.fromSorted(
+                toDictionary().entrySet().iterator());
+    }
+
+    /**
+     * Retrieves the sketch counting frequencies
+     *
+     * @return the sketch
+     */
+    public CountMinSketch getSketch() {
+        return sketch;
+    }
+
+    /**
+     * Retrieves the summary choosing which words are kept
+     *
+     * @return the summary
+     */
+    public SpaceSaving getHitters() {
+        return hitters;
+    }
+
+    /**
+     * Estimates the bytes held by the sketch and summary
+     *
+     * @return bytes used
+     */
+    public long sizeInBytes() {
+        return sketch.sizeInBytes() + hitters.sizeInBytes();
+    }
+
+    /**
+     * Measures how far the top three words of some prefixes drift from the
+     * exact ones
+     *
+     * @param prefixes  prefixes to complete
+     * @param exact     trie of exact frequencies
+     * @param approx    trie of approximate frequencies
+     * @return          prefixes with the same words in the same order,
+     *                  the share of exact words found, and the largest
+     *                  difference in probability of a word found by both
+     */
+    private static double[] drift(List<String> prefixes,
+            AutoCompletionTrie exact, AutoCompletionTrie approx) {
+        double same = 0;
+        double found = 0;
+        double expected = 0;
+        double probability = 0;
+
+        for (String prefix : prefixes) {
+            LinkedHashMap<String, Double> want
+                    = AutoCompletion.getTopKWords(prefix, 3, exact);
+            LinkedHashMap<String, Double> got
+                    = AutoCompletion.getTopKWords(prefix, 3, approx);
+
+            if (new ArrayList<>(want.keySet()).equals(
+                    new ArrayList<>(got.keySet()))) {
+                same++;
+            }
+
+            for (Map.Entry<String, Double> pair : want.entrySet()) {
+                expected++;
+
+                if (got.containsKey(pair.getKey())) {
+                    found++;
+                    probability = Math.max(probability, Math.abs(
+                            got.get(pair.getKey()) - pair.getValue()));
+                }
+            }
+        }
+
+        return new double[] {same, expected == 0 ? 1 : found / expected,
+            probability};
+    }
+
+    public static void main(String[] args) throws IOException {
+        String file = args.length > 0 ? args[0] : "lotr.csv";
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionaryFromCSV(file);
+        AutoCompletionTrie exact = AutoCompletion.addDictionary(dictionary);
+        WordCounter counter = new WordCounter();
+        new CorpusTokenizer().tokenize(file, counter);
+
+        // Completes the given queries and every one and two letter prefix
+        List<String> queries = DictionaryMaker.readWordsFromCSV(
+                "lotrQueries.csv");
+        TreeSet<String> shortPrefixes = new TreeSet<>();
+
+        for (String word : dictionary.keySet()) {
+            for (int i = 1; i <= Math.min(2, word.length()); i++) {
+                shortPrefixes.add(word.substring(0, i));
+            }
+        }
+
+        List<String> prefixes = new ArrayList<>(shortPrefixes);
+
+        System.out.println("Exact: " + dictionary.size() + " words, counted "
+                + "in " + counter.sizeInBytes() / 1024 + " KB, "
+                + exact.nodeCount() + " trie nodes");
+        System.out.println(queries.size() + " queries from lotrQueries.csv, "
+                + prefixes.size() + " one and two letter prefixes");
+        System.out.println();
+        System.out.println("Budget  Used   Sketch  Epsilon  Bound  Worst  "
+                + "Words  Nodes  Queries same  found  dP     Prefixes same  "
+                + "found");
+
+        for (int kilobytes = 2; kilobytes <= 64; kilobytes *= 2) {
+            ApproximateDictionaryBuilder builder
+                    = withBudget(kilobytes * 1024L);
+            builder.addFile(file);
+            AutoCompletionTrie approx = builder.buildTrie();
+            CountMinSketch sketch = builder.getSketch();
+
+            // Finds the furthest a sketch estimate strays from the truth
+            int worst = 0;
+
+            for (Map.Entry<String, Integer> pair : dictionary.entrySet()) {
+                worst = Math.max(worst, sketch.estimate(pair.getKey())
+                        - pair.getValue());
+            }
+
+            double[] onQueries = drift(queries, exact, approx);
+            double[] onPrefixes = drift(prefixes, exact, approx);
+
+            System.out.printf("%3d KB  %2d KB  %dx%-4d %6.3f  %5.0f  %5d  "
+                    + "%5d  %5d  %8.0f/%-3d %5.2f  %.3f  %9.0f/%-4d %5.2f%n",
+                    kilobytes, builder.sizeInBytes() / 1024, sketch.depth(),
+                    sketch.width(), sketch.epsilon(), sketch.errorBound(),
+                    worst, builder.getHitters().size(), approx.nodeCount(),
+                    onQueries[0], queries.size(), onQueries[1], onQueries[2],
+                    onPrefixes[0], prefixes.size(), onPrefixes[1]);
+        }
+    }
+}
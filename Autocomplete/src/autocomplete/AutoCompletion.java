@@ -12,13 +12,11 @@
 package autocomplete;
 
 import static autocomplete.DictionaryMaker.readWordsFromCSV;
-import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
@@ -47,86 +45,215 @@ public class AutoCompletion {
             dictionaryTrie.add(k, dictionary.get(k));
         }
 
+        dictionaryTrie.buildCompletionCache();
+
         return dictionaryTrie;
     }
 
     /**
-     * Retrieves top three words from trie that match given prefix
+     * Retrieves top three words from trie that match given prefix. The map
+     * returned is the caller's own, even when answered from a result cache
+     * attached to the trie.
      *
      * @param prefix prefix queries to search for
      * @param trie trie to search for most frequent words
      * @return list of most frequent words matching the prefix from the trie
      */
-    public static LinkedHashMap getTopThreeWords(String prefix, 
+    public static LinkedHashMap<String, Double> getTopThreeWords(String prefix,
             AutoCompletionTrie trie) {
+        boolean measured = CompletionMetrics.isEnabled();
+        long startNanos = measured ? System.nanoTime() : 0;
+        long startBytes = measured ? CompletionMetrics.allocatedBytes() : 0;
+        CompletionCache cache = trie.getCompletionCache();
+        long generation = 0;
+
+        // Answers from the attached result cache where possible, reading
+        // the generation first so a result computed as a word is added is
+        // not cached
+        if (cache != null) {
+            generation = cache.generation();
+
+            LinkedHashMap<String, Double> cached = cache.get(prefix, 3);
+
+            if (cached != null) {
+                if (measured) {
+                    CompletionMetrics.TOP_WORDS.record(prefix, startNanos,
+                            startBytes, 0, 0, cached.size());
+                }
+
+                return cached;
+            }
+        }
+
         // Create sub trie from query
         AutoCompletionTrie queryTrie = trie.getSubTrie(prefix);
+        LinkedHashMap<String, Double> topThree = new LinkedHashMap<>();
 
-        // Get all words from queried tree
-        StringBuilder word = new StringBuilder();
-        HashMap<String, Integer> allWords = new HashMap();
-
-        allWords = queryTrie.getAllWords(queryTrie.root, word, allWords);
-
-        double totalFrequency = 0;
-
-        Map.Entry<String, Integer>[] topThreeWords = new Map.Entry[3];
-
-        // Loops through words retrieved, storing the three most frequent in an 
-        // array, ordered by frequency (decreasing).
-        for (Map.Entry<String, Integer> pair : allWords.entrySet()) {
-            String key = pair.getKey();
-            int value = pair.getValue();
-
-            totalFrequency += value;
-
-            // Finds three most frequent words, by comparing a word's frequency
-            // with the current three maximums
-            if (topThreeWords[0] == null 
-                    || value > topThreeWords[0].getValue()) {
-                // New word becomes highest frequent, pushing word that was most 
-                // frequent to second place, which in turn moves to third place
-                topThreeWords[2] = topThreeWords[1];
-                topThreeWords[1] = topThreeWords[0];
-                topThreeWords[0] = pair;
-            } else if (topThreeWords[1] == null
-                    || value > topThreeWords[1].getValue()) {
-                topThreeWords[2] = topThreeWords[1];
-                topThreeWords[1] = pair;
-            } else if (topThreeWords[2] == null
-                    || value > topThreeWords[2].getValue()) {
-                topThreeWords[2] = pair;
+        // Answers nothing for a prefix no word starts with
+        if (queryTrie == null) {
+            if (cache != null) {
+                cache.put(prefix, 3, topThree, generation);
             }
+
+            if (measured) {
+                CompletionMetrics.TOP_WORDS.record(prefix, startNanos,
+                        startBytes, prefix.length(), 0, 0);
+            }
+
+            return topThree;
         }
 
-        LinkedHashMap topThree = new LinkedHashMap();
+        AutoCompletionTrieNode queryNode = queryTrie.root;
 
-        // Ensures words in array are formatted properly, i.e have attached 
-        // prefix and display probability rather than frequency
-        for (int i = 0; i < topThreeWords.length; i++) {
-            if (topThreeWords[i] != null) {
-                String autoWord = prefix + topThreeWords[i].getKey();
-                Double probability
-                        = (double) topThreeWords[i].getValue() / totalFrequency;
+        // Reads the node's cached words, or searches for them without
+        // changing the trie if it was made with add, displaying probability
+        // rather than frequency
+        LinkedHashMap<String, Integer> frequencies = trie.getCompletions(
+                queryNode, prefix.toLowerCase(), 3);
 
-                topThree.put(autoWord, probability);
+        for (Map.Entry<String, Integer> pair : frequencies.entrySet()) {
+            Double probability = (double) pair.getValue()
+                    / queryNode.subtreeFrequency;
 
-            }
+            topThree.put(pair.getKey(), probability);
+        }
+
+        // The search records itself, so is not recorded again here
+        if (cache != null) {
+            cache.put(prefix, 3, topThree, generation);
         }
 
         return topThree;
 
     }
 
+    /**
+     * Retrieves top three words from a dictionary automaton that match given 
+     * prefix
+     *
+     * @param prefix        prefix queries to search for
+     * @param automaton     automaton to search for most frequent words
+     * @return list of most frequent words matching the prefix
+     */
+    public static LinkedHashMap<String, Double> getTopThreeWords(
+            String prefix, DictionaryAutomaton automaton) {
+        LinkedHashMap<String, Double> topThree = new LinkedHashMap<>();
+        LinkedHashMap<String, Integer> frequencies 
+                = automaton.getTopKWords(prefix, 3);
+
+        if (frequencies.isEmpty()) {
+            return topThree;
+        }
+
+        double totalFrequency = automaton.getCompletionFrequency(prefix);
+
+        for (Map.Entry<String, Integer> pair : frequencies.entrySet()) {
+            topThree.put(pair.getKey(), pair.getValue() / totalFrequency);
+        }
+
+        return topThree;
+    }
+
+    /**
+     * Retrieves top three words from a memory-mapped trie snapshot that match 
+     * given prefix
+     *
+     * @param prefix    prefix queries to search for
+     * @param trie      mapped trie to search for most frequent words
+     * @return list of most frequent words matching the prefix
+     */
+    public static LinkedHashMap<String, Double> getTopThreeWords(
+            String prefix, MappedAutoCompletionTrie trie) {
+        LinkedHashMap<String, Double> topThree = new LinkedHashMap<>();
+        double totalFrequency = trie.getTotalFrequency(prefix);
+
+        for (Map.Entry<String, Integer> pair 
+                : trie.getTopKWords(prefix, 3).entrySet()) {
+            topThree.put(pair.getKey(), pair.getValue() / totalFrequency);
+        }
+
+        return topThree;
+    }
+
+    /**
+     * Retrieves the k most frequent words from trie that match given prefix.
+     * The map returned is the caller's own, even when answered from a result
+     * cache attached to the trie.
+     *
+     * @param prefix    prefix to search for
+     * @param k         maximum number of words to retrieve
+     * @param trie      trie to search for most frequent words
+     * @return          words mapped to their probability, ordered by 
+     *                  probability (decreasing)
+     */
+    public static LinkedHashMap<String, Double> getTopKWords(String prefix,
+            int k, AutoCompletionTrie trie) {
+        boolean measured = CompletionMetrics.isEnabled();
+        long startNanos = measured ? System.nanoTime() : 0;
+        long startBytes = measured ? CompletionMetrics.allocatedBytes() : 0;
+        CompletionCache cache = trie.getCompletionCache();
+        long generation = 0;
+
+        // Answers from the attached result cache where possible, reading
+        // the generation first so a result computed as a word is added is
+        // not cached
+        if (cache != null) {
+            generation = cache.generation();
+
+            LinkedHashMap<String, Double> cached = cache.get(prefix, k);
+
+            if (cached != null) {
+                if (measured) {
+                    CompletionMetrics.TOP_WORDS.record(prefix, startNanos,
+                            startBytes, 0, 0, cached.size());
+                }
+
+                return cached;
+            }
+        }
+
+        LinkedHashMap<String, Double> topWords = new LinkedHashMap<>();
+        AutoCompletionTrie queryTrie = trie.getSubTrie(prefix);
+
+        if (queryTrie == null) {
+            if (cache != null) {
+                cache.put(prefix, k, topWords, generation);
+            }
+
+            if (measured) {
+                CompletionMetrics.TOP_WORDS.record(prefix, startNanos,
+                        startBytes, prefix.length(), 0, 0);
+            }
+
+            return topWords;
+        }
+
+        AutoCompletionTrieNode queryNode = queryTrie.root;
+        LinkedHashMap<String, Integer> frequencies 
+                = AutoCompletionTrie.getTopKWords(queryNode, 
+                        prefix.toLowerCase(), k);
+
+        for (Map.Entry<String, Integer> pair : frequencies.entrySet()) {
+            topWords.put(pair.getKey(),
+                    (double) pair.getValue() / queryNode.subtreeFrequency);
+        }
+
+        if (cache != null) {
+            cache.put(prefix, k, topWords, generation);
+        }
+
+        return topWords;
+    }
+
     /**
      * Prints a hashmap to standard output
      * 
      * @param map   hashmap to print to standard output 
      */
     public static void printToStandard(LinkedHashMap<String, Double> map) {
-        for (Map.Entry<String, Double> pair : map.entrySet()) {
-            DecimalFormat decimalFormat = new DecimalFormat("#.####");
+        DecimalFormat decimalFormat = new DecimalFormat("#.####");
 
+        for (Map.Entry<String, Double> pair : map.entrySet()) {
             System.out.println(pair.getKey()
                     + "(probability "
                     + decimalFormat.format(pair.getValue()) + ")");
@@ -135,13 +262,12 @@ public class AutoCompletion {
         System.out.println("");
     }
 
-    public static void main(String[] args) throws FileNotFoundException, 
-            IOException {
+    public static void main(String[] args) throws IOException {
         // Create dictionary from file and add to trie
-        ArrayList<String> lotr = readWordsFromCSV("lotr.csv");
         ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
 
-        TreeMap dictionary = DictionaryMaker.formDictionary(lotr);
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionaryFromCSV("lotr.csv");
 
         AutoCompletionTrie treebeard = addDictionary(dictionary);
 
@@ -11,10 +11,25 @@
  ******************************************************************************/
 package autocomplete;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -22,23 +37,50 @@ import java.util.Queue;
  */
 public class AutoCompletionTrie {
 
+    /**
+     * Number of ranked completions cached on each node by default
+     */
+    public static final int DEFAULT_CACHE_SIZE = 3;
+
     AutoCompletionTrieNode root;
+    int cacheSize;
+    boolean cacheBuilt;
+    CompletionCache completionCache;
 
     /**
      * Constructs a Trie with a null root
      */
     public AutoCompletionTrie() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a Trie with a null root, caching a given number of ranked
+     * completions on each node
+     *
+     * @param cacheSize number of completions to cache on each node
+     */
+    public AutoCompletionTrie(int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+
         this.root = new AutoCompletionTrieNode(null);
+        this.cacheSize = cacheSize;
+        this.cacheBuilt = false;
     }
 
     /**
-     * Constructs a Trie with a given trienode as the root
+     * Constructs a Trie with a given trienode as the root. The node is left 
+     * untouched, as it is still shared with the trie it came from, and its 
+     * value is skipped when traversing instead.
      *
      * @param root trienode to set as root
      */
     public AutoCompletionTrie(AutoCompletionTrieNode root) {
         this.root = root;
-        this.root.value = null;
+        this.cacheSize = DEFAULT_CACHE_SIZE;
+        this.cacheBuilt = false;
     }
 
     /**
@@ -51,6 +93,9 @@ public class AutoCompletionTrie {
     public boolean add(String key, int frequency) {
         boolean success = false;
         AutoCompletionTrieNode currentNode = this.root;
+        AutoCompletionTrieNode[] path
+                = new AutoCompletionTrieNode[key.length() + 1];
+        path[0] = currentNode;
 
         //Loops through each char in key adding to Trie if it doesn't exist
         for (int i = 0; i < key.length(); i++) {
@@ -61,15 +106,396 @@ public class AutoCompletionTrie {
                 success = true;
             }
 
-            currentNode = currentNode.getOffspring(c);;
+            currentNode = currentNode.getOffspring(c);
+            path[i + 1] = currentNode;
         }
 
+        int change = currentNode.isWord 
+                ? frequency - currentNode.frequency : frequency;
+        int wordChange = currentNode.isWord ? 0 : 1;
+
         currentNode.isWord = true;
         currentNode.frequency = frequency;
 
+        // Updates subtree aggregates of every node on the key's path, deepest
+        // first, as each maximum relies on its offspring's maximum
+        for (int i = key.length(); i >= 0; i--) {
+            path[i].subtreeFrequency += change;
+            path[i].wordCount += wordChange;
+            refreshMaxFrequency(path[i]);
+        }
+
+        // Keeps cached completions correct by refreshing every node on the
+        // key's path, deepest first, as each relies on its offspring's cache
+        if (cacheBuilt) {
+            String word = key.toLowerCase();
+
+            for (int i = key.length(); i >= 0; i--) {
+                refreshCompletions(path[i], 
+                        path[i].isWord ? word.substring(0, i) : null);
+            }
+        }
+
+        // Drops cached results of the key's prefixes, which may have changed
+        if (completionCache != null) {
+            completionCache.invalidate(key);
+        }
+
         return success;
     }
 
+    /**
+     * Builds a trie from words given in alphabetical order, as a saved
+     * dictionary or ExternalDictionaryBuilder gives them. Each word only adds
+     * the nodes after the prefix it shares with the word before, and a
+     * node's aggregates are summed once, when no later word can reach below
+     * it, rather than on every add through it. Ranked completions are built
+     * as each node is closed too, saving a separate walk of the trie.
+     *
+     * @param words     words and their frequencies, in alphabetical order
+     * @return          trie of the words with its completion cache built
+     * @throws IllegalArgumentException if a word is not after the one before
+     */
+    public static AutoCompletionTrie fromSorted(
+            Iterator<Map.Entry<String, Integer>> words) {
+        AutoCompletionTrie trie = new AutoCompletionTrie();
+        AutoCompletionTrieNode[] path = new AutoCompletionTrieNode[32];
+        String previous = null;
+        int depth = 0;
+
+        path[0] = trie.root;
+
+        while (words.hasNext()) {
+            Map.Entry<String, Integer> pair = words.next();
+            String key = pair.getKey().toLowerCase();
+
+            if (previous != null && key.compareTo(previous) <= 0) {
+                throw new IllegalArgumentException("Words out of order: "
+                        + previous + " before " + key);
+            }
+
+            int shared = 0;
+
+            while (shared < depth && shared < key.length()
+                    && key.charAt(shared) == previous.charAt(shared)) {
+                shared++;
+            }
+
+            trie.closePath(path, previous, depth, shared);
+
+            if (key.length() >= path.length) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2,
+                        key.length() + 1));
+            }
+
+            // Adds the nodes of the key past the shared prefix
+            for (int i = shared; i < key.length(); i++) {
+                path[i].setOffspring(key.charAt(i));
+                path[i + 1] = path[i].getOffspring(key.charAt(i));
+            }
+
+            path[key.length()].isWord = true;
+            path[key.length()].frequency = pair.getValue();
+            depth = key.length();
+            previous = key;
+        }
+
+        trie.closePath(path, previous, depth, 0);
+        trie.closeNode(trie.root, previous, 0);
+        trie.cacheBuilt = true;
+
+        return trie;
+    }
+
+    /**
+     * Closes the nodes on a path below a depth, deepest first, summing each
+     * node's aggregates into its parent
+     *
+     * @param path      nodes from the root to the last word added
+     * @param word      last word added
+     * @param depth     depth of the last word added
+     * @param shared    depth of the deepest node still to be added under
+     */
+    private void closePath(AutoCompletionTrieNode[] path, String word,
+            int depth, int shared) {
+        for (int i = depth; i > shared; i--) {
+            closeNode(path[i], word, i);
+            path[i - 1].subtreeFrequency += path[i].subtreeFrequency;
+            path[i - 1].wordCount += path[i].wordCount;
+        }
+    }
+
+    /**
+     * Adds a node's own word to the aggregates already summed from its
+     * offspring and ranks its completions
+     *
+     * @param currentNode   node whose offspring are all closed
+     * @param word          a word through the node
+     * @param depth         depth of the node
+     */
+    private void closeNode(AutoCompletionTrieNode currentNode, String word,
+            int depth) {
+        if (currentNode.isWord) {
+            currentNode.subtreeFrequency += currentNode.frequency;
+            currentNode.wordCount++;
+        }
+
+        refreshMaxFrequency(currentNode);
+        refreshCompletions(currentNode,
+                currentNode.isWord ? word.substring(0, depth) : null);
+    }
+
+    /**
+     * Removes a key from the trie, along with any nodes left leading to no 
+     * word
+     *
+     * @param key   key to remove from trie
+     * @return      true if key was removed, false if it was not in the trie
+     */
+    public boolean remove(String key) {
+        AutoCompletionTrieNode currentNode = this.root;
+        AutoCompletionTrieNode[] path
+                = new AutoCompletionTrieNode[key.length() + 1];
+        path[0] = currentNode;
+
+        //Loops through each char in key, checking they exist in the trie
+        for (int i = 0; i < key.length(); i++) {
+            currentNode = currentNode.getOffspring(key.charAt(i));
+
+            if (currentNode == null) {
+                return false;
+            }
+
+            path[i + 1] = currentNode;
+        }
+
+        if (!currentNode.isWord) {
+            return false;
+        }
+
+        int change = -currentNode.frequency;
+
+        currentNode.isWord = false;
+        currentNode.frequency = 0;
+
+        // Updates subtree aggregates of every node on the key's path, deepest
+        // first, as each maximum relies on its offspring's maximum
+        for (int i = key.length(); i >= 0; i--) {
+            path[i].subtreeFrequency += change;
+            path[i].wordCount--;
+            refreshMaxFrequency(path[i]);
+        }
+
+        // Unlinks the deepest nodes while they lead to no word
+        int depth = key.length();
+
+        while (depth > 0 && path[depth].wordCount == 0) {
+            path[depth - 1].removeOffspring(key.charAt(depth - 1));
+            depth--;
+        }
+
+        // Keeps cached completions correct by refreshing every node still on 
+        // the key's path, deepest first
+        if (cacheBuilt) {
+            String word = key.toLowerCase();
+
+            for (int i = depth; i >= 0; i--) {
+                refreshCompletions(path[i], 
+                        path[i].isWord ? word.substring(0, i) : null);
+            }
+        }
+
+        // Drops cached results of the key's prefixes, which may have changed
+        if (completionCache != null) {
+            completionCache.invalidate(key);
+        }
+
+        return true;
+    }
+
+    /**
+     * Counts the words that match a given prefix
+     *
+     * @param prefix    prefix to search for
+     * @return          number of words starting with prefix
+     */
+    public int countCompletions(String prefix) {
+        AutoCompletionTrieNode node = findNode(prefix);
+
+        return node != null ? node.wordCount : 0;
+    }
+
+    /**
+     * Retrieves the total frequency of the words that match a given prefix
+     *
+     * @param prefix    prefix to search for
+     * @return          sum of the frequencies of words starting with prefix
+     */
+    public int getTotalFrequency(String prefix) {
+        AutoCompletionTrieNode node = findNode(prefix);
+
+        return node != null ? node.subtreeFrequency : 0;
+    }
+
+    /**
+     * Builds the ranked completion cache of every node in the trie, after 
+     * which it is kept up to date by each call to add or remove
+     */
+    public void buildCompletionCache() {
+        buildCompletionCache(this.root, new StringBuilder());
+        this.cacheBuilt = true;
+    }
+
+    /**
+     * Attaches a cache of completion results, which is kept correct by each 
+     * call to add
+     *
+     * @param completionCache cache to attach, or null to detach
+     */
+    public void setCompletionCache(CompletionCache completionCache) {
+        this.completionCache = completionCache;
+    }
+
+    /**
+     * Retrieves the attached cache of completion results
+     *
+     * @return attached cache, or null if there is none
+     */
+    public CompletionCache getCompletionCache() {
+        return completionCache;
+    }
+
+    /**
+     * Checks whether the ranked completion cache has been built
+     *
+     * @return true if cache has been built, else false
+     */
+    public boolean isCompletionCacheBuilt() {
+        return cacheBuilt;
+    }
+
+    /**
+     * Builds the completion cache of a node after those of its offspring 
+     * (recursively)
+     *
+     * @param currentNode   node currently being cached
+     * @param word          word formed by the path to the current node
+     */
+    private void buildCompletionCache(AutoCompletionTrieNode currentNode,
+            StringBuilder word) {
+        // For each offspring, recursively cache it first
+        for (int i = 0; i < currentNode.offspringCount(); i++) {
+            word.append(currentNode.offspringKey(i));
+            buildCompletionCache(currentNode.offspringAt(i), word);
+            word.deleteCharAt(word.length() - 1);
+        }
+
+        refreshCompletions(currentNode, 
+                currentNode.isWord ? word.toString() : null);
+    }
+
+    /**
+     * Recomputes a node's ranked completions from its own word and the
+     * caches of its offspring
+     *
+     * @param currentNode   node to refresh
+     * @param word          word the node completes, null if it is not a word
+     */
+    private void refreshCompletions(AutoCompletionTrieNode currentNode,
+            String word) {
+        String[] words = new String[cacheSize];
+        int[] frequencies = new int[cacheSize];
+        int count = 0;
+
+        if (currentNode.isWord) {
+            count = rankCompletion(words, frequencies, count, word,
+                    currentNode.frequency);
+        }
+
+        // Merges each offspring's ranked completions, stopping at the first 
+        // that fails to rank as the rest are less frequent still
+        for (int i = 0; i < currentNode.offspringCount(); i++) {
+            AutoCompletionTrieNode child = currentNode.offspringAt(i);
+
+            for (int j = 0; j < child.completions.length; j++) {
+                int ranked = rankCompletion(words, frequencies, count,
+                        child.completions[j], child.completionFrequencies[j]);
+
+                if (ranked == -1) {
+                    break;
+                }
+
+                count = ranked;
+            }
+        }
+
+        if (count < cacheSize) {
+            words = Arrays.copyOf(words, count);
+            frequencies = Arrays.copyOf(frequencies, count);
+        }
+
+        currentNode.completions = words;
+        currentNode.completionFrequencies = frequencies;
+    }
+
+    /**
+     * Recomputes the highest frequency of any word under a node from its own
+     * frequency and the maximums of its offspring
+     *
+     * @param currentNode node to refresh
+     */
+    private static void refreshMaxFrequency(
+            AutoCompletionTrieNode currentNode) {
+        int max = currentNode.isWord ? currentNode.frequency : 0;
+
+        for (int i = 0; i < currentNode.offspringCount(); i++) {
+            max = Math.max(max, currentNode.offspringAt(i).maxFrequency);
+        }
+
+        currentNode.maxFrequency = max;
+    }
+
+    /**
+     * Inserts a word into a ranked list of completions, ordered by frequency
+     * (decreasing) and then alphabetically
+     *
+     * @param words         ranked words
+     * @param frequencies   frequencies of ranked words
+     * @param count         number of words currently ranked
+     * @param word          word to insert
+     * @param frequency     frequency of word to insert
+     * @return              new number of ranked words, or -1 if word did not 
+     *                      rank
+     */
+    private static int rankCompletion(String[] words, int[] frequencies,
+            int count, String word, int frequency) {
+        int pos = count;
+
+        // Finds the position of the word by moving up past less frequent words
+        while (pos > 0 && (frequency > frequencies[pos - 1]
+                || (frequency == frequencies[pos - 1]
+                && word.compareTo(words[pos - 1]) < 0))) {
+            pos--;
+        }
+
+        if (pos >= words.length) {
+            return -1;
+        }
+
+        // Shifts lower ranked words down, dropping the last if list is full
+        int last = Math.min(count, words.length - 1);
+
+        for (int i = last; i > pos; i--) {
+            words[i] = words[i - 1];
+            frequencies[i] = frequencies[i - 1];
+        }
+
+        words[pos] = word;
+        frequencies[pos] = frequency;
+
+        return Math.min(count + 1, words.length);
+    }
+
     /**
      * Checks if key exists in trie
      *
@@ -95,6 +521,28 @@ public class AutoCompletionTrie {
         return currentNode.isWord;
     }
 
+    /**
+     * Counts the nodes in the trie (iteratively)
+     *
+     * @return number of nodes in the trie
+     */
+    public int nodeCount() {
+        int count = 0;
+        ArrayList<AutoCompletionTrieNode> stack = new ArrayList<>();
+        stack.add(root);
+
+        while (!stack.isEmpty()) {
+            AutoCompletionTrieNode currentNode = stack.remove(stack.size() - 1);
+            count++;
+
+            for (int i = 0; i < currentNode.offspringCount(); i++) {
+                stack.add(currentNode.offspringAt(i));
+            }
+        }
+
+        return count;
+    }
+
     /**
      * Traverses through trie in breadth first traversal
      *
@@ -111,15 +559,13 @@ public class AutoCompletionTrie {
             AutoCompletionTrieNode currentNode = queue.remove();
 
             // Appends valid character to result
-            if (currentNode.value != null) {
+            if (hasValue(currentNode)) {
                 bfsResult.append(currentNode.value);
             }
 
             // Add all offspring of current node to queue
-            for (int i = 0; i < currentNode.offspring.length; i++) {
-                if (currentNode.offspring[i] != null) {
-                    queue.add(currentNode.offspring[i]);
-                }
+            for (int i = 0; i < currentNode.offspringCount(); i++) {
+                queue.add(currentNode.offspringAt(i));
             }
         }
 
@@ -136,14 +582,12 @@ public class AutoCompletionTrie {
     public String outputDepthFirstSearch(AutoCompletionTrieNode currentNode,
             StringBuilder dfsResult) {
         // For each offspring, recursively call this method
-        for (int i = 0; i < currentNode.offspring.length; i++) {
-            if (currentNode.offspring[i] != null) {
-                outputDepthFirstSearch(currentNode.offspring[i], dfsResult);
-            }
+        for (int i = 0; i < currentNode.offspringCount(); i++) {
+            outputDepthFirstSearch(currentNode.offspringAt(i), dfsResult);
         }
 
         // Append valid character to result
-        if (currentNode.value != null) {
+        if (hasValue(currentNode)) {
             dfsResult.append(currentNode.value);
         }
 
@@ -157,57 +601,539 @@ public class AutoCompletionTrie {
      * @return sub-trie rooted at given prefix if exists, else null
      */
     public AutoCompletionTrie getSubTrie(String prefix) {
+        boolean measured = CompletionMetrics.isEnabled();
+        long startNanos = measured ? System.nanoTime() : 0;
+        long startBytes = measured ? CompletionMetrics.allocatedBytes() : 0;
         AutoCompletionTrieNode currentNode = this.root;
+        AutoCompletionTrie subTrie = null;
+        int visited = 1;
 
         //Loops through each char in prefix, checking they exist in the trie
-        for (int i = 0; i < prefix.length(); i++) {
+        for (int i = 0; i < prefix.length() && currentNode != null; i++) {
             char c = prefix.charAt(i);
 
-            AutoCompletionTrieNode nextNode = currentNode.getOffspring(c);
+            // Leaves null if prefix does not exist in trie
+            currentNode = currentNode.getOffspring(c);
+            visited++;
+        }
 
-            // Return null if prefix does not exist in trie
-            if (nextNode == null) {
-                return null;
+        if (currentNode != null) {
+            subTrie = new AutoCompletionTrie(currentNode);
+        }
+
+        if (measured) {
+            CompletionMetrics.SUB_TRIE.record(prefix, startNanos, startBytes,
+                    visited, 0, subTrie == null ? 0 : 1);
+        }
+
+        return subTrie;
+    }
+
+    /**
+     * Retrieves the k most frequent words that match a given prefix, using a
+     * best-first search bounded by each subtree's highest frequency
+     *
+     * @param prefix    prefix to search for
+     * @param k         maximum number of words to retrieve
+     * @return          words mapped to their frequency, ordered by frequency 
+     *                  (decreasing) and then alphabetically
+     */
+    public LinkedHashMap<String, Integer> getTopKWords(String prefix, int k) {
+        AutoCompletionTrie queryTrie = getSubTrie(prefix);
+
+        if (queryTrie == null) {
+            return new LinkedHashMap<>();
+        }
+
+        return getTopKWords(queryTrie.root, prefix.toLowerCase(), k);
+    }
+
+    /**
+     * Fills a reusable holder with the k most frequent words that match a 
+     * given prefix, ordered as getTopKWords orders them. Nothing is 
+     * allocated once the holder's buffers have grown to fit the answers.
+     *
+     * @param prefix    prefix to search for
+     * @param k         maximum number of words to retrieve
+     * @param result    holder to fill, emptied first
+     */
+    public void complete(CharSequence prefix, int k, CompletionResult result) {
+        boolean measured = CompletionMetrics.isEnabled();
+        long startNanos = measured ? System.nanoTime() : 0;
+        long startBytes = measured ? CompletionMetrics.allocatedBytes() : 0;
+        AutoCompletionTrieNode currentNode = this.root;
+        int length = prefix.length();
+
+        result.clear(k);
+        result.ensurePath(length);
+
+        //Loops through each char in prefix, copying it to the search path
+        for (int i = 0; i < length && currentNode != null; i++) {
+            char c = Character.toLowerCase(prefix.charAt(i));
+
+            currentNode = currentNode.getOffspring(c);
+            result.path[i] = c;
+            result.nodesVisited++;
+        }
+
+        if (currentNode != null) {
+            complete(currentNode, length, k, result);
+        }
+
+        if (measured) {
+            CompletionMetrics.TOP_WORDS.record(prefix, startNanos, startBytes,
+                    result.nodesVisited, result.size, result.size);
+        }
+    }
+
+    /**
+     * Fills an emptied holder with the k most frequent words under a given 
+     * node, the path to the node already being in the holder's path buffer
+     *
+     * @param node      node to search from
+     * @param length    length of the path to the node
+     * @param k         maximum number of words to retrieve
+     * @param result    holder to fill
+     */
+    void complete(AutoCompletionTrieNode node, int length, int k,
+            CompletionResult result) {
+        if (k < 1) {
+            return;
+        }
+
+        result.totalFrequency = node.subtreeFrequency;
+
+        // Copies the node's cached words if they are enough, else searches 
+        // the subtree
+        if (cacheBuilt && k <= cacheSize) {
+            int count = Math.min(k, node.completions.length);
+
+            for (int i = 0; i < count; i++) {
+                result.add(node.completions[i], 
+                        node.completionFrequencies[i]);
             }
+        } else {
+            collectTopK(node, length, k, result);
+        }
 
-            currentNode = nextNode;
+        result.finish();
+    }
+
+    /**
+     * Offers every word under a node to a holder, in alphabetical order,
+     * skipping subtrees whose highest frequency cannot rank (recursively)
+     *
+     * @param currentNode   node currently being searched
+     * @param length        length of the path to the node, held in the 
+     *                      holder's path buffer
+     * @param k             maximum number of words to retrieve
+     * @param result        holder being filled
+     */
+    private static void collectTopK(AutoCompletionTrieNode currentNode,
+            int length, int k, CompletionResult result) {
+        result.nodesVisited++;
+
+        if (currentNode.isWord) {
+            result.offer(length, currentNode.frequency, k);
         }
 
-        return new AutoCompletionTrie(currentNode);
+        result.ensurePath(length + 1);
+
+        // For each offspring that may still rank, recursively search it
+        for (int i = 0; i < currentNode.offspringCount(); i++) {
+            AutoCompletionTrieNode child = currentNode.offspringAt(i);
+
+            if (child.maxFrequency > 0 
+                    && result.mayRank(child.maxFrequency, k)) {
+                result.path[length] = currentNode.offspringKey(i);
+                collectTopK(child, length + 1, k, result);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the k best words matching a prefix typed with up to a given 
+     * number of mistakes, scoring each by its frequency and its edits
+     *
+     * @param prefix    prefix to search for
+     * @param maxEdits  most edits allowed, from 0 to 2
+     * @param k         maximum number of words to retrieve
+     * @return          words mapped to their frequency, best first
+     */
+    public LinkedHashMap<String, Integer> getFuzzyTopKWords(String prefix,
+            int maxEdits, int k) {
+        return FuzzyCompletion.complete(this, prefix, maxEdits, k);
+    }
+
+    /**
+     * Retrieves the k most frequent words matching each prefix in a batch,
+     * walking prefixes that share a path once and spreading independent
+     * subtrees across the common fork-join pool
+     *
+     * @param prefixes  prefixes to search for
+     * @param k         maximum number of words to retrieve for each prefix
+     * @return          for each prefix, in the order given, its words mapped 
+     *                  to their frequency as getTopKWords orders them
+     */
+    public List<LinkedHashMap<String, Integer>> completeAll(
+            Collection<String> prefixes, int k) {
+        return BatchCompletion.completeAll(this, prefixes, k,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Retrieves the k most frequent words under a given node, reading the
+     * node's ranked completions when they are cached and hold enough words
+     *
+     * @param node      node to search from
+     * @param prefix    word formed by the path to the node
+     * @param k         maximum number of words to retrieve
+     * @return          words mapped to their frequency, ordered by frequency 
+     *                  (decreasing) and then alphabetically
+     */
+    LinkedHashMap<String, Integer> getCompletions(AutoCompletionTrieNode node,
+            String prefix, int k) {
+        if (!cacheBuilt || k > cacheSize) {
+            return getTopKWords(node, prefix, k);
+        }
+
+        boolean measured = CompletionMetrics.isEnabled();
+        long startNanos = measured ? System.nanoTime() : 0;
+        long startBytes = measured ? CompletionMetrics.allocatedBytes() : 0;
+        LinkedHashMap<String, Integer> topWords = new LinkedHashMap<>();
+        int count = Math.min(k, node.completions.length);
+
+        for (int i = 0; i < count; i++) {
+            topWords.put(node.completions[i], node.completionFrequencies[i]);
+        }
+
+        // Reading the cache visits only the node itself
+        if (measured) {
+            CompletionMetrics.TOP_WORDS.record(prefix, startNanos, startBytes,
+                    1, count, count);
+        }
+
+        return topWords;
+    }
+
+    /**
+     * Retrieves the k most frequent words under a given node
+     *
+     * @param node      node to search from
+     * @param prefix    word formed by the path to the node
+     * @param k         maximum number of words to retrieve
+     * @return          words mapped to their frequency, ordered by frequency 
+     *                  (decreasing) and then alphabetically
+     */
+    static LinkedHashMap<String, Integer> getTopKWords(
+            AutoCompletionTrieNode node, String prefix, int k) {
+        boolean measured = CompletionMetrics.isEnabled();
+        long startNanos = measured ? System.nanoTime() : 0;
+        long startBytes = measured ? CompletionMetrics.allocatedBytes() : 0;
+        RankedSearch<AutoCompletionTrieNode> search
+                = rankedSearch(node, prefix);
+        LinkedHashMap<String, Integer> topWords = search.getTopKWords(k);
+
+        if (measured) {
+            CompletionMetrics.TOP_WORDS.record(prefix, startNanos, startBytes,
+                    search.visited(), search.scanned(), topWords.size());
+        }
+
+        return topWords;
+    }
+
+    /**
+     * Starts a best-first search for the words under a given node
+     *
+     * @param node      node to search from
+     * @param prefix    word formed by the path to the node
+     * @return          search giving the words in rank order
+     */
+    static RankedSearch<AutoCompletionTrieNode> rankedSearch(
+            AutoCompletionTrieNode node, String prefix) {
+        return new RankedSearch<AutoCompletionTrieNode>(node, prefix,
+                node.maxFrequency) {
+            @Override
+            void expand(AutoCompletionTrieNode currentNode, String word) {
+                if (currentNode.isWord) {
+                    addWord(currentNode, word, currentNode.frequency);
+                }
+
+                // Add all offspring of current node bounded by their maximum
+                for (int i = 0; i < currentNode.offspringCount(); i++) {
+                    AutoCompletionTrieNode child = currentNode.offspringAt(i);
+
+                    addNode(child, word + currentNode.offspringKey(i),
+                            child.maxFrequency);
+                }
+            }
+        };
     }
 
     /**
-     * Retrieves all words in the trie (recursively)
+     * Retrieves all words in the trie under a given node
      *
      * @param currentNode   node currently being traversed
      * @param word          word currently being built
      * @param allWords      all words currently found within trie
-     * @return              a list containing all words in the trie
+     * @return              a hash table of all words in the trie mapped to 
+     *                      their frequency
      */
-    public HashMap getAllWords(AutoCompletionTrieNode currentNode, 
-            StringBuilder word, HashMap allWords) {
-        // Appends current node character to word (if valid)
-        if (currentNode.value != null) {
-            word.append(currentNode.value);
+    public HashMap<String, Integer> getAllWords(
+            AutoCompletionTrieNode currentNode, StringBuilder word, 
+            HashMap<String, Integer> allWords) {
+        if (!CompletionMetrics.isEnabled()) {
+            collectWords(currentNode, word, allWords);
+            return allWords;
         }
 
-        // Adds word to list once found
-        if (currentNode.isWord) {
-            allWords.put(word.toString(), currentNode.frequency);
+        long startNanos = System.nanoTime();
+        long startBytes = CompletionMetrics.allocatedBytes();
+        int before = allWords.size();
+        String prefix = word.toString();
+        int visited = collectWords(currentNode, word, allWords);
+
+        CompletionMetrics.ALL_WORDS.record(prefix, startNanos, startBytes,
+                visited, allWords.size() - before, allWords.size() - before);
+
+        return allWords;
+    }
+
+    /**
+     * Adds every word under a node to a hash table
+     *
+     * @param currentNode   node currently being searched
+     * @param word          word formed so far
+     * @param allWords      hash table to add words to
+     * @return              number of nodes visited
+     */
+    private int collectWords(AutoCompletionTrieNode currentNode, 
+            StringBuilder word, final HashMap<String, Integer> allWords) {
+        String path = hasValue(currentNode) 
+                ? word.toString() + currentNode.value : word.toString();
+        WordSpliterator words = new WordSpliterator(currentNode, path,
+                Long.MAX_VALUE);
+
+        words.forEachRemaining(new Consumer<Map.Entry<String, Integer>>() {
+            @Override
+            public void accept(Map.Entry<String, Integer> pair) {
+                allWords.put(pair.getKey(), pair.getValue());
+            }
+        });
+
+        return words.nodesVisited() + 1;
+    }
+
+    /**
+     * Lazily walks the words that match a given prefix in alphabetical 
+     * order. Each word costs a few steps, however many match, and the walk 
+     * splits into whole subtrees for parallel streams unless limited.
+     *
+     * @param prefix    prefix to search for
+     * @param after     word to resume after, or null to start at the first
+     * @param limit     most words to give
+     * @return          words mapped to their frequency, in alphabetical order
+     */
+    public Spliterator<Map.Entry<String, Integer>> wordSpliterator(
+            String prefix, String after, long limit) {
+        AutoCompletionTrieNode node = findNode(prefix);
+
+        if (node == null) {
+            return Spliterators.emptySpliterator();
         }
-        
-        // For each offspring, recursively call this method
-        for (int i = 0; i < currentNode.offspring.length; i++) {
-            if (currentNode.offspring[i] != null) {
-                getAllWords(currentNode.offspring[i], word, allWords);
+
+        WordSpliterator words = new WordSpliterator(node, 
+                prefix.toLowerCase(), limit);
+
+        if (after != null) {
+            words.skipTo(after);
+        }
+
+        return words;
+    }
+
+    /**
+     * Lazily walks the words that match a given prefix in alphabetical 
+     * order, a page at a time
+     *
+     * @param prefix    prefix to search for
+     * @param after     last word of the previous page, or null for the first
+     * @param limit     most words to give
+     * @return          words mapped to their frequency, in alphabetical order
+     */
+    public Iterator<Map.Entry<String, Integer>> iterateWords(String prefix,
+            String after, int limit) {
+        return Spliterators.iterator(wordSpliterator(prefix, after, limit));
+    }
+
+    /**
+     * Streams every word that matches a given prefix in alphabetical order
+     *
+     * @param prefix    prefix to search for
+     * @param parallel  true to walk subtrees in parallel
+     * @return          words mapped to their frequency
+     */
+    public Stream<Map.Entry<String, Integer>> streamWords(String prefix,
+            boolean parallel) {
+        return StreamSupport.stream(
+                wordSpliterator(prefix, null, Long.MAX_VALUE), parallel);
+    }
+
+    /**
+     * Lazily walks the words that match a given prefix by frequency 
+     * (decreasing) and then alphabetically, a page at a time. The previous
+     * page's last word and frequency together mark where to resume, so the
+     * page follows on correctly even if that word has since been changed
+     * or removed. Resuming searches again every word ranked before it.
+     *
+     * @param prefix            prefix to search for
+     * @param after             last word of the previous page, or null for
+     *                          the first
+     * @param afterFrequency    frequency the previous page gave that word,
+     *                          ignored for the first page
+     * @param limit             most words to give
+     * @return                  words mapped to their frequency, most
+     *                          frequent first
+     */
+    public Iterator<Map.Entry<String, Integer>> iterateByFrequency(
+            String prefix, String after, int afterFrequency, int limit) {
+        AutoCompletionTrieNode node = findNode(prefix);
+
+        if (node == null) {
+            return Collections.emptyIterator();
+        }
+
+        RankedWordIterator words = new RankedWordIterator(node, prefix, 
+                limit);
+
+        if (after != null) {
+            words.skipTo(after, afterFrequency);
+        }
+
+        return words;
+    }
+
+    /**
+     * Finds the node at the end of a given prefix
+     *
+     * @param prefix    prefix to search for
+     * @return          node reached by prefix if exists, else null
+     */
+    private AutoCompletionTrieNode findNode(String prefix) {
+        AutoCompletionTrieNode currentNode = this.root;
+
+        //Loops through each char in prefix, checking they exist in the trie
+        for (int i = 0; i < prefix.length() && currentNode != null; i++) {
+            currentNode = currentNode.getOffspring(prefix.charAt(i));
+        }
+
+        return currentNode;
+    }
+
+    /**
+     * Checks if a node's value belongs in traversals of this trie, which the
+     * root's does not
+     *
+     * @param currentNode node to check
+     * @return true if node has a value and is not the root, else false
+     */
+    private boolean hasValue(AutoCompletionTrieNode currentNode) {
+        return currentNode != root && currentNode.value != null;
+    }
+
+    public static void main(String[] args) throws IOException {
+        TreeMap<String, Integer> dictionary 
+                = DictionaryMaker.formDictionaryFromCSV("lotr.csv");
+        AutoCompletionTrie trie = AutoCompletion.addDictionary(dictionary);
+        HashMap<String, int[]> expected = new HashMap<>();
+
+        // Sums the words and frequencies under every prefix by hand
+        for (Map.Entry<String, Integer> pair : dictionary.entrySet()) {
+            for (int i = 0; i <= pair.getKey().length(); i++) {
+                String prefix = pair.getKey().substring(0, i);
+
+                if (!expected.containsKey(prefix)) {
+                    expected.put(prefix, new int[2]);
+                }
+
+                expected.get(prefix)[0]++;
+                expected.get(prefix)[1] += pair.getValue();
             }
         }
-        
-        // Removes current node character from word (if valid)
-        if (currentNode.value != null) {
-            word.deleteCharAt(word.length() - 1);
+
+        System.out.println("Aggregates match the dictionary? " 
+                + aggregatesMatch(trie, expected));
+
+        // Removes every other word, checking the trie then matches one built 
+        // from the words left
+        trie.buildCompletionCache();
+        TreeMap<String, Integer> remaining = new TreeMap<>();
+        boolean removed = true;
+        int i = 0;
+
+        for (Map.Entry<String, Integer> pair : dictionary.entrySet()) {
+            if (i++ % 2 == 0) {
+                removed &= trie.remove(pair.getKey());
+            } else {
+                remaining.put(pair.getKey(), pair.getValue());
+            }
         }
 
-        return allWords;
+        AutoCompletionTrie rebuilt = AutoCompletion.addDictionary(remaining);
+        rebuilt.buildCompletionCache();
+        boolean same = trie.nodeCount() == rebuilt.nodeCount();
+
+        for (String prefix : expected.keySet()) {
+            same &= trie.countCompletions(prefix) 
+                    == rebuilt.countCompletions(prefix)
+                    && trie.getTotalFrequency(prefix) 
+                    == rebuilt.getTotalFrequency(prefix)
+                    && AutoCompletion.getTopKWords(prefix, 3, trie).equals(
+                            AutoCompletion.getTopKWords(prefix, 3, rebuilt));
+
+            // Compares the cached completions of the prefix's node too
+            AutoCompletionTrieNode node = trie.findNode(prefix);
+            AutoCompletionTrieNode rebuiltNode = rebuilt.findNode(prefix);
+            same &= (node == null) == (rebuiltNode == null);
+
+            if (node != null && rebuiltNode != null) {
+                same &= trie.getCompletions(node, prefix, 3).equals(
+                        rebuilt.getCompletions(rebuiltNode, prefix, 3));
+            }
+        }
+
+        System.out.println("Removed every other word? " + removed);
+        System.out.println("Same as a trie of the words left? " + same);
+        System.out.println("Removed a missing word? " + trie.remove("gandalfz")
+                + ", removed a prefix that is not a word? " 
+                + trie.remove("gan"));
+
+        // Puts the words back, checking the aggregates are restored
+        for (Map.Entry<String, Integer> pair : dictionary.entrySet()) {
+            trie.add(pair.getKey(), pair.getValue());
+        }
+
+        System.out.println("Aggregates restored after adding back? " 
+                + aggregatesMatch(trie, expected));
+    }
+
+    /**
+     * Checks a trie's word count and total frequency under each prefix
+     *
+     * @param trie      trie to check
+     * @param expected  word count and total frequency of each prefix
+     * @return          true if all match, else false
+     */
+    private static boolean aggregatesMatch(AutoCompletionTrie trie,
+            HashMap<String, int[]> expected) {
+        boolean same = true;
+
+        for (Map.Entry<String, int[]> pair : expected.entrySet()) {
+            same &= trie.countCompletions(pair.getKey()) == pair.getValue()[0]
+                    && trie.getTotalFrequency(pair.getKey()) 
+                    == pair.getValue()[1];
+        }
+
+        return same && trie.countCompletions("zzz") == 0;
     }
 }
@@ -11,16 +11,38 @@
  ******************************************************************************/
 package autocomplete;
 
+import java.util.Arrays;
+
 /**
+ * A trie node whose offspring table grows with its fan-out: sorted key arrays
+ * of 4, 16 and 48 slots, then a table indexed directly by character once a
+ * node is dense enough for that to pay off.
  *
  * @author Ali Jarjis
  */
 public class AutoCompletionTrieNode {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final AutoCompletionTrieNode[] NO_OFFSPRING
+            = new AutoCompletionTrieNode[0];
+    private static final String[] NO_COMPLETIONS = new String[0];
+    private static final int[] NO_FREQUENCIES = new int[0];
+    private static final int[] SORTED_CAPACITIES = {4, 16, 48};
+    private static final int DIRECT_CAPACITY = 256;
+
     Character value;
+    char[] keys;
     AutoCompletionTrieNode[] offspring;
+    int offspringCount;
+    boolean direct;
     boolean isWord;
     int frequency;
-    
+    String[] completions;
+    int[] completionFrequencies;
+    int subtreeFrequency;
+    int maxFrequency;
+    int wordCount;
+
     /**
      * Constructs a TrieNode with a given value
      *
@@ -28,9 +50,17 @@ public class AutoCompletionTrieNode {
      */
     public AutoCompletionTrieNode(Character character) {
         this.value = character;
-        this.offspring = new AutoCompletionTrieNode[26];
+        this.keys = NO_KEYS;
+        this.offspring = NO_OFFSPRING;
+        this.offspringCount = 0;
+        this.direct = false;
         this.isWord = false;
         this.frequency = 0;
+        this.completions = NO_COMPLETIONS;
+        this.completionFrequencies = NO_FREQUENCIES;
+        this.subtreeFrequency = 0;
+        this.maxFrequency = 0;
+        this.wordCount = 0;
     }
 
     /**
@@ -41,27 +71,207 @@ public class AutoCompletionTrieNode {
      */
     public AutoCompletionTrieNode getOffspring(char c) {
         c = Character.toLowerCase(c);   // Ensures trie remains lowercase
-        int pos = c - 'a';  // Get value's position in alphabet (minus 1)
 
-        return offspring[pos];
+        if (direct) {
+            return c < DIRECT_CAPACITY ? offspring[c] : null;
+        }
+
+        int pos = findKey(c);
+
+        return pos >= 0 ? offspring[pos] : null;
     }
 
     /**
-     * Creates a new child node for a given value
-     * 
+     * Creates a new child node for a given value, growing the offspring
+     * table if it is full
+     *
      * @param c     value to add as offspring
      * @return      true if newly created offspring, false if already existed
      */
     public boolean setOffspring(char c) {
         c = Character.toLowerCase(c);   // Ensures trie remains lowercase
-        int pos = c - 'a';  // Get value's position in alphabet (minus 1)
-        
-        if (offspring[pos] == null) {
-            offspring[pos] = new AutoCompletionTrieNode(c);
-            return true;
+
+        if (getOffspring(c) != null) {
+            return false;
+        }
+
+        AutoCompletionTrieNode child = new AutoCompletionTrieNode(c);
+        int pos = -(findKey(c) + 1);
+
+        // Direct tables only hold characters they can index
+        boolean indexable = c < DIRECT_CAPACITY && (offspringCount == 0
+                || keys[offspringCount - 1] < DIRECT_CAPACITY);
+
+        if (direct && !indexable) {
+            resize(offspringCount * 2, false);
+        }
+
+        if (offspringCount == keys.length) {
+            resize(offspringCount + 1, indexable);
+        }
+
+        System.arraycopy(keys, pos, keys, pos + 1, offspringCount - pos);
+        keys[pos] = c;
+
+        if (direct) {
+            offspring[c] = child;
         } else {
+            System.arraycopy(offspring, pos, offspring, pos + 1,
+                    offspringCount - pos);
+            offspring[pos] = child;
+        }
+
+        offspringCount++;
+
+        return true;
+    }
+
+    /**
+     * Removes the child node for a given value, shrinking the offspring
+     * table once it is mostly empty
+     *
+     * @param c     value of offspring to remove
+     * @return      true if offspring was removed, false if it did not exist
+     */
+    public boolean removeOffspring(char c) {
+        c = Character.toLowerCase(c);   // Ensures trie remains lowercase
+
+        int pos = findKey(c);
+
+        if (pos < 0) {
             return false;
         }
-        
+
+        if (direct) {
+            offspring[c] = null;
+        } else {
+            System.arraycopy(offspring, pos + 1, offspring, pos,
+                    offspringCount - pos - 1);
+            offspring[offspringCount - 1] = null;
+        }
+
+        System.arraycopy(keys, pos + 1, keys, pos, offspringCount - pos - 1);
+        offspringCount--;
+
+        // Shrinks to the next smaller table once a quarter of it would be
+        // spare, so a node on the boundary does not resize on every change
+        int smaller = 0;
+
+        for (int capacity : SORTED_CAPACITIES) {
+            if (capacity < keys.length) {
+                smaller = capacity;
+            }
+        }
+
+        if (offspringCount <= smaller * 3 / 4) {
+            resize(offspringCount, false);
+        }
+
+        return true;
+    }
+
+    /**
+     * Retrieves the number of offspring
+     *
+     * @return number of offspring
+     */
+    public int offspringCount() {
+        return offspringCount;
+    }
+
+    /**
+     * Retrieves the value of an offspring, offspring being in alphabetical
+     * order
+     *
+     * @param i     position of offspring
+     * @return      value of the offspring
+     */
+    public char offspringKey(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Retrieves an offspring, offspring being in alphabetical order
+     *
+     * @param i     position of offspring
+     * @return      the offspring node
+     */
+    public AutoCompletionTrieNode offspringAt(int i) {
+        return direct ? offspring[keys[i]] : offspring[i];
+    }
+
+    /**
+     * Searches the sorted keys for a value
+     *
+     * @param c     value to search for
+     * @return      position of the value if present, else (-(insertion
+     *              point) - 1)
+     */
+    int findKey(char c) {
+        // Small tables are quicker to scan than to bisect
+        if (keys.length <= SORTED_CAPACITIES[0]) {
+            for (int i = 0; i < offspringCount; i++) {
+                if (keys[i] == c) {
+                    return i;
+                } else if (keys[i] > c) {
+                    return -(i + 1);
+                }
+            }
+
+            return -(offspringCount + 1);
+        }
+
+        return Arrays.binarySearch(keys, 0, offspringCount, c);
+    }
+
+    /**
+     * Moves the offspring into the smallest table that holds a given number
+     * of them
+     *
+     * @param required    number of offspring the table must hold
+     * @param indexable   whether every key can be indexed directly
+     */
+    private void resize(int required, boolean indexable) {
+        if (required == 0) {
+            keys = NO_KEYS;
+            offspring = NO_OFFSPRING;
+            direct = false;
+            return;
+        }
+
+        int capacity = 0;
+
+        for (int size : SORTED_CAPACITIES) {
+            if (capacity < required) {
+                capacity = size;
+            }
+        }
+
+        boolean toDirect = false;
+
+        // Past the largest sorted table, index directly if every key fits
+        if (capacity < required) {
+            toDirect = indexable;
+            capacity = toDirect ? DIRECT_CAPACITY : Math.max(required,
+                    offspringCount * 2);
+        }
+
+        char[] newKeys = Arrays.copyOf(keys, capacity);
+        AutoCompletionTrieNode[] newOffspring
+                = new AutoCompletionTrieNode[capacity];
+
+        for (int i = 0; i < offspringCount; i++) {
+            AutoCompletionTrieNode child = offspringAt(i);
+
+            if (toDirect) {
+                newOffspring[keys[i]] = child;
+            } else {
+                newOffspring[i] = child;
+            }
+        }
+
+        keys = newKeys;
+        offspring = newOffspring;
+        direct = toDirect;
     }
 }
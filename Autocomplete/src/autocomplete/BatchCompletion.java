@@ -0,0 +1,260 @@
+/** ***************************************************************************
+ *
+ * File        : BatchCompletion.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that answers a batch of prefix queries at once,
+ *               sharing the walk down common prefixes.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts a batch of prefixes so those sharing a path sit together, then walks
+ * the trie once per distinct path. At each node the sorted range splits by
+ * next character, and ranges large enough to be worth it are answered by
+ * their own fork-join task. Duplicate prefixes are answered once.
+ *
+ * @author Ali Jarjis
+ */
+public class BatchCompletion {
+
+    // Ranges with fewer distinct prefixes than this are walked in the
+    // current task rather than forked
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    private BatchCompletion() {}
+
+    /**
+     * Retrieves the k most frequent words matching each prefix in a batch
+     *
+     * @param trie      trie to search, which must not be changed meanwhile
+     * @param prefixes  prefixes to search for
+     * @param k         maximum number of words to retrieve for each prefix
+     * @param pool      pool to run the walk in
+     * @return          for each prefix, in the order given, its words mapped
+     *                  to their frequency as getTopKWords orders them
+     */
+    public static List<LinkedHashMap<String, Integer>> completeAll(
+            AutoCompletionTrie trie, Collection<String> prefixes, int k,
+            ForkJoinPool pool) {
+        String[] keys = new String[prefixes.size()];
+        HashMap<String, Integer> positions = new HashMap<>();
+        int n = 0;
+
+        // Collects each distinct prefix once, however often it is logged
+        for (String prefix : prefixes) {
+            keys[n] = prefix.toLowerCase();
+            positions.put(keys[n], 0);
+            n++;
+        }
+
+        // Sorts the distinct prefixes, so every prefix of a path is followed
+        // by the longer prefixes that extend it
+        String[] distinct = positions.keySet().toArray(new String[0]);
+        Arrays.sort(distinct);
+
+        for (int i = 0; i < distinct.length; i++) {
+            positions.put(distinct[i], i);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        LinkedHashMap<String, Integer>[] answers
+                = new LinkedHashMap[distinct.length];
+
+        if (distinct.length > 0) {
+            pool.invoke(new WalkTask(trie, trie.root, 0, distinct, 0,
+                    distinct.length, k, answers));
+        }
+
+        // Hands each copy of a prefix its own answer, in input order
+        ArrayList<LinkedHashMap<String, Integer>> results
+                = new ArrayList<>(n);
+        boolean[] used = new boolean[distinct.length];
+
+        for (int i = 0; i < n; i++) {
+            int position = positions.get(keys[i]);
+
+            results.add(used[position]
+                    ? new LinkedHashMap<>(answers[position])
+                    : answers[position]);
+            used[position] = true;
+        }
+
+        return results;
+    }
+
+    /**
+     * Answers a sorted range of distinct prefixes that all begin with the
+     * path to a node
+     */
+    private static class WalkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final AutoCompletionTrie trie;
+        private final AutoCompletionTrieNode node;
+        private final int depth;
+        private final String[] prefixes;
+        private final int from;
+        private final int to;
+        private final int k;
+        private final LinkedHashMap<String, Integer>[] answers;
+
+        WalkTask(AutoCompletionTrie trie, AutoCompletionTrieNode node,
+                int depth, String[] prefixes, int from, int to, int k,
+                LinkedHashMap<String, Integer>[] answers) {
+            this.trie = trie;
+            this.node = node;
+            this.depth = depth;
+            this.prefixes = prefixes;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.answers = answers;
+        }
+
+        @Override
+        protected void compute() {
+            walk(node, depth, from, to);
+        }
+
+        /**
+         * Answers a range, descending into each group of prefixes that
+         * continue with the same character
+         *
+         * @param currentNode   node the range's shared path ends on
+         * @param length        length of the shared path
+         * @param start         first position of range
+         * @param end           position after range
+         */
+        private void walk(AutoCompletionTrieNode currentNode, int length,
+                int start, int end) {
+            // Sorting puts a prefix ending here ahead of those extending it
+            if (prefixes[start].length() == length) {
+                answers[start] = trie.getCompletions(currentNode,
+                        prefixes[start], k);
+                start++;
+            }
+
+            ArrayList<WalkTask> forked = new ArrayList<>();
+
+            // Loops through each group of prefixes sharing the next character
+            while (start < end) {
+                char c = prefixes[start].charAt(length);
+                int groupEnd = start + 1;
+
+                while (groupEnd < end
+                        && prefixes[groupEnd].charAt(length) == c) {
+                    groupEnd++;
+                }
+
+                AutoCompletionTrieNode child = currentNode.getOffspring(c);
+
+                if (child == null) {
+                    // No prefix in the group exists in the trie
+                    for (int i = start; i < groupEnd; i++) {
+                        answers[i] = new LinkedHashMap<>();
+                    }
+                } else if (groupEnd - start >= SEQUENTIAL_THRESHOLD) {
+                    WalkTask task = new WalkTask(trie, child, length + 1,
+                            prefixes, start, groupEnd, k, answers);
+                    task.fork();
+                    forked.add(task);
+                } else {
+                    walk(child, length + 1, start, groupEnd);
+                }
+
+                start = groupEnd;
+            }
+
+            for (WalkTask task : forked) {
+                task.join();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionaryFromCSV("lotr.csv");
+        AutoCompletionTrie trie = AutoCompletion.addDictionary(dictionary);
+        int rounds = 10;
+
+        // Logs every prefix of every word in the corpus dictionary, which
+        // share paths as logged keystrokes do
+        ArrayList<String> batch = new ArrayList<>();
+
+        for (int r = 0; r < 20; r++) {
+            for (String w : dictionary.keySet()) {
+                for (int i = 1; i <= w.length(); i++) {
+                    batch.add(w.substring(0, i));
+                }
+            }
+        }
+
+        batch.addAll(lotrQueries);
+
+        // Tests that the batch matches answering each prefix on its own
+        boolean same = true;
+
+        for (int k : new int[]{3, 10}) {
+            List<LinkedHashMap<String, Integer>> results
+                    = trie.completeAll(batch, k);
+
+            for (int i = 0; i < batch.size(); i++) {
+                same &= trie.getTopKWords(batch.get(i), k)
+                        .equals(results.get(i));
+            }
+        }
+
+        System.out.println("Same answers as one at a time? " + same);
+        System.out.println("Prefixes in batch: " + batch.size());
+
+        // Times one at a time against the batch on each pool size
+        long best = Long.MAX_VALUE;
+
+        for (int r = 0; r < rounds; r++) {
+            long start = System.nanoTime();
+
+            for (String q : batch) {
+                trie.getTopKWords(q, 3);
+            }
+
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("One at a time: %.1f ms%n", best / 1e6);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            best = Long.MAX_VALUE;
+
+            for (int r = 0; r < rounds; r++) {
+                long start = System.nanoTime();
+                completeAll(trie, batch, 3, pool);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+
+            pool.shutdown();
+            System.out.printf("Batch on %d thread(s): %.1f ms%n", threads,
+                    best / 1e6);
+        }
+    }
+}
@@ -0,0 +1,467 @@
+/** ***************************************************************************
+ *
+ * File        : CompletionCache.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that caches completion results for frequently
+ *               queried prefixes.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * A bounded cache of completion results keyed by prefix, using segmented LRU
+ * eviction. New entries start on probation, and only an entry hit again
+ * while there is promoted to the protected segment. A scan of one-off
+ * prefixes therefore churns through probation without pushing out the
+ * popular prefixes held in the protected segment.
+ *
+ * The cache is bounded either by number of entries or by an estimate of the
+ * bytes each entry holds. Once attached to a trie with
+ * AutoCompletionTrie.setCompletionCache, adding a word drops only the
+ * entries for that word's prefixes. Every drop moves the cache on a
+ * generation, and a result is only put if no drop came between reading the
+ * generation and putting it, so a result computed while a word was being
+ * added is never cached after that word's drop.
+ *
+ * @author Ali Jarjis
+ */
+public class CompletionCache {
+
+    // Share of the capacity kept for entries that have been hit again
+    private static final double PROTECTED_SHARE = 0.8;
+
+    private final boolean boundedByBytes;
+    private final long capacity;
+    private final long protectedCapacity;
+    private final LinkedHashMap<String, Entry> probation;
+    private final LinkedHashMap<String, Entry> protectedSegment;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private long generation;
+
+    /**
+     * Constructs a cache
+     *
+     * @param capacity          most entries, or bytes, to hold
+     * @param boundedByBytes    true to bound by estimated bytes, false to
+     *                          bound by number of entries
+     */
+    private CompletionCache(long capacity, boolean boundedByBytes) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        this.boundedByBytes = boundedByBytes;
+        this.capacity = capacity;
+        this.protectedCapacity = (long) (capacity * PROTECTED_SHARE);
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Constructs a cache holding at most a given number of entries
+     *
+     * @param maxEntries most entries to hold
+     * @return an empty cache
+     */
+    public static CompletionCache withMaxEntries(int maxEntries) {
+        return new CompletionCache(maxEntries, false);
+    }
+
+    /**
+     * Constructs a cache holding at most a given estimate of bytes
+     *
+     * @param maxBytes most bytes to hold
+     * @return an empty cache
+     */
+    public static CompletionCache withMaxBytes(long maxBytes) {
+        return new CompletionCache(maxBytes, true);
+    }
+
+    /**
+     * Retrieves the cached completions of a prefix. The map returned is a
+     * copy, so changing it leaves the cached one as it was.
+     *
+     * @param prefix    prefix to look up
+     * @param k         number of words the completions were retrieved for
+     * @return          cached completions, or null if not cached for k
+     */
+    public synchronized LinkedHashMap<String, Double> get(String prefix,
+            int k) {
+        String key = prefix.toLowerCase();
+        Entry entry = protectedSegment.get(key);
+
+        if (entry == null) {
+            entry = probation.get(key);
+
+            // Hit again while on probation, so earns protection
+            if (entry != null && entry.k == k) {
+                probation.remove(key);
+                probationWeight -= entry.weight;
+                protectedSegment.put(key, entry);
+                protectedWeight += entry.weight;
+                demoteProtected();
+            }
+        }
+
+        if (entry == null || entry.k != k) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+
+        return new LinkedHashMap<>(entry.completions);
+    }
+
+    /**
+     * Caches the completions of a prefix, replacing any held for it, unless
+     * entries have been dropped since they were computed
+     *
+     * @param prefix        prefix to cache
+     * @param k             number of words the completions were retrieved for
+     * @param completions   completions to cache, which are copied so the
+     *                      caller may go on changing them
+     * @param generation    generation read before computing the completions
+     */
+    public synchronized void put(String prefix, int k,
+            LinkedHashMap<String, Double> completions, long generation) {
+        // A word was added meanwhile, so the completions may be stale
+        if (generation != this.generation) {
+            return;
+        }
+
+        String key = prefix.toLowerCase();
+        Entry entry = new Entry(k, new LinkedHashMap<>(completions),
+                weigh(key, completions));
+
+        remove(key);
+
+        // Too large to ever fit, so is not cached at all
+        if (entry.weight > capacity) {
+            return;
+        }
+
+        probation.put(key, entry);
+        probationWeight += entry.weight;
+        evict();
+    }
+
+    /**
+     * Drops the cached completions of every prefix of a word, as adding the
+     * word may change them
+     *
+     * @param word word that was added or changed
+     */
+    public synchronized void invalidate(String word) {
+        String key = word.toLowerCase();
+        generation++;
+
+        // Loops through each prefix of the word, including the empty prefix
+        for (int i = 0; i <= key.length(); i++) {
+            if (remove(key.substring(0, i))) {
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Drops every cached entry
+     */
+    public synchronized void clear() {
+        generation++;
+        probation.clear();
+        protectedSegment.clear();
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    /**
+     * Retrieves the current generation, to be read before computing
+     * completions to put
+     *
+     * @return number of times entries have been dropped
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Retrieves the number of entries cached
+     *
+     * @return number of entries
+     */
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * Retrieves the total weight of the cached entries, in entries or
+     * estimated bytes depending on how the cache is bounded
+     *
+     * @return total weight
+     */
+    public synchronized long weight() {
+        return probationWeight + protectedWeight;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized long invalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Retrieves the share of lookups that were hits
+     *
+     * @return hits divided by lookups, or 0 if there were none
+     */
+    public synchronized double hitRate() {
+        long lookups = hits + misses;
+
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d entries, %d hits, %d misses, %d evictions, "
+                + "%d invalidations, hit rate %.3f", size(), hits, misses,
+                evictions, invalidations, hitRate());
+    }
+
+    /**
+     * Removes a prefix from whichever segment holds it
+     *
+     * @param key prefix to remove
+     * @return true if the prefix was cached, else false
+     */
+    private boolean remove(String key) {
+        Entry entry = probation.remove(key);
+
+        if (entry != null) {
+            probationWeight -= entry.weight;
+            return true;
+        }
+
+        entry = protectedSegment.remove(key);
+
+        if (entry != null) {
+            protectedWeight -= entry.weight;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Moves the least recently used protected entries back to probation
+     * while the protected segment is over its share
+     */
+    private void demoteProtected() {
+        Iterator<Map.Entry<String, Entry>> eldest
+                = protectedSegment.entrySet().iterator();
+
+        while (protectedWeight > protectedCapacity && eldest.hasNext()) {
+            Map.Entry<String, Entry> pair = eldest.next();
+            eldest.remove();
+            protectedWeight -= pair.getValue().weight;
+            probation.put(pair.getKey(), pair.getValue());
+            probationWeight += pair.getValue().weight;
+        }
+
+        evict();
+    }
+
+    /**
+     * Evicts the least recently used entries on probation, then protected
+     * ones, until the cache is within its capacity
+     */
+    private void evict() {
+        Iterator<Entry> eldest = probation.values().iterator();
+
+        while (probationWeight + protectedWeight > capacity
+                && eldest.hasNext()) {
+            probationWeight -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+
+        eldest = protectedSegment.values().iterator();
+
+        while (probationWeight + protectedWeight > capacity
+                && eldest.hasNext()) {
+            protectedWeight -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Estimates the weight of an entry, in bytes if bounded by bytes
+     *
+     * @param key           prefix of entry
+     * @param completions   completions of entry
+     * @return              weight of entry
+     */
+    private long weigh(String key, LinkedHashMap<String, Double> completions) {
+        if (!boundedByBytes) {
+            return 1;
+        }
+
+        // Strings, the map and its nodes, the boxed doubles and the entry
+        long bytes = 56 + 2L * key.length() + 56 + 32;
+
+        for (String word : completions.keySet()) {
+            bytes += 56 + 2L * word.length() + 40 + 16;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * The completions cached for a prefix and what they cost to hold
+     */
+    private static class Entry {
+        final int k;
+        final LinkedHashMap<String, Double> completions;
+        final long weight;
+
+        Entry(int k, LinkedHashMap<String, Double> completions, long weight) {
+            this.k = k;
+            this.completions = completions;
+            this.weight = weight;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionaryFromCSV("lotr.csv");
+        AutoCompletionTrie trie = AutoCompletion.addDictionary(dictionary);
+        Random random = new Random(42);
+
+        // Skews traffic towards a few prefixes, mixed with a scan of one-off
+        // prefixes as a crawler or a batch job would send
+        ArrayList<String> popular = new ArrayList<>();
+        ArrayList<String> scan = new ArrayList<>();
+
+        for (String w : dictionary.keySet()) {
+            for (int i = 1; i <= w.length(); i++) {
+                scan.add(w.substring(0, i));
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            popular.add(scan.get(random.nextInt(scan.size())));
+        }
+
+        ArrayList<String> traffic = new ArrayList<>();
+        int next = 0;
+
+        for (int i = 0; i < 200000; i++) {
+            if (i % 3 == 0) {
+                traffic.add(scan.get(next++ % scan.size()));
+            } else {
+                // Zipf-like, the r-th most popular prefix drawn about 1/r
+                double u = random.nextDouble();
+                int rank = (int) Math.pow(popular.size() + 1, u) - 1;
+                traffic.add(popular.get(rank));
+            }
+        }
+
+        // Compares segmented LRU against a plain LRU of the same size
+        CompletionCache cache = withMaxEntries(150);
+        LinkedHashMap<String, Boolean> lru
+                = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, Boolean> eldest) {
+                return size() > 150;
+            }
+        };
+        long lruHits = 0;
+
+        trie.setCompletionCache(cache);
+
+        for (String q : traffic) {
+            AutoCompletion.getTopKWords(q, 3, trie);
+
+            if (lru.get(q) != null) {
+                lruHits++;
+            } else {
+                lru.put(q, true);
+            }
+        }
+
+        System.out.println("Segmented LRU: " + cache);
+        System.out.printf("Plain LRU hit rate: %.3f%n",
+                (double) lruHits / traffic.size());
+
+        // Tests that adding a word drops its prefixes' cached entries
+        for (String q : lotrQueries) {
+            AutoCompletion.getTopKWords(q, 3, trie);
+        }
+
+        trie.add("gollum", 100000);
+        boolean same = true;
+
+        for (String q : lotrQueries) {
+            same &= AutoCompletion.getTopKWords(q, 3, trie).equals(
+                    AutoCompletion.getTopKWords(q, 3,
+                            new AutoCompletionTrie(trie.root)));
+        }
+
+        System.out.println("Cached answers correct after add? " + same);
+        System.out.println("After add: " + cache);
+
+        // Tests that a result computed before an add is not cached after it
+        long generation = cache.generation();
+        LinkedHashMap<String, Double> stale = AutoCompletion.getTopKWords(
+                "sam", 3, new AutoCompletionTrie(trie.root));
+
+        trie.add("samwise", 100000);
+        cache.put("sam", 3, stale, generation);
+        System.out.println("Stale result refused? "
+                + (cache.get("sam", 3) == null));
+
+        // Tests that a cache bounded by bytes stays within its bound
+        CompletionCache byteCache = withMaxBytes(64 * 1024);
+        trie.setCompletionCache(byteCache);
+
+        for (String q : traffic) {
+            AutoCompletion.getTopKWords(q, 3, trie);
+        }
+
+        System.out.println("Bytes bounded: " + byteCache + ", "
+                + byteCache.weight() + " of " + byteCache.capacity
+                + " bytes");
+    }
+}
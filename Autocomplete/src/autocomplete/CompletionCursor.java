@@ -0,0 +1,330 @@
+/** ***************************************************************************
+ *
+ * File        : CompletionCursor.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that follows a user's typing through a trie one
+ *               keystroke at a time.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A completion session over an AutoCompletionTrie. The cursor keeps the node
+ * reached by each character typed on a stack, so typing a character is one
+ * offspring lookup and deleting one is a pop, rather than walking the whole
+ * prefix from the root again. Characters typed past the end of every word
+ * are remembered but reach no node, so deleting them returns the cursor to
+ * where it was.
+ *
+ * A cursor belongs to one session and one thread, but only reads the trie,
+ * so any number of cursors may share a trie while it is not changed.
+ *
+ * @author Ali Jarjis
+ */
+public class CompletionCursor {
+
+    private static final int INITIAL_DEPTH = 16;
+
+    private final AutoCompletionTrie trie;
+
+    // Node reached by each matched prefix, the root first
+    private AutoCompletionTrieNode[] nodes;
+
+    // Holds answers, its path buffer holding the characters typed
+    private final CompletionResult result;
+
+    private int length;
+    private int depth;
+
+    /**
+     * Constructs a cursor at the start of an empty prefix
+     *
+     * @param trie  trie to complete words from
+     */
+    public CompletionCursor(AutoCompletionTrie trie) {
+        this.trie = trie;
+        this.nodes = new AutoCompletionTrieNode[INITIAL_DEPTH + 1];
+        this.nodes[0] = trie.root;
+        this.result = new CompletionResult(3);
+        this.length = 0;
+        this.depth = 0;
+    }
+
+    /**
+     * Types a character at the end of the prefix
+     *
+     * @param c     character typed
+     * @return      true if some word still matches the prefix, else false
+     */
+    public boolean advance(char c) {
+        c = Character.toLowerCase(c);
+        result.ensurePath(length + 1);
+        result.path[length++] = c;
+
+        // Only follows the trie while every earlier character matched
+        if (depth == length - 1) {
+            AutoCompletionTrieNode next = nodes[depth].getOffspring(c);
+
+            if (next != null) {
+                if (depth + 1 == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                }
+
+                nodes[++depth] = next;
+            }
+        }
+
+        return isMatched();
+    }
+
+    /**
+     * Deletes the last character of the prefix
+     *
+     * @return  true if a character was deleted, false if prefix was empty
+     */
+    public boolean backspace() {
+        if (length == 0) {
+            return false;
+        }
+
+        if (depth == length) {
+            nodes[depth--] = null;
+        }
+
+        length--;
+
+        return true;
+    }
+
+    /**
+     * Deletes the whole prefix
+     */
+    public void reset() {
+        Arrays.fill(nodes, 1, depth + 1, null);
+        length = 0;
+        depth = 0;
+    }
+
+    /**
+     * Checks if some word matches the prefix typed
+     *
+     * @return  true if the prefix is in the trie, else false
+     */
+    public boolean isMatched() {
+        return depth == length;
+    }
+
+    /**
+     * Retrieves the number of characters typed
+     *
+     * @return  length of prefix
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Retrieves the prefix typed
+     *
+     * @return  prefix, lowercase
+     */
+    public String getPrefix() {
+        return new String(result.path, 0, length);
+    }
+
+    /**
+     * Retrieves the k most frequent words matching the prefix into the
+     * cursor's own holder, which is reused by the next call
+     *
+     * @param k     maximum number of words to retrieve
+     * @return      holder of the words, empty if nothing matches
+     */
+    public CompletionResult complete(int k) {
+        result.clear(k);
+
+        if (isMatched()) {
+            trie.complete(nodes[depth], length, k, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves the k most frequent words matching the prefix
+     *
+     * @param k     maximum number of words to retrieve
+     * @return      words mapped to their probability, ordered by
+     *              probability (decreasing)
+     */
+    public LinkedHashMap<String, Double> getTopKWords(int k) {
+        LinkedHashMap<String, Double> topWords = new LinkedHashMap<>();
+
+        if (!isMatched()) {
+            return topWords;
+        }
+
+        AutoCompletionTrieNode node = nodes[depth];
+
+        for (Map.Entry<String, Integer> pair
+                : trie.getCompletions(node, getPrefix(), k).entrySet()) {
+            topWords.put(pair.getKey(),
+                    (double) pair.getValue() / node.subtreeFrequency);
+        }
+
+        return topWords;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionaryFromCSV("lotr.csv");
+        final AutoCompletionTrie trie
+                = AutoCompletion.addDictionary(dictionary);
+        final ArrayList<String> words = new ArrayList<>();
+        int rounds = 50;
+
+        words.addAll(dictionary.keySet());
+        words.addAll(lotrQueries);
+        words.add("frodoz");
+
+        // Tests every keystroke and deletion of every word against a fresh
+        // query of the same prefix
+        CompletionCursor cursor = new CompletionCursor(trie);
+        boolean same = true;
+
+        for (String word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                cursor.advance(word.charAt(i));
+                same &= matches(cursor, word.substring(0, i + 1), trie);
+            }
+
+            while (cursor.backspace()) {
+                same &= matches(cursor, word.substring(0, cursor.length()),
+                        trie);
+            }
+        }
+
+        System.out.println("Same answers as getTopKWords? " + same);
+
+        // Times a keystroke by the length of the prefix it makes, typing
+        // with the cursor and querying the whole prefix afresh
+        long[] cursorTimes = new long[13];
+        long[] freshTimes = new long[13];
+        long[] keystrokes = new long[13];
+
+        for (int r = 0; r < rounds * 2; r++) {
+            for (String word : words) {
+                cursor.reset();
+
+                for (int i = 0; i < word.length(); i++) {
+                    int bucket = Math.min(i + 1, 12);
+                    long start = System.nanoTime();
+
+                    cursor.advance(word.charAt(i));
+                    cursor.complete(3);
+
+                    long middle = System.nanoTime();
+
+                    AutoCompletion.getTopKWords(word.substring(0, i + 1), 3,
+                            trie);
+
+                    if (r >= rounds) {
+                        cursorTimes[bucket] += middle - start;
+                        freshTimes[bucket] += System.nanoTime() - middle;
+                        keystrokes[bucket]++;
+                    }
+                }
+            }
+        }
+
+        System.out.println("length  cursor ns  fresh ns");
+
+        for (int i = 1; i < 13; i++) {
+            if (keystrokes[i] > 0) {
+                System.out.printf("%5d%s %10.0f %9.0f%n", i,
+                        i == 12 ? "+" : " ",
+                        (double) cursorTimes[i] / keystrokes[i],
+                        (double) freshTimes[i] / keystrokes[i]);
+            }
+        }
+
+        // Types every word in several sessions at once, each checking its
+        // answers against its own fresh queries
+        final boolean[] agreed = new boolean[4];
+        Thread[] sessions = new Thread[agreed.length];
+
+        for (int t = 0; t < sessions.length; t++) {
+            final int id = t;
+
+            sessions[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    CompletionCursor session = new CompletionCursor(trie);
+                    boolean ok = true;
+
+                    for (int i = id; i < words.size(); i += agreed.length) {
+                        String word = words.get(i);
+                        session.reset();
+
+                        for (int j = 0; j < word.length(); j++) {
+                            session.advance(word.charAt(j));
+                            ok &= matches(session, word.substring(0, j + 1),
+                                    trie);
+                        }
+                    }
+
+                    agreed[id] = ok;
+                }
+            });
+            sessions[t].start();
+        }
+
+        boolean allAgreed = true;
+
+        for (int t = 0; t < sessions.length; t++) {
+            sessions[t].join();
+            allAgreed &= agreed[t];
+        }
+
+        System.out.println(sessions.length + " sessions sharing the trie "
+                + "agreed? " + allAgreed);
+    }
+
+    /**
+     * Checks a cursor's answers against a fresh query of a prefix
+     *
+     * @param cursor    cursor to check
+     * @param prefix    prefix the cursor should be at
+     * @param trie      trie both search
+     * @return          true if the answers agree, else false
+     */
+    private static boolean matches(CompletionCursor cursor, String prefix,
+            AutoCompletionTrie trie) {
+        LinkedHashMap<String, Double> expected
+                = AutoCompletion.getTopKWords(prefix, 3, trie);
+        CompletionResult answer = cursor.complete(3);
+        boolean same = cursor.getPrefix().equals(prefix.toLowerCase())
+                && expected.equals(cursor.getTopKWords(3))
+                && expected.size() == answer.size();
+        int i = 0;
+
+        for (Map.Entry<String, Double> pair : expected.entrySet()) {
+            same &= pair.getKey().equals(answer.word(i))
+                    && pair.getValue() == answer.probability(i);
+            i++;
+        }
+
+        return same;
+    }
+}
@@ -0,0 +1,351 @@
+/** ***************************************************************************
+ *
+ * File        : CompletionLoadClient.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that puts a completion server under load and
+ *               reports its throughput and latency.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opens a number of connections to a completion server and has each send a
+ * fixed number of TOP requests, keeping a given number in flight at once.
+ * Each request's latency runs from writing it to reading its answer and goes
+ * into a LatencyHistogram, so throughput and tail latency can be read off
+ * for a given load.
+ *
+ * Usage: CompletionLoadClient [host port] [connections] [requests] [depth]
+ *
+ * Without a host and port a server of lotr.csv is started in this process,
+ * its answers are checked against AutoCompletion.getTopKWords, and it is
+ * shut down with requests still in flight to check they are all answered.
+ *
+ * @author Ali Jarjis
+ */
+public class CompletionLoadClient {
+
+    private final InetSocketAddress address;
+    private final List<String> prefixes;
+    private final LatencyHistogram latencies;
+    private final AtomicLong errors;
+
+    /**
+     * Constructs a client of a server
+     *
+     * @param address   address of server
+     * @param prefixes  prefixes to request, in turn
+     */
+    public CompletionLoadClient(InetSocketAddress address,
+            List<String> prefixes) {
+        this.address = address;
+        this.prefixes = prefixes;
+        this.latencies = new LatencyHistogram();
+        this.errors = new AtomicLong();
+    }
+
+    /**
+     * Runs a load and prints what it measured
+     *
+     * @param connections   number of connections, each on its own thread
+     * @param requests      requests each connection sends
+     * @param depth         requests each connection keeps in flight
+     * @throws Exception if a connection fails
+     */
+    public void run(int connections, final int requests, final int depth)
+            throws Exception {
+        Thread[] threads = new Thread[connections];
+        final Exception[] failures = new Exception[connections];
+
+        latencies.reset();
+        errors.set(0);
+        long start = System.nanoTime();
+
+        for (int t = 0; t < connections; t++) {
+            final int id = t;
+
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        load(id, requests, depth);
+                    } catch (Exception e) {
+                        failures[id] = e;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        for (int t = 0; t < connections; t++) {
+            threads[t].join();
+
+            if (failures[t] != null) {
+                throw failures[t];
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = latencies.count();
+
+        System.out.printf("%d connections, %d in flight each: %d requests "
+                + "in %.2f s, %.0f requests/s, %d errors%n", connections,
+                depth, total, seconds, total / seconds, errors.get());
+        System.out.printf("  latency p50 %.1f us, p99 %.1f us, p999 %.1f us, "
+                + "max %.1f us%n", latencies.percentile(50) / 1e3,
+                latencies.percentile(99) / 1e3,
+                latencies.percentile(99.9) / 1e3, latencies.max() / 1e3);
+    }
+
+    /**
+     * Sends one connection's requests, pipelining up to a depth
+     *
+     * @param id        number of connection, choosing where it starts in
+     *                  the prefixes
+     * @param requests  requests to send
+     * @param depth     requests to keep in flight
+     * @throws IOException if the connection fails
+     */
+    private void load(int id, int requests, int depth) throws IOException {
+        Socket socket = new Socket(address.getAddress(), address.getPort());
+
+        try {
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), StandardCharsets.UTF_8));
+            long[] sent = new long[depth];
+            int next = id * 7919;
+            int written = 0;
+
+            // Fills the pipeline, then sends another request per answer
+            for (; written < Math.min(depth, requests); written++) {
+                sent[written % depth] = System.nanoTime();
+                out.write(request(next++));
+            }
+
+            for (int answered = 0; answered < requests; answered++) {
+                String answer = in.readLine();
+
+                if (answer == null) {
+                    throw new IOException("Server closed the connection");
+                }
+
+                latencies.record(System.nanoTime() - sent[answered % depth]);
+
+                if (!answer.startsWith("OK")) {
+                    errors.incrementAndGet();
+                }
+
+                if (written < requests) {
+                    sent[written % depth] = System.nanoTime();
+                    out.write(request(next++));
+                    written++;
+                }
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Forms a TOP request for a prefix
+     *
+     * @param i position of prefix, wrapping around
+     * @return  request line
+     */
+    private byte[] request(int i) {
+        return ("TOP 3 " + prefixes.get(i % prefixes.size()) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        ArrayList<String> prefixes = readWordsFromCSV("lotrQueries.csv");
+        CompletionServer server = null;
+        AutoCompletionTrie trie = null;
+        InetSocketAddress address;
+        int i = 0;
+
+        if (args.length >= 2) {
+            address = new InetSocketAddress(args[0],
+                    Integer.parseInt(args[1]));
+            i = 2;
+        } else {
+            TreeMap<String, Integer> dictionary
+                    = DictionaryMaker.formDictionaryFromCSV("lotr.csv");
+
+            for (String word : dictionary.keySet()) {
+                prefixes.add(word.substring(0, Math.min(3, word.length())));
+            }
+
+            trie = AutoCompletion.addDictionary(dictionary);
+            server = new CompletionServer(trie,
+                    new InetSocketAddress("127.0.0.1", 0));
+            server.start();
+            address = new InetSocketAddress("127.0.0.1", server.getPort());
+        }
+
+        int connections = args.length > i ? Integer.parseInt(args[i]) : 4;
+        int requests = args.length > i + 1 ? Integer.parseInt(args[i + 1])
+                : 50000;
+        int depth = args.length > i + 2 ? Integer.parseInt(args[i + 2]) : 16;
+        CompletionLoadClient client = new CompletionLoadClient(address,
+                prefixes);
+
+        if (server != null) {
+            System.out.println("Same answers as getTopKWords? "
+                    + checkAnswers(address, prefixes, trie));
+        }
+
+        // Warms up, then measures with and without pipelining
+        client.run(connections, requests / 5, depth);
+        client.run(connections, requests, 1);
+        client.run(connections, requests, depth);
+
+        if (server != null) {
+            long version = server.getHolder().publish(trie, "republished");
+            System.out.println("Answered by new version after publishing? "
+                    + ask(address, "VERSION").equals("OK v" + version
+                            + " republished"));
+            System.out.println("Answered after shutdown, of 1000 sent: "
+                    + checkDrain(address, server));
+            System.out.println("Server stopped? " + server.awaitTermination(
+                    5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Requests every prefix on one connection, checking the answers
+     *
+     * @param address   address of server
+     * @param prefixes  prefixes to request
+     * @param trie      trie the server serves
+     * @return          true if every answer matches, else false
+     * @throws IOException if the connection fails
+     */
+    private static boolean checkAnswers(InetSocketAddress address,
+            List<String> prefixes, AutoCompletionTrie trie)
+            throws IOException {
+        Socket socket = new Socket(address.getAddress(), address.getPort());
+        boolean same = true;
+
+        try {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), StandardCharsets.UTF_8));
+            StringBuilder requests = new StringBuilder();
+
+            // Sends every request at once, then reads every answer
+            for (String prefix : prefixes) {
+                requests.append("TOP 3 ").append(prefix).append('\n');
+            }
+
+            requests.append("TOP 0\nNONSENSE\nCOUNT\nVERSION\nQUIT\n");
+            out.write(requests.toString().getBytes(StandardCharsets.UTF_8));
+
+            for (String prefix : prefixes) {
+                LinkedHashMap<String, Double> expected
+                        = AutoCompletion.getTopKWords(prefix, 3, trie);
+                StringBuilder answer = new StringBuilder();
+
+                CompletionServer.formatWords(answer, 1, expected);
+                same &= answer.toString().equals(in.readLine());
+            }
+
+            same &= in.readLine().startsWith("ERR")
+                    && in.readLine().startsWith("ERR")
+                    && in.readLine().equals("OK v1 "
+                            + trie.countCompletions("") + " "
+                            + trie.getTotalFrequency(""))
+                    && in.readLine().equals("OK v1 trie")
+                    && in.readLine() == null;
+        } finally {
+            socket.close();
+        }
+
+        return same;
+    }
+
+    /**
+     * Sends one request on a new connection
+     *
+     * @param address   address of server
+     * @param request   request line
+     * @return          answer line
+     * @throws IOException if the connection fails
+     */
+    private static String ask(InetSocketAddress address, String request)
+            throws IOException {
+        Socket socket = new Socket(address.getAddress(), address.getPort());
+
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), StandardCharsets.UTF_8));
+
+            socket.getOutputStream().write((request + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+
+            return in.readLine();
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Pipelines a burst of requests and shuts the server down before they
+     * are answered
+     *
+     * @param address   address of server
+     * @param server    the server
+     * @return          number of answers read before the connection closed
+     * @throws IOException if the connection fails
+     */
+    private static int checkDrain(InetSocketAddress address,
+            CompletionServer server) throws IOException {
+        Socket socket = new Socket(address.getAddress(), address.getPort());
+        int answered = 0;
+
+        try {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), StandardCharsets.UTF_8));
+            StringBuilder requests = new StringBuilder();
+
+            for (int i = 0; i < 1000; i++) {
+                requests.append("TOP 10 ").append((char) ('a' + i % 26))
+                        .append('\n');
+            }
+
+            out.write(requests.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            server.shutdown(5, TimeUnit.SECONDS);
+
+            while (in.readLine() != null) {
+                answered++;
+            }
+        } finally {
+            socket.close();
+        }
+
+        return answered;
+    }
+}
@@ -0,0 +1,404 @@
+/** ***************************************************************************
+ *
+ * File        : CompletionMetrics.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that records what each completion query cost,
+ *               bucketed by prefix length.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Metrics for one operation on the completion path. For each prefix length
+ * a query's latency goes into a LatencyHistogram, and the nodes it visited,
+ * words it scanned, results it returned and, if tracked, bytes it allocated
+ * are summed. The slowest prefix of each length is kept so expensive short
+ * prefixes can be found.
+ *
+ * Collection is off until enabled. Instrumented code checks isEnabled()
+ * before reading the clock, so when off a query pays one read of a flag and
+ * nothing else.
+ *
+ * @author Ali Jarjis
+ */
+public class CompletionMetrics {
+
+    /**
+     * Longest prefix length given its own bucket, longer prefixes sharing
+     * the last one
+     */
+    public static final int MAX_PREFIX_LENGTH = 16;
+
+    public static final CompletionMetrics SUB_TRIE
+            = new CompletionMetrics("getSubTrie");
+    public static final CompletionMetrics ALL_WORDS
+            = new CompletionMetrics("getAllWords");
+    public static final CompletionMetrics TOP_WORDS
+            = new CompletionMetrics("getTopWords");
+
+    private static final int QUERIES = 0;
+    private static final int NODES_VISITED = 1;
+    private static final int WORDS_SCANNED = 2;
+    private static final int RESULTS = 3;
+    private static final int BYTES_ALLOCATED = 4;
+    private static final int SLOWEST_NANOS = 5;
+    private static final int FIELDS = 6;
+
+    private static volatile boolean enabled = false;
+    private static volatile boolean allocationTracked = false;
+
+    // Bytes the JVM allocates to answer a read of allocations itself
+    private static volatile long allocationOverhead = 0;
+
+    private final String name;
+    private final LatencyHistogram[] latencies;
+    private final AtomicLongArray counters;
+    private final AtomicReferenceArray<String> slowestPrefixes;
+
+    /**
+     * Constructs empty metrics for an operation
+     *
+     * @param name name of operation
+     */
+    private CompletionMetrics(String name) {
+        this.name = name;
+        this.latencies = new LatencyHistogram[MAX_PREFIX_LENGTH + 1];
+        this.counters = new AtomicLongArray(
+                (MAX_PREFIX_LENGTH + 1) * FIELDS);
+        this.slowestPrefixes
+                = new AtomicReferenceArray<>(MAX_PREFIX_LENGTH + 1);
+
+        for (int i = 0; i <= MAX_PREFIX_LENGTH; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Checks if metrics are being collected
+     *
+     * @return true if collecting, else false
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns collection of metrics on or off
+     *
+     * @param on true to collect metrics
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Turns counting of bytes allocated by each query on or off. Counting
+     * asks the JVM for the thread's allocations twice a query, so costs
+     * more than the other metrics and is off by default.
+     *
+     * @param on true to count bytes allocated
+     */
+    public static void setAllocationTracked(boolean on) {
+        if (on) {
+            long overhead = Long.MAX_VALUE;
+
+            // Takes the least of several back to back reads
+            for (int i = 0; i < 16; i++) {
+                long start = threadAllocatedBytes();
+                overhead = Math.min(overhead, threadAllocatedBytes() - start);
+            }
+
+            allocationOverhead = Math.max(0, overhead);
+        }
+
+        allocationTracked = on;
+    }
+
+    /**
+     * Reads the current thread's allocations if they are being counted
+     *
+     * @return bytes allocated so far by thread, or 0 if not counted
+     */
+    static long allocatedBytes() {
+        return allocationTracked ? Math.max(0, threadAllocatedBytes()) : 0;
+    }
+
+    /**
+     * Measures bytes allocated so far by the current thread, where the JVM
+     * supports it
+     *
+     * @return bytes allocated, or -1 if not supported
+     */
+    static long threadAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean
+                = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return -1;
+    }
+
+    /**
+     * Records one query
+     *
+     * @param prefix        prefix queried
+     * @param startNanos    System.nanoTime() when the query began
+     * @param startBytes    allocatedBytes() when the query began
+     * @param nodesVisited  number of trie nodes visited
+     * @param wordsScanned  number of words considered
+     * @param results       number of words returned
+     */
+    void record(CharSequence prefix, long startNanos, long startBytes,
+            long nodesVisited, long wordsScanned, long results) {
+        long nanos = System.nanoTime() - startNanos;
+        int length = Math.min(prefix.length(), MAX_PREFIX_LENGTH);
+        int base = length * FIELDS;
+
+        latencies[length].record(nanos);
+        counters.incrementAndGet(base + QUERIES);
+        counters.addAndGet(base + NODES_VISITED, nodesVisited);
+        counters.addAndGet(base + WORDS_SCANNED, wordsScanned);
+        counters.addAndGet(base + RESULTS, results);
+
+        if (startBytes != 0) {
+            counters.addAndGet(base + BYTES_ALLOCATED, Math.max(0,
+                    allocatedBytes() - startBytes - allocationOverhead));
+        }
+
+        // Two threads may both beat the slowest time, in which case either
+        // prefix may be kept
+        long slowest = counters.get(base + SLOWEST_NANOS);
+
+        while (nanos > slowest) {
+            if (counters.compareAndSet(base + SLOWEST_NANOS, slowest,
+                    nanos)) {
+                slowestPrefixes.set(length, prefix.toString());
+                break;
+            }
+
+            slowest = counters.get(base + SLOWEST_NANOS);
+        }
+    }
+
+    /**
+     * Copies the metrics as they are now
+     *
+     * @return a snapshot of every prefix length queried
+     */
+    public Snapshot snapshot() {
+        ArrayList<Row> rows = new ArrayList<>();
+
+        for (int length = 0; length <= MAX_PREFIX_LENGTH; length++) {
+            int base = length * FIELDS;
+            long queries = counters.get(base + QUERIES);
+
+            if (queries == 0) {
+                continue;
+            }
+
+            LatencyHistogram latency = latencies[length].copy();
+
+            rows.add(new Row(length, queries, latency.percentile(50),
+                    latency.percentile(99), latency.percentile(99.9),
+                    latency.max(),
+                    (double) counters.get(base + NODES_VISITED) / queries,
+                    (double) counters.get(base + WORDS_SCANNED) / queries,
+                    (double) counters.get(base + RESULTS) / queries,
+                    (double) counters.get(base + BYTES_ALLOCATED) / queries,
+                    slowestPrefixes.get(length)));
+        }
+
+        return new Snapshot(name, rows);
+    }
+
+    /**
+     * Forgets everything recorded
+     */
+    public void reset() {
+        for (int i = 0; i <= MAX_PREFIX_LENGTH; i++) {
+            latencies[i].reset();
+            slowestPrefixes.set(i, null);
+        }
+
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * Forgets everything recorded by every operation
+     */
+    public static void resetAll() {
+        SUB_TRIE.reset();
+        ALL_WORDS.reset();
+        TOP_WORDS.reset();
+    }
+
+    /**
+     * Formats a snapshot of every operation
+     *
+     * @return a table for each operation that has been queried
+     */
+    public static String dump() {
+        StringBuilder dump = new StringBuilder();
+
+        for (CompletionMetrics metrics : new CompletionMetrics[]{SUB_TRIE,
+            ALL_WORDS, TOP_WORDS}) {
+            Snapshot snapshot = metrics.snapshot();
+
+            if (!snapshot.rows.isEmpty()) {
+                dump.append(snapshot).append(System.lineSeparator());
+            }
+        }
+
+        return dump.toString();
+    }
+
+    /**
+     * The metrics of one operation at a point in time, a row per prefix
+     * length queried
+     */
+    public static class Snapshot {
+        public final String name;
+        public final ArrayList<Row> rows;
+
+        Snapshot(String name, ArrayList<Row> rows) {
+            this.name = name;
+            this.rows = rows;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder table = new StringBuilder();
+            String line = System.lineSeparator();
+
+            table.append(name).append(" (latencies in microseconds)")
+                    .append(line);
+            table.append(String.format("%6s %10s %9s %9s %9s %9s %8s %8s "
+                    + "%7s %9s  %s", "length", "queries", "p50", "p99",
+                    "p999", "max", "nodes", "words", "results", "bytes",
+                    "slowest")).append(line);
+
+            for (Row row : rows) {
+                table.append(row).append(line);
+            }
+
+            return table.toString();
+        }
+    }
+
+    /**
+     * The metrics of one prefix length
+     */
+    public static class Row {
+        public final int prefixLength;
+        public final long queries;
+        public final long p50Nanos;
+        public final long p99Nanos;
+        public final long p999Nanos;
+        public final long maxNanos;
+        public final double meanNodesVisited;
+        public final double meanWordsScanned;
+        public final double meanResults;
+        public final double meanBytesAllocated;
+        public final String slowestPrefix;
+
+        Row(int prefixLength, long queries, long p50Nanos, long p99Nanos,
+                long p999Nanos, long maxNanos, double meanNodesVisited,
+                double meanWordsScanned, double meanResults,
+                double meanBytesAllocated, String slowestPrefix) {
+            this.prefixLength = prefixLength;
+            this.queries = queries;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.p999Nanos = p999Nanos;
+            this.maxNanos = maxNanos;
+            this.meanNodesVisited = meanNodesVisited;
+            this.meanWordsScanned = meanWordsScanned;
+            this.meanResults = meanResults;
+            this.meanBytesAllocated = meanBytesAllocated;
+            this.slowestPrefix = slowestPrefix;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%5d%s %10d %9.2f %9.2f %9.2f %9.2f %8.1f "
+                    + "%8.1f %7.2f %9.0f  \"%s\"", prefixLength,
+                    prefixLength == MAX_PREFIX_LENGTH ? "+" : " ", queries,
+                    p50Nanos / 1e3, p99Nanos / 1e3, p999Nanos / 1e3,
+                    maxNanos / 1e3, meanNodesVisited, meanWordsScanned,
+                    meanResults, meanBytesAllocated, slowestPrefix);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionaryFromCSV("lotr.csv");
+        AutoCompletionTrie trie = AutoCompletion.addDictionary(dictionary);
+        ArrayList<String> prefixes = new ArrayList<>(lotrQueries);
+        int rounds = 20;
+
+        for (String w : dictionary.keySet()) {
+            for (int i = 1; i <= Math.min(5, w.length()); i++) {
+                prefixes.add(w.substring(0, i));
+            }
+        }
+
+        // Times the same queries with collection off and on, after a warm
+        // up, to show what collecting costs
+        long[] times = new long[2];
+
+        for (int r = 0; r < rounds * 2; r++) {
+            for (int on = 0; on < 2; on++) {
+                setEnabled(on == 1);
+                long start = System.nanoTime();
+
+                for (String p : prefixes) {
+                    AutoCompletion.getTopKWords(p, 10, trie);
+                }
+
+                if (r >= rounds) {
+                    times[on] += System.nanoTime() - start;
+                }
+            }
+        }
+
+        System.out.printf("Per query off: %.0f ns, on: %.0f ns%n",
+                (double) times[0] / rounds / prefixes.size(),
+                (double) times[1] / rounds / prefixes.size());
+
+        // Records one clean pass, counting allocations too, and every
+        // word under the root once
+        resetAll();
+        setEnabled(true);
+        setAllocationTracked(true);
+
+        for (String p : prefixes) {
+            AutoCompletion.getTopThreeWords(p, trie);
+            AutoCompletion.getTopKWords(p, 10, trie);
+        }
+
+        trie.getAllWords(trie.root, new StringBuilder(),
+                new HashMap<String, Integer>());
+
+        System.out.println();
+        System.out.print(dump());
+    }
+}
@@ -0,0 +1,345 @@
+/** ***************************************************************************
+ *
+ * File        : CompletionResult.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that holds the answer to a completion query in
+ *               reusable primitive buffers.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A holder that AutoCompletionTrie.complete fills in place. Each word is
+ * kept in its own character buffer alongside its frequency and probability,
+ * and the buffers are only grown, never dropped, so once a holder has seen
+ * its longest word it can answer any number of queries without creating
+ * garbage. A holder is meant to be reused by one thread.
+ *
+ * @author Ali Jarjis
+ */
+public class CompletionResult {
+
+    private static final int INITIAL_WORD_LENGTH = 16;
+
+    char[][] words;
+    int[] wordLengths;
+    int[] frequencies;
+    double[] probabilities;
+    int size;
+    int totalFrequency;
+    int nodesVisited;
+
+    // Characters of the path being searched
+    char[] path;
+
+    /**
+     * Constructs an empty holder with room for a given number of words
+     *
+     * @param capacity number of words expected in an answer
+     */
+    public CompletionResult(int capacity) {
+        this.words = new char[capacity][];
+        this.wordLengths = new int[capacity];
+        this.frequencies = new int[capacity];
+        this.probabilities = new double[capacity];
+        this.path = new char[INITIAL_WORD_LENGTH];
+
+        for (int i = 0; i < capacity; i++) {
+            words[i] = new char[INITIAL_WORD_LENGTH];
+        }
+    }
+
+    /**
+     * Retrieves the number of words in the answer
+     *
+     * @return number of words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the total frequency of every word matching the prefix
+     *
+     * @return sum of the frequencies of matching words
+     */
+    public int totalFrequency() {
+        return totalFrequency;
+    }
+
+    /**
+     * Retrieves the frequency of a word in the answer
+     *
+     * @param i position of word, most frequent first
+     * @return frequency of word
+     */
+    public int frequency(int i) {
+        return frequencies[i];
+    }
+
+    /**
+     * Retrieves the probability of a word in the answer, its frequency over
+     * the total frequency of every word matching the prefix
+     *
+     * @param i position of word, most frequent first
+     * @return probability of word
+     */
+    public double probability(int i) {
+        return probabilities[i];
+    }
+
+    /**
+     * Retrieves the length of a word in the answer
+     *
+     * @param i position of word, most frequent first
+     * @return number of characters in word
+     */
+    public int wordLength(int i) {
+        return wordLengths[i];
+    }
+
+    /**
+     * Retrieves a character of a word in the answer
+     *
+     * @param i     position of word, most frequent first
+     * @param index position of character in word
+     * @return      the character
+     */
+    public char charAt(int i, int index) {
+        return words[i][index];
+    }
+
+    /**
+     * Copies a word in the answer into a buffer
+     *
+     * @param i         position of word, most frequent first
+     * @param buffer    buffer to copy into
+     * @param offset    position in buffer to copy to
+     * @return          number of characters copied
+     */
+    public int getWord(int i, char[] buffer, int offset) {
+        System.arraycopy(words[i], 0, buffer, offset, wordLengths[i]);
+
+        return wordLengths[i];
+    }
+
+    /**
+     * Creates a string of a word in the answer, which allocates
+     *
+     * @param i position of word, most frequent first
+     * @return the word
+     */
+    public String word(int i) {
+        return new String(words[i], 0, wordLengths[i]);
+    }
+
+    /**
+     * Empties the holder, making room for a given number of words
+     *
+     * @param k number of words the next answer may hold
+     */
+    void clear(int k) {
+        if (k > words.length) {
+            int capacity = words.length;
+
+            words = Arrays.copyOf(words, k);
+            wordLengths = Arrays.copyOf(wordLengths, k);
+            frequencies = Arrays.copyOf(frequencies, k);
+            probabilities = Arrays.copyOf(probabilities, k);
+
+            for (int i = capacity; i < k; i++) {
+                words[i] = new char[INITIAL_WORD_LENGTH];
+            }
+        }
+
+        size = 0;
+        totalFrequency = 0;
+        nodesVisited = 0;
+    }
+
+    /**
+     * Puts a word at the end of the answer
+     *
+     * @param word      word to add
+     * @param frequency frequency of word
+     */
+    void add(String word, int frequency) {
+        int length = word.length();
+
+        if (length > words[size].length) {
+            words[size] = new char[Math.max(length,
+                    words[size].length * 2)];
+        }
+
+        word.getChars(0, length, words[size], 0);
+        wordLengths[size] = length;
+        frequencies[size] = frequency;
+        size++;
+    }
+
+    /**
+     * Ranks the word held in the path buffer into a full or partly full
+     * answer of k words, after any word of the same frequency already held
+     *
+     * @param length    length of word in path buffer
+     * @param frequency frequency of word
+     * @param k         most words the answer holds
+     */
+    void offer(int length, int frequency, int k) {
+        if (size == k && frequencies[k - 1] >= frequency) {
+            return;
+        }
+
+        int pos = size < k ? size++ : k - 1;
+
+        // Reuses the buffer of the word that drops out, shifting the
+        // buffers of less frequent words down a place
+        char[] buffer = words[pos];
+
+        while (pos > 0 && frequencies[pos - 1] < frequency) {
+            words[pos] = words[pos - 1];
+            wordLengths[pos] = wordLengths[pos - 1];
+            frequencies[pos] = frequencies[pos - 1];
+            pos--;
+        }
+
+        if (length > buffer.length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+        }
+
+        System.arraycopy(path, 0, buffer, 0, length);
+        words[pos] = buffer;
+        wordLengths[pos] = length;
+        frequencies[pos] = frequency;
+    }
+
+    /**
+     * Checks whether a subtree could hold a word that ranks in the answer
+     *
+     * @param maxFrequency  highest frequency in subtree
+     * @param k             most words the answer holds
+     * @return              true if the subtree may rank, else false
+     */
+    boolean mayRank(int maxFrequency, int k) {
+        return size < k || maxFrequency > frequencies[k - 1];
+    }
+
+    /**
+     * Makes room in the path buffer for a word of a given length
+     *
+     * @param length length of word
+     */
+    void ensurePath(int length) {
+        if (length > path.length) {
+            path = Arrays.copyOf(path, Math.max(length, path.length * 2));
+        }
+    }
+
+    /**
+     * Works out each word's probability once the answer is complete
+     */
+    void finish() {
+        for (int i = 0; i < size; i++) {
+            probabilities[i] = (double) frequencies[i] / totalFrequency;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionaryFromCSV("lotr.csv");
+        AutoCompletionTrie trie = AutoCompletion.addDictionary(dictionary);
+        CompletionResult result = new CompletionResult(3);
+        int rounds = 200;
+
+        ArrayList<String> prefixes = new ArrayList<>(lotrQueries);
+
+        for (String w : dictionary.keySet()) {
+            for (int i = 1; i <= Math.min(5, w.length()); i++) {
+                prefixes.add(w.substring(0, i));
+            }
+        }
+
+        // Tests that the holder gets the same answer as getTopKWords, from
+        // the cache for three words and by searching for ten
+        boolean same = true;
+
+        for (int k : new int[]{3, 10}) {
+            for (String p : prefixes) {
+                trie.complete(p, k, result);
+                LinkedHashMap<String, Double> expected
+                        = AutoCompletion.getTopKWords(p, k, trie);
+                int i = 0;
+
+                same &= expected.size() == result.size();
+
+                for (Map.Entry<String, Double> pair : expected.entrySet()) {
+                    same &= i < result.size()
+                            && pair.getKey().equals(result.word(i))
+                            && pair.getValue() == result.probability(i);
+                    i++;
+                }
+            }
+        }
+
+        System.out.println("Same answers as getTopKWords? " + same);
+
+        // Measures time and bytes allocated per query by each path, after a
+        // warm up
+        for (int k : new int[]{3, 10}) {
+            long mapTime = 0;
+            long holderTime = 0;
+            long mapBytes = 0;
+            long holderBytes = 0;
+
+            for (int r = 0; r < rounds * 2; r++) {
+                long start = System.nanoTime();
+                long startBytes = CompletionMetrics.threadAllocatedBytes();
+
+                for (String p : prefixes) {
+                    if (k == 3) {
+                        AutoCompletion.getTopThreeWords(p, trie);
+                    } else {
+                        AutoCompletion.getTopKWords(p, k, trie);
+                    }
+                }
+
+                long middle = System.nanoTime();
+                long middleBytes = CompletionMetrics.threadAllocatedBytes();
+
+                for (String p : prefixes) {
+                    trie.complete(p, k, result);
+                }
+
+                long end = System.nanoTime();
+                long endBytes = CompletionMetrics.threadAllocatedBytes();
+
+                if (r >= rounds) {
+                    mapTime += middle - start;
+                    holderTime += end - middle;
+                    mapBytes += middleBytes - startBytes;
+                    holderBytes += endBytes - middleBytes;
+                }
+            }
+
+            long queries = (long) rounds * prefixes.size();
+
+            System.out.printf("k = %d, maps: %.0f ns, %d bytes per query%n",
+                    k, (double) mapTime / queries, mapBytes / queries);
+            System.out.printf("k = %d, holder: %.0f ns, %d bytes per query%n",
+                    k, (double) holderTime / queries, holderBytes / queries);
+        }
+    }
+}
@@ -0,0 +1,650 @@
+/** ***************************************************************************
+ *
+ * File        : CompletionServer.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that answers completion requests over TCP, one
+ *               request per line.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the dictionary of a DictionaryHolder over a newline-delimited TCP
+ * protocol:
+ *
+ * <pre>
+ * TOP k [prefix]               OK vN n word probability ...
+ * FUZZY k edits prefix         OK vN n word frequency ...
+ * COUNT [prefix]               OK vN words totalFrequency
+ * VERSION                      OK vN source
+ * PING                         OK vN PONG
+ * QUIT                         connection closes once answered
+ * </pre>
+ *
+ * Anything else is answered with ERR, the version and a reason. N is the
+ * version of the dictionary that answered, so a client can tell answers
+ * from before and after a new version is published. A single thread runs an
+ * NIO selector loop, so any number of connections cost no thread apiece.
+ * Every complete line read is answered in order, so clients may pipeline
+ * many requests without waiting. A connection whose answers back up stops
+ * being read until its client catches up.
+ *
+ * Shutting down stops accepting connections, answers every request already
+ * received, flushes the answers and then closes each connection, giving up
+ * on any left after a timeout. Each request is answered from the snapshot
+ * current when it is read, and a served trie must not be changed; a new
+ * version is published through the holder instead.
+ *
+ * @author Ali Jarjis
+ */
+public class CompletionServer {
+
+    /**
+     * Port listened on unless given
+     */
+    public static final int DEFAULT_PORT = 7070;
+
+    /**
+     * Most words one request may ask for
+     */
+    public static final int MAX_K = 100;
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    // Connections with this many bytes of answers unsent are not read
+    private static final int HIGH_WATER_MARK = 256 * 1024;
+
+    private final DictionaryHolder holder;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final CompletionResult result;
+    private final StringBuilder response;
+    private final CountDownLatch terminated;
+    private final AtomicLong requests;
+    private Thread loop;
+
+    private volatile boolean draining;
+    private volatile long drainDeadline;
+
+    /**
+     * Constructs a server of a trie bound to an address, as version 1 of a
+     * new holder
+     *
+     * @param trie      trie to serve
+     * @param address   address to listen on, port 0 choosing any free port
+     * @throws IOException if the address cannot be bound
+     */
+    public CompletionServer(AutoCompletionTrie trie, InetSocketAddress address)
+            throws IOException {
+        this(new DictionaryHolder(trie, "trie"), address);
+    }
+
+    /**
+     * Constructs a server of whichever version a holder has published,
+     * bound to an address
+     *
+     * @param holder    holder of dictionary to serve
+     * @param address   address to listen on, port 0 choosing any free port
+     * @throws IOException if the address cannot be bound
+     */
+    public CompletionServer(DictionaryHolder holder,
+            InetSocketAddress address) throws IOException {
+        this.holder = holder;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        this.result = new CompletionResult(3);
+        this.response = new StringBuilder();
+        this.terminated = new CountDownLatch(1);
+        this.requests = new AtomicLong();
+        this.draining = false;
+
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Retrieves the port the server listens on
+     *
+     * @return port number
+     * @throws IOException if the port cannot be read
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Retrieves the holder of the dictionary served
+     *
+     * @return holder of dictionary
+     */
+    public DictionaryHolder getHolder() {
+        return holder;
+    }
+
+    /**
+     * Retrieves the number of requests answered
+     *
+     * @return number of requests answered so far
+     */
+    public long requestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Starts serving on a new thread
+     */
+    public synchronized void start() {
+        if (loop != null) {
+            throw new IllegalStateException("Server already started");
+        }
+
+        loop = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                serve();
+            }
+        }, "completion-server");
+        loop.start();
+    }
+
+    /**
+     * Stops accepting connections and closes each open one once the
+     * requests it has sent are answered
+     *
+     * @param timeout   longest to wait for connections to drain
+     * @param unit      unit of timeout
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        drainDeadline = System.nanoTime() + unit.toNanos(timeout);
+        draining = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Waits for the server to finish shutting down
+     *
+     * @param timeout   longest to wait
+     * @param unit      unit of timeout
+     * @return          true if the server stopped, else false
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * Runs the selector loop until drained
+     */
+    private void serve() {
+        try {
+            boolean drainStarted = false;
+
+            while (true) {
+                selector.select(drainStarted ? 100 : 0);
+
+                if (draining && !drainStarted) {
+                    drainStarted = true;
+                    startDrain();
+                }
+
+                Iterator<SelectionKey> keys
+                        = selector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isReadable()) {
+                                read(key);
+                            }
+
+                            if (key.isValid() && key.isWritable()) {
+                                flush(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        // Closes only a failed client, so the server keeps
+                        // listening whatever goes wrong with one accept
+                        if (key.attachment() instanceof Connection) {
+                            close(key);
+                        } else {
+                            System.err.println("Completion server failed "
+                                    + "to accept: " + e);
+                        }
+                    }
+                }
+
+                if (drainStarted && (selector.keys().isEmpty()
+                        || System.nanoTime() > drainDeadline)) {
+                    break;
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            System.err.println("Completion server stopped: " + e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Completion server failed to close: "
+                        + e);
+            }
+
+            terminated.countDown();
+        }
+    }
+
+    /**
+     * Accepts every waiting connection, closing any that cannot be set up
+     *
+     * @throws IOException if the listening channel cannot accept
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+
+        while ((channel = server.accept()) != null) {
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                channel.register(selector, SelectionKey.OP_READ,
+                        new Connection(channel));
+            } catch (IOException e) {
+                close(channel);
+            }
+        }
+    }
+
+    /**
+     * Stops listening and answers what each connection has sent so far,
+     * closing it once its answers are flushed
+     *
+     * @throws IOException if the listening channel cannot be closed or a
+     *                     waiting connection cannot be set up
+     */
+    private void startDrain() throws IOException {
+        // Clients already connected but not yet accepted would be reset
+        accept();
+        server.keyFor(selector).cancel();
+        server.close();
+
+        for (SelectionKey key : selector.keys()) {
+            if (!key.isValid() || !(key.attachment() instanceof Connection)) {
+                continue;
+            }
+
+            Connection connection = (Connection) key.attachment();
+
+            // Reading may find the client gone and close the connection
+            try {
+                read(key);
+
+                if (key.isValid()) {
+                    connection.closing = true;
+                    flush(key);
+                }
+            } catch (IOException e) {
+                close(key);
+            }
+        }
+    }
+
+    /**
+     * Reads what a connection has sent, answering every complete line
+     *
+     * @param key   key of connection
+     * @throws IOException if the connection fails
+     */
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer in = connection.in;
+        int read = connection.channel.read(in);
+
+        if (read == -1) {
+            connection.closing = true;
+        }
+
+        in.flip();
+        int start = in.position();
+
+        // Answers each complete line in the order received
+        for (int i = start; i < in.limit(); i++) {
+            if (in.get(i) == '\n') {
+                int end = i > start && in.get(i - 1) == '\r' ? i - 1 : i;
+
+                answer(connection, new String(in.array(), start, end - start,
+                        StandardCharsets.UTF_8));
+                start = i + 1;
+
+                if (connection.quit) {
+                    break;
+                }
+            }
+        }
+
+        in.position(start);
+        in.compact();
+
+        // A line longer than the buffer can never be answered
+        if (!in.hasRemaining()) {
+            connection.respond("ERR line too long");
+            connection.closing = true;
+        }
+
+        if (connection.quit) {
+            connection.closing = true;
+        }
+
+        flush(key);
+    }
+
+    /**
+     * Sends a connection's answers, choosing what to wait for next: room to
+     * write more, another request, or nothing once it is closing
+     *
+     * @param key   key of connection
+     * @throws IOException if the connection fails
+     */
+    private void flush(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer out = connection.out;
+
+        out.flip();
+        connection.channel.write(out);
+        out.compact();
+
+        if (out.position() > 0) {
+            key.interestOps(out.position() > HIGH_WATER_MARK
+                    || connection.closing ? SelectionKey.OP_WRITE
+                    : SelectionKey.OP_WRITE | SelectionKey.OP_READ);
+        } else if (connection.closing) {
+            close(key);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Closes a connection
+     *
+     * @param key   key of connection
+     */
+    private void close(SelectionKey key) {
+        key.cancel();
+        close(key.channel());
+    }
+
+    /**
+     * Closes a channel, ignoring a failure as it is being dropped anyway
+     *
+     * @param channel channel to close
+     */
+    private static void close(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already closed by the client
+        }
+    }
+
+    /**
+     * Answers one request
+     *
+     * @param connection    connection the request came from
+     * @param request       the request line
+     */
+    private void answer(Connection connection, String request) {
+        String[] parts = request.trim().split(" +");
+        String command = parts[0].toUpperCase();
+
+        if (command.equals("QUIT") && parts.length == 1) {
+            connection.quit = true;
+            return;
+        }
+
+        requests.incrementAndGet();
+        response.setLength(0);
+
+        // Answers from one version even if another is published meanwhile
+        DictionaryHolder.Snapshot snapshot = holder.acquire();
+
+        try {
+            if (command.equals("TOP") && parts.length <= 3) {
+                int k = parseK(parts, 1);
+                String prefix = parts.length > 2 ? parts[2] : "";
+
+                snapshot.complete(prefix, k, result);
+                formatTop(response, snapshot.version, result);
+            } else if (command.equals("FUZZY") && parts.length == 4) {
+                int k = parseK(parts, 1);
+                int edits = Integer.parseInt(parts[2]);
+
+                formatWords(response, snapshot.version,
+                        snapshot.completeFuzzy(parts[3], edits, k));
+            } else if (command.equals("COUNT") && parts.length <= 2) {
+                String prefix = parts.length > 1 ? parts[1] : "";
+
+                appendStatus(response, "OK", snapshot.version)
+                        .append(snapshot.countCompletions(prefix))
+                        .append(' ')
+                        .append(snapshot.getTotalFrequency(prefix));
+            } else if (command.equals("VERSION") && parts.length == 1) {
+                appendStatus(response, "OK", snapshot.version)
+                        .append(snapshot.source);
+            } else if (command.equals("PING") && parts.length == 1) {
+                appendStatus(response, "OK", snapshot.version).append("PONG");
+            } else {
+                appendStatus(response, "ERR", snapshot.version)
+                        .append("unknown request");
+            }
+        } catch (IllegalArgumentException e) {
+            response.setLength(0);
+            appendStatus(response, "ERR", snapshot.version)
+                    .append(e.getMessage());
+        } finally {
+            snapshot.release();
+        }
+
+        connection.respond(response);
+    }
+
+    /**
+     * Reads the number of words a request asks for
+     *
+     * @param parts     words of the request
+     * @param i         position of the number
+     * @return          number of words
+     */
+    private static int parseK(String[] parts, int i) {
+        if (parts.length <= i) {
+            throw new IllegalArgumentException("missing number of words");
+        }
+
+        int k = Integer.parseInt(parts[i]);
+
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("number of words must be "
+                    + "from 1 to " + MAX_K);
+        }
+
+        return k;
+    }
+
+    /**
+     * Starts an answer with its status and the version answering it
+     *
+     * @param response  builder to append to
+     * @param status    OK or ERR
+     * @param version   version of dictionary answering
+     * @return          the builder
+     */
+    static StringBuilder appendStatus(StringBuilder response, String status,
+            long version) {
+        return response.append(status).append(" v").append(version)
+                .append(' ');
+    }
+
+    /**
+     * Formats the words of a holder as a TOP answer
+     *
+     * @param response  builder to append to
+     * @param version   version of dictionary answering
+     * @param result    holder of words and probabilities
+     */
+    static void formatTop(StringBuilder response, long version,
+            CompletionResult result) {
+        appendStatus(response, "OK", version).append(result.size());
+
+        for (int i = 0; i < result.size(); i++) {
+            response.append(' ');
+
+            for (int j = 0; j < result.wordLength(i); j++) {
+                response.append(result.charAt(i, j));
+            }
+
+            response.append(' ').append(result.probability(i));
+        }
+    }
+
+    /**
+     * Formats ranked words and their scores as an answer
+     *
+     * @param response  builder to append to
+     * @param version   version of dictionary answering
+     * @param words     words mapped to their score, best first
+     */
+    static void formatWords(StringBuilder response, long version,
+            LinkedHashMap<String, ? extends Number> words) {
+        appendStatus(response, "OK", version).append(words.size());
+
+        for (Map.Entry<String, ? extends Number> pair : words.entrySet()) {
+            response.append(' ').append(pair.getKey()).append(' ')
+                    .append(pair.getValue());
+        }
+    }
+
+    /**
+     * The buffers and state of one client connection
+     */
+    private static class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in;
+        ByteBuffer out;
+        boolean quit;
+        boolean closing;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.in = ByteBuffer.allocate(BUFFER_SIZE);
+            this.out = ByteBuffer.allocate(BUFFER_SIZE);
+            this.quit = false;
+            this.closing = false;
+        }
+
+        /**
+         * Queues an answer line, growing the output buffer if needed
+         *
+         * @param line  answer without its newline
+         */
+        void respond(CharSequence line) {
+            byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+
+            if (out.remaining() < bytes.length) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(
+                        out.capacity() * 2, out.position() + bytes.length));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+
+            out.put(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_PORT;
+        String file = args.length > 1 ? args[1] : "lotr.csv";
+        final DictionaryHolder holder = DictionaryHolder.fromCSV(file);
+        final CompletionServer server = new CompletionServer(holder,
+                new InetSocketAddress(port));
+
+        // Drains open connections when the process is asked to stop
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                server.shutdown(5, TimeUnit.SECONDS);
+
+                try {
+                    server.awaitTermination(6, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        server.start();
+        System.out.println("Serving version " + holder.currentVersion()
+                + " from " + file + " on port " + server.getPort());
+        System.out.println("Type reload [file] to publish a new version");
+
+        // Rebuilds from a corpus in the background whenever asked to
+        BufferedReader console = new BufferedReader(new InputStreamReader(
+                System.in, StandardCharsets.UTF_8));
+        String line;
+
+        while ((line = console.readLine()) != null) {
+            String[] parts = line.trim().split(" +");
+
+            if (!parts[0].equalsIgnoreCase("reload")) {
+                continue;
+            }
+
+            try {
+                String source = parts.length > 1 ? parts[1] : file;
+
+                System.out.println("Published version "
+                        + holder.reload(source).get() + " from " + source);
+            } catch (ExecutionException e) {
+                System.out.println("Reload failed: " + e.getCause());
+            }
+        }
+    }
+}
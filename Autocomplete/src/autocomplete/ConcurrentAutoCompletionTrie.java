@@ -0,0 +1,488 @@
+/** ***************************************************************************
+ *
+ * File        : ConcurrentAutoCompletionTrie.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class to model a trie data structure that serves queries
+ *               from many threads while words are being added.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An auto completion trie built on ConcurrentAutoCompletionTrieNode. Writers
+ * create offspring by compare-and-set and update counts atomically, readers
+ * take no locks and never write to a node. A reader racing a writer may see
+ * a word's new frequency before its ancestors' totals catch up, but never a
+ * half built offspring table or a frequency that was not set.
+ *
+ * @author Ali Jarjis
+ */
+public class ConcurrentAutoCompletionTrie {
+
+    private final ConcurrentAutoCompletionTrieNode root;
+
+    /**
+     * Constructs an empty trie
+     */
+    public ConcurrentAutoCompletionTrie() {
+        this.root = new ConcurrentAutoCompletionTrieNode('\0');
+    }
+
+    /**
+     * Constructs a trie rooted at a node of another trie, sharing its nodes
+     * without altering them
+     *
+     * @param root node to set as root
+     */
+    private ConcurrentAutoCompletionTrie(
+            ConcurrentAutoCompletionTrieNode root) {
+        this.root = root;
+    }
+
+    /**
+     * Adds a dictionary of words with their frequency to a trie
+     *
+     * @param dictionary dictionary to add
+     * @return trie formed from words in dictionary
+     */
+    public static ConcurrentAutoCompletionTrie addDictionary(TreeMap<String,
+            Integer> dictionary) {
+        ConcurrentAutoCompletionTrie dictionaryTrie
+                = new ConcurrentAutoCompletionTrie();
+
+        Set<String> keys = dictionary.keySet();
+
+        // Adds each element in dictionary to trie
+        for (String k : keys) {
+            dictionaryTrie.add(k, dictionary.get(k));
+        }
+
+        return dictionaryTrie;
+    }
+
+    /**
+     * Adds a key to the trie, replacing its frequency if already present
+     *
+     * @param key           key to add to trie
+     * @param frequency     amount of times to add this key to trie
+     * @return              true if successful, else false
+     */
+    public boolean add(String key, int frequency) {
+        ConcurrentAutoCompletionTrieNode[] path
+                = new ConcurrentAutoCompletionTrieNode[key.length() + 1];
+        boolean success = createPath(key, path);
+        ConcurrentAutoCompletionTrieNode last = path[key.length()];
+
+        int previous = last.setFrequency(frequency);
+        int change = previous == ConcurrentAutoCompletionTrieNode.NOT_A_WORD
+                ? frequency : frequency - previous;
+
+        updatePath(path, change, frequency);
+
+        return success;
+    }
+
+    /**
+     * Adds to the frequency of a key, adding the key if not present
+     *
+     * @param key       key to count
+     * @param amount    amount to add to the key's frequency
+     * @return          the key's new frequency
+     */
+    public int increment(String key, int amount) {
+        ConcurrentAutoCompletionTrieNode[] path
+                = new ConcurrentAutoCompletionTrieNode[key.length() + 1];
+        createPath(key, path);
+
+        int frequency = path[key.length()].addFrequency(amount);
+        updatePath(path, amount, frequency);
+
+        return frequency;
+    }
+
+    /**
+     * Follows a key down from the root, creating any missing offspring
+     *
+     * @param key   key to follow
+     * @param path  array to fill with each node on the key's path
+     * @return      true if any offspring was created, else false
+     */
+    private boolean createPath(String key,
+            ConcurrentAutoCompletionTrieNode[] path) {
+        boolean success = false;
+        ConcurrentAutoCompletionTrieNode currentNode = this.root;
+        path[0] = currentNode;
+
+        //Loops through each char in key adding to Trie if it doesn't exist
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+
+            // Adds char to Trie if it doesn't exist
+            if (currentNode.setOffspring(c)) {
+                success = true;
+            }
+
+            currentNode = currentNode.getOffspring(c);
+            path[i + 1] = currentNode;
+        }
+
+        return success;
+    }
+
+    /**
+     * Applies a change in a word's frequency to every node on its path
+     *
+     * @param path      nodes on the word's path, root first
+     * @param change    amount the word's frequency changed by
+     * @param frequency word's new frequency
+     */
+    private static void updatePath(ConcurrentAutoCompletionTrieNode[] path,
+            int change, int frequency) {
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i].addSubtreeFrequency(change);
+            path[i].raiseMaxFrequency(frequency);
+        }
+    }
+
+    /**
+     * Checks if key exists in trie
+     *
+     * @param key key to search for
+     * @return true if key exists, else false
+     */
+    public boolean contains(String key) {
+        ConcurrentAutoCompletionTrieNode currentNode = walk(key);
+
+        // Returns true if key is a whole word in Trie
+        return currentNode != null && currentNode.isWord();
+    }
+
+    /**
+     * Retrieves the frequency of a key
+     *
+     * @param key key to search for
+     * @return frequency of key, or 0 if it is not a word in trie
+     */
+    public int getFrequency(String key) {
+        ConcurrentAutoCompletionTrieNode currentNode = walk(key);
+
+        if (currentNode == null || !currentNode.isWord()) {
+            return 0;
+        }
+
+        return currentNode.frequency;
+    }
+
+    /**
+     * Retrieves the total frequency of every word matching a prefix
+     *
+     * @param prefix prefix to search for
+     * @return sum of the frequencies of matching words
+     */
+    public int getTotalFrequency(String prefix) {
+        ConcurrentAutoCompletionTrieNode currentNode = walk(prefix);
+
+        return currentNode == null ? 0 : currentNode.subtreeFrequency;
+    }
+
+    /**
+     * Retrieves a new trie rooted at a given prefix, sharing this trie's
+     * nodes so it sees later writes
+     *
+     * @param prefix prefix to root trie at
+     * @return sub-trie rooted at given prefix if exists, else null
+     */
+    public ConcurrentAutoCompletionTrie getSubTrie(String prefix) {
+        ConcurrentAutoCompletionTrieNode currentNode = walk(prefix);
+
+        // Return null if prefix does not exist in trie
+        if (currentNode == null) {
+            return null;
+        }
+
+        return new ConcurrentAutoCompletionTrie(currentNode);
+    }
+
+    /**
+     * Retrieves the k most frequent words that match a given prefix, using a
+     * best-first search bounded by each subtree's highest frequency. Each
+     * word's frequency is read once, and the answer is ranked by the values
+     * read, so it stays sorted even while writers change them.
+     *
+     * @param prefix    prefix to search for
+     * @param k         maximum number of words to retrieve
+     * @return          words mapped to their frequency, ordered by frequency
+     *                  (decreasing) and then alphabetically
+     */
+    public LinkedHashMap<String, Integer> getTopKWords(String prefix, int k) {
+        ConcurrentAutoCompletionTrieNode node = walk(prefix);
+        boolean ranked = true;
+        int previous = Integer.MAX_VALUE;
+
+        if (node == null) {
+            return new LinkedHashMap<>();
+        }
+
+        RankedSearch<ConcurrentAutoCompletionTrieNode> search
+                = new RankedSearch<ConcurrentAutoCompletionTrieNode>(node,
+                        prefix.toLowerCase(), node.maxFrequency) {
+            @Override
+            void expand(ConcurrentAutoCompletionTrieNode currentNode,
+                    String word) {
+                int frequency = currentNode.frequency;
+
+                if (frequency != ConcurrentAutoCompletionTrieNode.NOT_A_WORD) {
+                    addWord(currentNode, word, frequency);
+                }
+
+                // Add all offspring of current node bounded by their maximum
+                ConcurrentAutoCompletionTrieNode.Offspring offspring
+                        = currentNode.offspring;
+
+                for (int i = 0; i < offspring.keys.length; i++) {
+                    ConcurrentAutoCompletionTrieNode child
+                            = offspring.nodes[i];
+
+                    addNode(child, word + offspring.keys[i],
+                            child.maxFrequency);
+                }
+            }
+        };
+        LinkedHashMap<String, Integer> topWords = search.getTopKWords(k);
+
+        for (int frequency : topWords.values()) {
+            ranked &= frequency <= previous;
+            previous = frequency;
+        }
+
+        // A word raised after its branch was queued can leave the queue
+        // late, so the few words found are re-ranked when that happens
+        return ranked ? topWords : rank(topWords);
+    }
+
+    /**
+     * Orders words by frequency (decreasing) and then alphabetically
+     *
+     * @param words words mapped to their frequency
+     * @return      the same words in rank order
+     */
+    private static LinkedHashMap<String, Integer> rank(
+            LinkedHashMap<String, Integer> words) {
+        ArrayList<Map.Entry<String, Integer>> entries
+                = new ArrayList<>(words.entrySet());
+        LinkedHashMap<String, Integer> ranked = new LinkedHashMap<>();
+
+        Collections.sort(entries, new Comparator<Map.Entry<String, Integer>>() {
+            @Override
+            public int compare(Map.Entry<String, Integer> a,
+                    Map.Entry<String, Integer> b) {
+                if (!a.getValue().equals(b.getValue())) {
+                    return Integer.compare(b.getValue(), a.getValue());
+                }
+
+                return a.getKey().compareTo(b.getKey());
+            }
+        });
+
+        for (Map.Entry<String, Integer> entry : entries) {
+            ranked.put(entry.getKey(), entry.getValue());
+        }
+
+        return ranked;
+    }
+
+    /**
+     * Copies every word in the trie into a dictionary
+     *
+     * @return words mapped to their frequency, sorted alphabetically
+     */
+    public TreeMap<String, Integer> toDictionary() {
+        TreeMap<String, Integer> dictionary = new TreeMap<>();
+        ArrayList<ConcurrentAutoCompletionTrieNode> nodes = new ArrayList<>();
+        ArrayList<String> words = new ArrayList<>();
+        nodes.add(root);
+        words.add("");
+
+        // Visits nodes with an explicit stack, so long words cannot overflow
+        while (!nodes.isEmpty()) {
+            ConcurrentAutoCompletionTrieNode currentNode
+                    = nodes.remove(nodes.size() - 1);
+            String word = words.remove(words.size() - 1);
+            int frequency = currentNode.frequency;
+
+            if (frequency != ConcurrentAutoCompletionTrieNode.NOT_A_WORD) {
+                dictionary.put(word, frequency);
+            }
+
+            ConcurrentAutoCompletionTrieNode.Offspring offspring
+                    = currentNode.offspring;
+
+            for (int i = 0; i < offspring.keys.length; i++) {
+                nodes.add(offspring.nodes[i]);
+                words.add(word + offspring.keys[i]);
+            }
+        }
+
+        return dictionary;
+    }
+
+    /**
+     * Follows a key down from the root
+     *
+     * @param key key to follow
+     * @return node the key ends on, or null if it leaves the trie
+     */
+    private ConcurrentAutoCompletionTrieNode walk(String key) {
+        ConcurrentAutoCompletionTrieNode currentNode = this.root;
+
+        // Loops through each char in key checking if it exists in the Trie
+        for (int i = 0; i < key.length() && currentNode != null; i++) {
+            currentNode = currentNode.getOffspring(key.charAt(i));
+        }
+
+        return currentNode;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final ArrayList<String> lotr
+                = DictionaryMaker.readWordsFromCSV("lotr.csv");
+        final ArrayList<String> lotrQueries
+                = DictionaryMaker.readWordsFromCSV("lotrQueries.csv");
+        final int writers = 4;
+        final int readers = 4;
+        final ConcurrentAutoCompletionTrie trie
+                = new ConcurrentAutoCompletionTrie();
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicLong queries = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        ArrayList<Thread> threads = new ArrayList<>();
+
+        // Each writer counts its own share of the corpus
+        for (int w = 0; w < writers; w++) {
+            final int offset = w;
+
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+
+                    for (int i = offset; i < lotr.size(); i += writers) {
+                        trie.increment(lotr.get(i), 1);
+                    }
+                }
+            }));
+        }
+
+        // Readers check that every answer is well formed, and that a word's
+        // frequency never goes down while writers only add to it
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    TreeMap<String, Integer> seen = new TreeMap<>();
+
+                    while (writing.get()) {
+                        for (String q : lotrQueries) {
+                            if (!isConsistent(q, trie.getTopKWords(q, 3),
+                                    seen)) {
+                                failures.incrementAndGet();
+                            }
+
+                            queries.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+
+        for (Thread t : threads) {
+            t.start();
+        }
+
+        start.countDown();
+
+        for (int w = 0; w < writers; w++) {
+            threads.get(w).join();
+        }
+
+        writing.set(false);
+
+        for (int r = writers; r < threads.size(); r++) {
+            threads.get(r).join();
+        }
+
+        // Tests that the final trie matches one built on a single thread
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionary(lotr);
+        AutoCompletionTrie expected = AutoCompletion.addDictionary(dictionary);
+        boolean same = dictionary.equals(trie.toDictionary());
+
+        for (String q : lotrQueries) {
+            AutoCompletionTrie subTrie = expected.getSubTrie(q);
+            int total = subTrie == null ? 0 : subTrie.root.subtreeFrequency;
+
+            same &= expected.getTopKWords(q, 3).equals(trie.getTopKWords(q, 3));
+            same &= trie.getTotalFrequency(q) == total;
+        }
+
+        System.out.println("Queries answered while writing: " + queries.get());
+        System.out.println("Inconsistent answers: " + failures.get());
+        System.out.println("Same as single threaded trie? " + same);
+    }
+
+    /**
+     * Checks an answer given while writers were running
+     *
+     * @param prefix    prefix that was queried
+     * @param topWords  answer given
+     * @param seen      highest frequency seen so far for each word
+     * @return          true if the answer is sorted, matches the prefix and
+     *                  no frequency went down, else false
+     */
+    private static boolean isConsistent(String prefix,
+            LinkedHashMap<String, Integer> topWords,
+            TreeMap<String, Integer> seen) {
+        int previous = Integer.MAX_VALUE;
+
+        for (Map.Entry<String, Integer> entry : topWords.entrySet()) {
+            String word = entry.getKey();
+            int frequency = entry.getValue();
+            Integer last = seen.put(word, frequency);
+
+            if (!word.startsWith(prefix.toLowerCase()) || frequency <= 0
+                    || frequency > previous
+                    || (last != null && frequency < last)) {
+                return false;
+            }
+
+            previous = frequency;
+        }
+
+        return true;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/** ***************************************************************************
+ *
+ * File        : ConcurrentAutoCompletionTrieNode.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class to model a trie node that many threads can read and
+ *               write at once.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A trie node that never locks. Offspring live in an immutable sorted table
+ * that is replaced by compare-and-set, so a reader always sees a complete
+ * table, and every count is updated atomically.
+ *
+ * @author Ali Jarjis
+ */
+public class ConcurrentAutoCompletionTrieNode {
+
+    static final int NOT_A_WORD = -1;
+
+    private static final AtomicReferenceFieldUpdater<
+            ConcurrentAutoCompletionTrieNode, Offspring> OFFSPRING
+            = AtomicReferenceFieldUpdater.newUpdater(
+                    ConcurrentAutoCompletionTrieNode.class, Offspring.class,
+                    "offspring");
+    private static final AtomicIntegerFieldUpdater<
+            ConcurrentAutoCompletionTrieNode> FREQUENCY
+            = AtomicIntegerFieldUpdater.newUpdater(
+                    ConcurrentAutoCompletionTrieNode.class, "frequency");
+    private static final AtomicIntegerFieldUpdater<
+            ConcurrentAutoCompletionTrieNode> SUBTREE_FREQUENCY
+            = AtomicIntegerFieldUpdater.newUpdater(
+                    ConcurrentAutoCompletionTrieNode.class,
+                    "subtreeFrequency");
+    private static final AtomicIntegerFieldUpdater<
+            ConcurrentAutoCompletionTrieNode> MAX_FREQUENCY
+            = AtomicIntegerFieldUpdater.newUpdater(
+                    ConcurrentAutoCompletionTrieNode.class, "maxFrequency");
+
+    final char value;
+    volatile Offspring offspring;
+
+    // Frequency of the word ending here, or NOT_A_WORD, so that whether a
+    // node is a word and how frequent it is change together
+    volatile int frequency;
+    volatile int subtreeFrequency;
+    volatile int maxFrequency;
+
+    /**
+     * Constructs a node with a given value
+     *
+     * @param value node's value
+     */
+    public ConcurrentAutoCompletionTrieNode(char value) {
+        this.value = value;
+        this.offspring = Offspring.EMPTY;
+        this.frequency = NOT_A_WORD;
+        this.subtreeFrequency = 0;
+        this.maxFrequency = 0;
+    }
+
+    /**
+     * Recovers an offspring if present
+     *
+     * @param c     value of offspring to retrieve
+     * @return      the offspring node, if exists else null
+     */
+    public ConcurrentAutoCompletionTrieNode getOffspring(char c) {
+        c = Character.toLowerCase(c);   // Ensures trie remains lowercase
+
+        Offspring current = offspring;
+        int pos = Arrays.binarySearch(current.keys, c);
+
+        return pos >= 0 ? current.nodes[pos] : null;
+    }
+
+    /**
+     * Creates a new child node for a given value unless another thread got
+     * there first
+     *
+     * @param c     value to add as offspring
+     * @return      true if this call created the offspring, false if it
+     *              already existed
+     */
+    public boolean setOffspring(char c) {
+        c = Character.toLowerCase(c);   // Ensures trie remains lowercase
+
+        ConcurrentAutoCompletionTrieNode child = null;
+
+        // Retries against the latest table until one is swapped in or the
+        // value turns out to be present
+        while (true) {
+            Offspring current = offspring;
+            int pos = Arrays.binarySearch(current.keys, c);
+
+            if (pos >= 0) {
+                return false;
+            }
+
+            if (child == null) {
+                child = new ConcurrentAutoCompletionTrieNode(c);
+            }
+
+            if (OFFSPRING.compareAndSet(this, current,
+                    current.insert(-(pos + 1), c, child))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks if this node ends a word
+     *
+     * @return true if node ends a word, else false
+     */
+    public boolean isWord() {
+        return frequency != NOT_A_WORD;
+    }
+
+    /**
+     * Sets the frequency of the word ending here
+     *
+     * @param newFrequency frequency to set
+     * @return the previous frequency, or NOT_A_WORD
+     */
+    int setFrequency(int newFrequency) {
+        return FREQUENCY.getAndSet(this, newFrequency);
+    }
+
+    /**
+     * Adds to the frequency of the word ending here, making it a word
+     *
+     * @param amount amount to add
+     * @return the new frequency
+     */
+    int addFrequency(int amount) {
+        while (true) {
+            int current = frequency;
+            int updated = (current == NOT_A_WORD ? 0 : current) + amount;
+
+            if (FREQUENCY.compareAndSet(this, current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * Adds to the total frequency of the words under this node
+     *
+     * @param amount amount to add
+     */
+    void addSubtreeFrequency(int amount) {
+        SUBTREE_FREQUENCY.addAndGet(this, amount);
+    }
+
+    /**
+     * Raises the highest frequency under this node, if a frequency exceeds
+     * it. Lowering a word leaves the old maximum, which stays a safe upper
+     * bound for searching.
+     *
+     * @param candidate frequency that may be the new maximum
+     */
+    void raiseMaxFrequency(int candidate) {
+        int current = maxFrequency;
+
+        while (candidate > current
+                && !MAX_FREQUENCY.compareAndSet(this, current, candidate)) {
+            current = maxFrequency;
+        }
+    }
+
+    /**
+     * An immutable, alphabetically sorted table of offspring
+     */
+    static final class Offspring {
+        static final Offspring EMPTY = new Offspring(new char[0],
+                new ConcurrentAutoCompletionTrieNode[0]);
+
+        final char[] keys;
+        final ConcurrentAutoCompletionTrieNode[] nodes;
+
+        Offspring(char[] keys, ConcurrentAutoCompletionTrieNode[] nodes) {
+            this.keys = keys;
+            this.nodes = nodes;
+        }
+
+        /**
+         * Copies the table with one more offspring
+         *
+         * @param pos   position to insert at
+         * @param c     value of new offspring
+         * @param child new offspring
+         * @return      the new table
+         */
+        Offspring insert(int pos, char c,
+                ConcurrentAutoCompletionTrieNode child) {
+            int size = keys.length;
+            char[] newKeys = new char[size + 1];
+            ConcurrentAutoCompletionTrieNode[] newNodes
+                    = new ConcurrentAutoCompletionTrieNode[size + 1];
+
+            System.arraycopy(keys, 0, newKeys, 0, pos);
+            System.arraycopy(nodes, 0, newNodes, 0, pos);
+            newKeys[pos] = c;
+            newNodes[pos] = child;
+            System.arraycopy(keys, pos, newKeys, pos + 1, size - pos);
+            System.arraycopy(nodes, pos, newNodes, pos + 1, size - pos);
+
+            return new Offspring(newKeys, newNodes);
+        }
+    }
+}
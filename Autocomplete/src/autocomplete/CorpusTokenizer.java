@@ -0,0 +1,260 @@
+/** ***************************************************************************
+ *
+ * File        : CorpusTokenizer.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that streams the words of a comma separated text
+ *               document to a consumer.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Scanner;
+
+/**
+ * Splits a document on the same delimiters as DictionaryMaker always has
+ * (spaces, bars, commas and line breaks), trimming and lowercasing each
+ * token in a reused buffer. Nothing but the buffers is kept, so memory does
+ * not grow with the document.
+ *
+ * @author Ali Jarjis
+ */
+public class CorpusTokenizer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private final CharsetDecoder decoder;
+    private char[] token;
+    private int length;
+    private boolean inToken;
+
+    /**
+     * Constructs a tokenizer with its own reusable buffers
+     */
+    public CorpusTokenizer() {
+        this.bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.chars = CharBuffer.allocate(BUFFER_SIZE);
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.token = new char[64];
+    }
+
+    /**
+     * Streams every token of a file to a consumer
+     *
+     * @param file      address of file to read from
+     * @param consumer  consumer to receive each token
+     * @throws IOException if file cannot be read
+     */
+    public void tokenize(String file, TokenConsumer consumer)
+            throws IOException {
+        FileInputStream in = new FileInputStream(file);
+
+        try {
+            FileChannel channel = in.getChannel();
+
+            tokenize(channel, 0, channel.size(), consumer);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Streams every token in a range of a channel to a consumer
+     *
+     * @param channel   channel to read from
+     * @param start     position of first byte to read
+     * @param end       position after last byte to read
+     * @param consumer  consumer to receive each token
+     * @throws IOException if channel cannot be read
+     */
+    public void tokenize(FileChannel channel, long start, long end,
+            TokenConsumer consumer) throws IOException {
+        long position = start;
+
+        bytes.clear();
+        decoder.reset();
+        length = 0;
+        inToken = false;
+
+        while (position < end) {
+            bytes.limit((int) Math.min(bytes.capacity(),
+                    bytes.position() + end - position));
+
+            int read = channel.read(bytes, position);
+
+            if (read == -1) {
+                break;
+            }
+
+            position += read;
+            bytes.flip();
+            decoder.decode(bytes, chars, false);
+            bytes.compact();
+            drain(consumer);
+        }
+
+        bytes.flip();
+        decoder.decode(bytes, chars, true);
+        decoder.flush(chars);
+        drain(consumer);
+
+        if (inToken) {
+            emit(consumer);
+        }
+    }
+
+    /**
+     * Checks if a character separates tokens
+     *
+     * @param c character to check
+     * @return true if c is a delimiter, else false
+     */
+    static boolean isDelimiter(char c) {
+        return c == ' ' || c == '|' || c == ',' || c == '\r' || c == '\n';
+    }
+
+    /**
+     * Passes decoded characters through the token buffer, emitting each
+     * token as its delimiter arrives
+     *
+     * @param consumer consumer to receive each token
+     */
+    private void drain(TokenConsumer consumer) {
+        chars.flip();
+
+        while (chars.hasRemaining()) {
+            char c = chars.get();
+
+            if (isDelimiter(c)) {
+                if (inToken) {
+                    emit(consumer);
+                }
+            } else {
+                if (length == token.length) {
+                    token = Arrays.copyOf(token, length * 2);
+                }
+
+                token[length++] = Character.toLowerCase(c);
+                inToken = true;
+            }
+        }
+
+        chars.clear();
+    }
+
+    /**
+     * Trims the token in place and passes it to the consumer
+     *
+     * @param consumer consumer to receive the token
+     */
+    private void emit(TokenConsumer consumer) {
+        int from = 0;
+        int to = length;
+
+        while (from < to && token[from] <= ' ') {
+            from++;
+        }
+
+        while (to > from && token[to - 1] <= ' ') {
+            to--;
+        }
+
+        if (from > 0) {
+            System.arraycopy(token, from, token, 0, to - from);
+        }
+
+        consumer.accept(token, to - from);
+        length = 0;
+        inToken = false;
+    }
+
+    /**
+     * Reads words the way DictionaryMaker did before streaming, kept to
+     * measure against
+     *
+     * @param file address of file to read from
+     * @return a list of words retrieved from the file
+     * @throws IOException if file cannot be read
+     */
+    private static ArrayList<String> readWithScanner(String file)
+            throws IOException {
+        Scanner sc = new Scanner(new File(file));
+        sc.useDelimiter("[ |,\r\n]+");
+        ArrayList<String> words = new ArrayList<>();
+
+        while (sc.hasNext()) {
+            words.add(sc.next().trim().toLowerCase());
+        }
+
+        sc.close();
+
+        return words;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String file = "lotr.csv";
+        int rounds = 500;
+        final int[] count = new int[1];
+        CorpusTokenizer tokenizer = new CorpusTokenizer();
+        TokenConsumer counter = new TokenConsumer() {
+            @Override
+            public void accept(char[] token, int length) {
+                count[0]++;
+            }
+        };
+
+        // Tests that both paths find the same words
+        final ArrayList<String> streamed = new ArrayList<>();
+        tokenizer.tokenize(file, new TokenConsumer() {
+            @Override
+            public void accept(char[] token, int length) {
+                streamed.add(new String(token, 0, length));
+            }
+        });
+
+        System.out.println("Same tokens? "
+                + streamed.equals(readWithScanner(file)));
+
+        // Times each path over the file many times, after a warm up
+        long scannerTime = 0;
+        long streamTime = 0;
+
+        for (int r = 0; r < rounds * 2; r++) {
+            long start = System.nanoTime();
+            readWithScanner(file);
+            long middle = System.nanoTime();
+            tokenizer.tokenize(file, counter);
+            long end = System.nanoTime();
+
+            if (r >= rounds) {
+                scannerTime += middle - start;
+                streamTime += end - middle;
+            }
+        }
+
+        double megabytes = new File(file).length() * (double) rounds / 1e6;
+
+        System.out.printf("Scanner: %.1f MB/s%n",
+                megabytes / (scannerTime / 1e9));
+        System.out.printf("Streaming: %.1f MB/s%n",
+                megabytes / (streamTime / 1e9));
+    }
+}
@@ -0,0 +1,288 @@
+/** ***************************************************************************
+ *
+ * File        : CountMinSketch.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that estimates how often words occur in a fixed
+ *               amount of memory.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+/**
+ * Estimates word counts in a table of depth rows by width counters. Each
+ * word adds to one counter per row, picked by a hash of its own, and its
+ * estimate is the least of those counters. Estimates are never below the
+ * true count, and with probability 1 - delta are within epsilon times the
+ * total of every count, where epsilon is e / width and delta is e^-depth.
+ *
+ * Counters are raised conservatively: a word only raises its counters as
+ * far as its new estimate, which keeps the same bounds while making most
+ * estimates tighter. Counters stop at Integer.MAX_VALUE rather than
+ * wrapping, so a word counted past it is estimated at that.
+ *
+ * Estimating only reads the counters, so any number of threads may
+ * estimate at once. Adding is not synchronized and must not run alongside
+ * any other add or estimate.
+ *
+ * @author Ali Jarjis
+ */
+public class CountMinSketch implements TokenConsumer {
+
+    private final int width;
+    private final int depth;
+    private final int[] counts;
+    private long total;
+
+    /**
+     * Constructs a sketch meeting given error bounds
+     *
+     * @param epsilon   error allowed, as a fraction of the total count
+     * @param delta     chance of an estimate exceeding that error
+     */
+    public CountMinSketch(double epsilon, double delta) {
+        this(width(epsilon), depth(delta));
+    }
+
+    /**
+     * Constructs a sketch of a given shape
+     *
+     * @param width number of counters per row
+     * @param depth number of rows
+     */
+    private CountMinSketch(int width, int depth) {
+        if (width > Integer.MAX_VALUE / depth) {
+            throw new IllegalArgumentException("A sketch of " + depth
+                    + " rows of " + width + " counters is too large");
+        }
+
+        this.width = width;
+        this.depth = depth;
+        this.counts = new int[width * depth];
+        this.total = 0;
+    }
+
+    /**
+     * Constructs the most accurate sketch of a given failure chance that
+     * fits in a number of bytes
+     *
+     * @param bytes most bytes the counters may take
+     * @param delta chance of an estimate exceeding the error bound
+     * @return      the sketch
+     */
+    public static CountMinSketch withBytes(long bytes, double delta) {
+        int depth = depth(delta);
+        long width = bytes / Integer.BYTES / depth;
+
+        if (width < 1 || width > Integer.MAX_VALUE / depth) {
+            throw new IllegalArgumentException("Cannot fit a sketch of depth "
+                    + depth + " in " + bytes + " bytes");
+        }
+
+        return new CountMinSketch((int) width, depth);
+    }
+
+    /**
+     * Counts one occurrence of a token
+     *
+     * @param token     buffer holding the token's characters
+     * @param length    number of characters in the token
+     */
+    @Override
+    public void accept(char[] token, int length) {
+        add(token, 0, length, 1);
+    }
+
+    /**
+     * Adds to the count of a word held in a buffer
+     *
+     * @param buffer    buffer holding the word's characters
+     * @param offset    position of the word's first character
+     * @param length    number of characters in the word
+     * @param amount    amount to add, not negative
+     * @return          the word's new estimate
+     */
+    public int add(char[] buffer, int offset, int length, int amount) {
+        long hashes = hash(buffer, offset, length);
+        int raised = (int) Math.min(Integer.MAX_VALUE,
+                (long) estimate(hashes) + amount);
+
+        // Raises only the counters below the new estimate
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(hashes, row);
+
+            if (counts[cell] < raised) {
+                counts[cell] = raised;
+            }
+        }
+
+        total += amount;
+
+        return raised;
+    }
+
+    /**
+     * Estimates the count of a word held in a buffer
+     *
+     * @param buffer    buffer holding the word's characters
+     * @param offset    position of the word's first character
+     * @param length    number of characters in the word
+     * @return          estimated count, never below the true count
+     */
+    public int estimate(char[] buffer, int offset, int length) {
+        return estimate(hash(buffer, offset, length));
+    }
+
+    /**
+     * Estimates the count of a word
+     *
+     * @param word  word to estimate
+     * @return      estimated count, never below the true count
+     */
+    public int estimate(String word) {
+        return estimate(word.toCharArray(), 0, word.length());
+    }
+
+    /**
+     * Retrieves the total of every count added
+     *
+     * @return total count
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Retrieves the error allowed, as a fraction of the total count
+     *
+     * @return epsilon of the sketch
+     */
+    public double epsilon() {
+        return Math.E / width;
+    }
+
+    /**
+     * Retrieves the chance of an estimate exceeding the error bound
+     *
+     * @return delta of the sketch
+     */
+    public double delta() {
+        return Math.exp(-depth);
+    }
+
+    /**
+     * Retrieves the most an estimate should exceed a true count by, with
+     * probability 1 - delta, given the counts added so far
+     *
+     * @return error bound
+     */
+    public double errorBound() {
+        return epsilon() * total;
+    }
+
+    /**
+     * Retrieves the number of counters per row
+     *
+     * @return width of the sketch
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Retrieves the number of rows
+     *
+     * @return depth of the sketch
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Retrieves the bytes held by the counters
+     *
+     * @return bytes used by the sketch
+     */
+    public long sizeInBytes() {
+        return (long) counts.length * Integer.BYTES;
+    }
+
+    /**
+     * Hashes a word two independent ways, combined to give one hash per row
+     *
+     * @return the two hashes, packed into the high and low halves
+     */
+    private static long hash(char[] buffer, int offset, int length) {
+        int h1 = 0;
+        int h2 = 0x811C9DC5;
+
+        for (int i = offset; i < offset + length; i++) {
+            h1 = 31 * h1 + buffer[i];
+            h2 = (h2 ^ buffer[i]) * 0x01000193;
+        }
+
+        return ((long) h1 << 32) | (h2 & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Finds the least of a word's counters
+     *
+     * @param hashes    the word's packed hashes
+     * @return          least of the word's counters
+     */
+    private int estimate(long hashes) {
+        int least = Integer.MAX_VALUE;
+
+        for (int row = 0; row < depth; row++) {
+            least = Math.min(least, counts[cell(hashes, row)]);
+        }
+
+        return least;
+    }
+
+    /**
+     * Finds a word's counter in a row
+     *
+     * @param hashes    the word's packed hashes
+     * @param row       row to look in
+     * @return          index of the counter
+     */
+    private int cell(long hashes, int row) {
+        int h = mix((int) (hashes >>> 32) + row * ((int) hashes | 1));
+
+        return row * width + (int) (((h & 0xFFFFFFFFL) * width) >>> 32);
+    }
+
+    /**
+     * Spreads every bit of a hash over the others, as MurmurHash3 finishes
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+
+        return h ^ (h >>> 16);
+    }
+
+    private static int width(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Epsilon must be between 0 "
+                    + "and 1");
+        }
+
+        return (int) Math.ceil(Math.E / epsilon);
+    }
+
+    private static int depth(double delta) {
+        if (!(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Delta must be between 0 "
+                    + "and 1");
+        }
+
+        return Math.max(1, (int) Math.ceil(Math.log(1 / delta)));
+    }
+}
@@ -0,0 +1,567 @@
+/** ***************************************************************************
+ *
+ * File        : DictionaryAutomaton.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class to model a read-only dictionary as a minimal acyclic
+ *               finite-state transducer, sharing suffixes as well as
+ *               prefixes.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * A minimal transducer built in one pass over an alphabetically sorted
+ * dictionary. Each word's weight is its distance below the most frequent
+ * word, spread along its path as arc outputs and pushed as close to the root
+ * as possible, so the cheapest arc out of every state has no output. Summing
+ * outputs down a path recovers the word's frequency, and a best-first search
+ * by accumulated weight visits completions in order of frequency.
+ *
+ * @author Ali Jarjis
+ */
+public class DictionaryAutomaton {
+
+    private static final int NOT_FINAL = -1;
+
+    // State s owns arcs firstArc[s] to firstArc[s + 1] - 1, sorted by label
+    int[] firstArc;
+    int[] finalOutput;
+    char[] arcLabel;
+    int[] arcTarget;
+    int[] arcOutput;
+    int stateCount;
+    int arcCount;
+    int rootState;
+    int maxFrequency;
+
+    /**
+     * Constructs an automaton from a dictionary of words with their frequency
+     *
+     * @param dictionary alphabetically sorted dictionary to build from
+     */
+    public DictionaryAutomaton(TreeMap<String, Integer> dictionary) {
+        this.firstArc = new int[1024];
+        this.finalOutput = new int[1024];
+        this.arcLabel = new char[1024];
+        this.arcTarget = new int[1024];
+        this.arcOutput = new int[1024];
+        this.stateCount = 0;
+        this.arcCount = 0;
+        this.maxFrequency = 0;
+
+        for (int frequency : dictionary.values()) {
+            maxFrequency = Math.max(maxFrequency, frequency);
+        }
+
+        new Builder().build(dictionary);
+    }
+
+    /**
+     * Checks if key exists in automaton
+     *
+     * @param key key to search for
+     * @return true if key exists, else false
+     */
+    public boolean contains(String key) {
+        return getFrequency(key) != -1;
+    }
+
+    /**
+     * Retrieves the frequency of a word
+     *
+     * @param key word to search for
+     * @return frequency of word if exists, else -1
+     */
+    public int getFrequency(String key) {
+        int state = rootState;
+        int weight = 0;
+
+        for (int i = 0; i < key.length(); i++) {
+            int arc = findArc(state, Character.toLowerCase(key.charAt(i)));
+
+            if (arc == -1) {
+                return -1;
+            }
+
+            weight += arcOutput[arc];
+            state = arcTarget[arc];
+        }
+
+        if (finalOutput[state] == NOT_FINAL) {
+            return -1;
+        }
+
+        return maxFrequency - (weight + finalOutput[state]);
+    }
+
+    /**
+     * Retrieves the k most frequent words that match a given prefix, using a
+     * best-first search on accumulated weight
+     *
+     * @param prefix    prefix to search for
+     * @param k         maximum number of words to retrieve
+     * @return          words mapped to their frequency, ordered by frequency
+     *                  (decreasing) and then alphabetically
+     */
+    public LinkedHashMap<String, Integer> getTopKWords(String prefix, int k) {
+        LinkedHashMap<String, Integer> topWords = new LinkedHashMap<>();
+        String word = prefix.toLowerCase();
+        int state = rootState;
+        int weight = 0;
+
+        for (int i = 0; i < word.length(); i++) {
+            int arc = findArc(state, word.charAt(i));
+
+            if (arc == -1) {
+                return topWords;
+            }
+
+            weight += arcOutput[arc];
+            state = arcTarget[arc];
+        }
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(state, word, weight, false));
+
+        // Outputs never decrease along a path, so candidates leave the queue
+        // in rank order and the search stops once k words have left it
+        while (!queue.isEmpty() && topWords.size() < k) {
+            Candidate candidate = queue.remove();
+
+            if (candidate.isWord) {
+                topWords.put(candidate.word,
+                        maxFrequency - candidate.weight);
+                continue;
+            }
+
+            int current = candidate.state;
+
+            if (finalOutput[current] != NOT_FINAL) {
+                queue.add(new Candidate(current, candidate.word,
+                        candidate.weight + finalOutput[current], true));
+            }
+
+            for (int arc = firstArc[current]; arc < firstArc[current + 1];
+                    arc++) {
+                queue.add(new Candidate(arcTarget[arc],
+                        candidate.word + arcLabel[arc],
+                        candidate.weight + arcOutput[arc], false));
+            }
+        }
+
+        return topWords;
+    }
+
+    /**
+     * Sums the frequencies of every word that matches a given prefix. Shared
+     * suffix states belong to many prefixes, so the total cannot be stored
+     * per state and is found by visiting each completion.
+     *
+     * @param prefix prefix to search for
+     * @return total frequency of words matching the prefix
+     */
+    public int getCompletionFrequency(String prefix) {
+        int state = rootState;
+        int weight = 0;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            int arc = findArc(state, Character.toLowerCase(prefix.charAt(i)));
+
+            if (arc == -1) {
+                return 0;
+            }
+
+            weight += arcOutput[arc];
+            state = arcTarget[arc];
+        }
+
+        int total = 0;
+        ArrayList<int[]> stack = new ArrayList<>();
+        stack.add(new int[]{state, weight});
+
+        while (!stack.isEmpty()) {
+            int[] top = stack.remove(stack.size() - 1);
+            int current = top[0];
+
+            if (finalOutput[current] != NOT_FINAL) {
+                total += maxFrequency - (top[1] + finalOutput[current]);
+            }
+
+            for (int arc = firstArc[current]; arc < firstArc[current + 1];
+                    arc++) {
+                stack.add(new int[]{arcTarget[arc], top[1] + arcOutput[arc]});
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Calculates the bytes held by the automaton's arrays
+     *
+     * @return bytes used by states and arcs
+     */
+    public long sizeInBytes() {
+        return (long) firstArc.length * Integer.BYTES
+                + (long) finalOutput.length * Integer.BYTES
+                + (long) arcLabel.length * Character.BYTES
+                + (long) arcTarget.length * Integer.BYTES
+                + (long) arcOutput.length * Integer.BYTES;
+    }
+
+    /**
+     * Searches a state's arcs for a label
+     *
+     * @param state state to search
+     * @param c     label to search for
+     * @return      index of the arc if present, else -1
+     */
+    private int findArc(int state, char c) {
+        int arc = Arrays.binarySearch(arcLabel, firstArc[state],
+                firstArc[state + 1], c);
+
+        return arc >= 0 ? arc : -1;
+    }
+
+    /**
+     * Builds the automaton from sorted words, keeping uncompiled states only
+     * for the path of the previous word and compiling each state into the
+     * shared arrays, or reusing an equivalent one, once no later word can
+     * change it
+     */
+    private class Builder {
+        private final HashMap<StateSignature, Integer> register
+                = new HashMap<>();
+        private UncompiledState[] frontier = new UncompiledState[0];
+        private String lastWord = "";
+
+        /**
+         * Adds every word of a dictionary and compiles the remaining states
+         *
+         * @param dictionary alphabetically sorted dictionary to add
+         */
+        void build(TreeMap<String, Integer> dictionary) {
+            growFrontier(1);
+
+            for (Map.Entry<String, Integer> pair : dictionary.entrySet()) {
+                add(pair.getKey(), maxFrequency - pair.getValue());
+            }
+
+            freezeTail(1);
+            rootState = compile(frontier[0]);
+
+            // Trims arrays and adds the sentinel closing the last state's arcs
+            firstArc = Arrays.copyOf(firstArc, stateCount + 1);
+            firstArc[stateCount] = arcCount;
+            finalOutput = Arrays.copyOf(finalOutput, stateCount);
+            arcLabel = Arrays.copyOf(arcLabel, arcCount);
+            arcTarget = Arrays.copyOf(arcTarget, arcCount);
+            arcOutput = Arrays.copyOf(arcOutput, arcCount);
+        }
+
+        /**
+         * Adds a word that sorts after every word added so far
+         *
+         * @param word      word to add
+         * @param weight    weight of word, lower for more frequent words
+         */
+        private void add(String word, int weight) {
+            int prefixLength = 0;
+
+            while (prefixLength < word.length()
+                    && prefixLength < lastWord.length()
+                    && word.charAt(prefixLength)
+                    == lastWord.charAt(prefixLength)) {
+                prefixLength++;
+            }
+
+            // States past the shared prefix can no longer change
+            freezeTail(prefixLength + 1);
+            growFrontier(word.length() + 1);
+
+            for (int i = prefixLength; i < word.length(); i++) {
+                frontier[i].addArc(word.charAt(i));
+                frontier[i + 1].clear();
+            }
+
+            UncompiledState last = frontier[word.length()];
+
+            if (word.length() == prefixLength) {
+                // Only the empty word can end on the shared prefix
+                last.isFinal = true;
+                last.finalOutput = weight;
+                lastWord = word;
+                return;
+            }
+
+            last.isFinal = true;
+            last.finalOutput = 0;
+
+            // Keeps only the weight common to both words on each shared arc,
+            // pushing what belonged to earlier words one state further down
+            for (int i = 0; i < prefixLength; i++) {
+                UncompiledState parent = frontier[i];
+                int lastOutput = parent.outputs[parent.arcCount - 1];
+                int common = Math.min(weight, lastOutput);
+
+                parent.outputs[parent.arcCount - 1] = common;
+                frontier[i + 1].prependOutput(lastOutput - common);
+                weight -= common;
+            }
+
+            UncompiledState branch = frontier[prefixLength];
+            branch.outputs[branch.arcCount - 1] = weight;
+
+            lastWord = word;
+        }
+
+        /**
+         * Compiles the states of the previous word from its end back to a
+         * given depth
+         *
+         * @param depth shallowest depth to compile
+         */
+        private void freezeTail(int depth) {
+            for (int i = lastWord.length(); i >= depth; i--) {
+                UncompiledState parent = frontier[i - 1];
+
+                parent.targets[parent.arcCount - 1] = compile(frontier[i]);
+            }
+        }
+
+        /**
+         * Finds a compiled state equivalent to an uncompiled one, compiling
+         * it if there is none
+         *
+         * @param state uncompiled state
+         * @return index of the equivalent compiled state
+         */
+        private int compile(UncompiledState state) {
+            StateSignature signature = new StateSignature(state);
+            Integer existing = register.get(signature);
+
+            if (existing != null) {
+                return existing;
+            }
+
+            int compiled = stateCount++;
+
+            if (compiled + 1 >= firstArc.length) {
+                firstArc = Arrays.copyOf(firstArc, firstArc.length * 2);
+                finalOutput = Arrays.copyOf(finalOutput,
+                        finalOutput.length * 2);
+            }
+
+            if (arcCount + state.arcCount > arcLabel.length) {
+                int capacity = Math.max(arcLabel.length * 2,
+                        arcCount + state.arcCount);
+
+                arcLabel = Arrays.copyOf(arcLabel, capacity);
+                arcTarget = Arrays.copyOf(arcTarget, capacity);
+                arcOutput = Arrays.copyOf(arcOutput, capacity);
+            }
+
+            firstArc[compiled] = arcCount;
+            finalOutput[compiled] = state.isFinal
+                    ? state.finalOutput : NOT_FINAL;
+
+            for (int i = 0; i < state.arcCount; i++) {
+                arcLabel[arcCount] = state.labels[i];
+                arcTarget[arcCount] = state.targets[i];
+                arcOutput[arcCount] = state.outputs[i];
+                arcCount++;
+            }
+
+            register.put(signature, compiled);
+
+            return compiled;
+        }
+
+        /**
+         * Ensures the frontier has enough states for a word
+         *
+         * @param size number of states needed
+         */
+        private void growFrontier(int size) {
+            int old = frontier.length;
+
+            if (size > old) {
+                frontier = Arrays.copyOf(frontier, size);
+
+                for (int i = old; i < size; i++) {
+                    frontier[i] = new UncompiledState();
+                }
+            }
+        }
+    }
+
+    /**
+     * A state still on the path of the most recently added word
+     */
+    private static class UncompiledState {
+        char[] labels = new char[4];
+        int[] targets = new int[4];
+        int[] outputs = new int[4];
+        int arcCount;
+        boolean isFinal;
+        int finalOutput;
+
+        /**
+         * Empties the state for reuse by a new word
+         */
+        void clear() {
+            arcCount = 0;
+            isFinal = false;
+            finalOutput = 0;
+        }
+
+        /**
+         * Adds an arc with no output, its target set when compiled
+         *
+         * @param c label of arc
+         */
+        void addArc(char c) {
+            if (arcCount == labels.length) {
+                labels = Arrays.copyOf(labels, arcCount * 2);
+                targets = Arrays.copyOf(targets, arcCount * 2);
+                outputs = Arrays.copyOf(outputs, arcCount * 2);
+            }
+
+            labels[arcCount] = c;
+            outputs[arcCount] = 0;
+            arcCount++;
+        }
+
+        /**
+         * Adds an output to every way out of the state
+         *
+         * @param output output to add
+         */
+        void prependOutput(int output) {
+            for (int i = 0; i < arcCount; i++) {
+                outputs[i] += output;
+            }
+
+            if (isFinal) {
+                finalOutput += output;
+            }
+        }
+    }
+
+    /**
+     * Identifies a state by everything that affects its right language, so
+     * equivalent states compile to one
+     */
+    private static class StateSignature {
+        private final int[] content;
+        private final int hash;
+
+        StateSignature(UncompiledState state) {
+            content = new int[1 + state.arcCount * 3];
+            content[0] = state.isFinal ? state.finalOutput : NOT_FINAL;
+
+            for (int i = 0; i < state.arcCount; i++) {
+                content[1 + i * 3] = state.labels[i];
+                content[2 + i * 3] = state.targets[i];
+                content[3 + i * 3] = state.outputs[i];
+            }
+
+            hash = Arrays.hashCode(content);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof StateSignature
+                    && Arrays.equals(content, ((StateSignature) other).content);
+        }
+    }
+
+    /**
+     * A state or word waiting to be explored by the best-first search,
+     * ranked by the weight accumulated so far
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        int state;
+        String word;
+        int weight;
+        boolean isWord;
+
+        Candidate(int state, String word, int weight, boolean isWord) {
+            this.state = state;
+            this.word = word;
+            this.weight = weight;
+            this.isWord = isWord;
+        }
+
+        /**
+         * Orders by weight (increasing), then alphabetically, with a word
+         * ahead of the state it ends on so ties come out alphabetically
+         */
+        @Override
+        public int compareTo(Candidate other) {
+            if (weight != other.weight) {
+                return Integer.compare(weight, other.weight);
+            }
+
+            int order = word.compareTo(other.word);
+
+            if (order != 0) {
+                return order;
+            }
+
+            return Boolean.compare(other.isWord, isWord);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        ArrayList<String> lotr = readWordsFromCSV("lotr.csv");
+        ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionary(lotr);
+
+        AutoCompletionTrie trie = AutoCompletion.addDictionary(dictionary);
+        FlatAutoCompletionTrie flatTrie
+                = FlatAutoCompletionTrie.addDictionary(dictionary);
+        DictionaryAutomaton automaton = new DictionaryAutomaton(dictionary);
+
+        // Tests that the automaton gives the same answers as the trie
+        boolean same = true;
+
+        for (String q : lotrQueries) {
+            same &= AutoCompletion.getTopThreeWords(q, trie)
+                    .equals(AutoCompletion.getTopThreeWords(q, automaton));
+            same &= trie.contains(q) == automaton.contains(q);
+        }
+
+        for (String k : dictionary.keySet()) {
+            same &= automaton.getFrequency(k) == dictionary.get(k);
+        }
+
+        System.out.println("Same answers for queries? " + same);
+        System.out.println("\nTrie nodes: " + trie.nodeCount());
+        System.out.println("Automaton states: " + automaton.stateCount
+                + ", arcs: " + automaton.arcCount);
+        System.out.println("Flat trie bytes (reserved): " + (long) (
+                flatTrie.store.bytesPerNode() * flatTrie.nodeCount()));
+        System.out.println("Automaton bytes: " + automaton.sizeInBytes());
+    }
+}
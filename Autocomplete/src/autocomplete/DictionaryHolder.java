@@ -0,0 +1,374 @@
+/** ***************************************************************************
+ *
+ * File        : DictionaryHolder.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that holds the current version of a dictionary's
+ *               trie, swapping in rebuilt versions while it is read.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the trie currently served, with a version number. A new version is
+ * built on a background thread from a fresh corpus and published by one
+ * atomic swap, so readers never see a trie part way through being built
+ * and are never stopped.
+ *
+ * Readers acquire a snapshot, read it as long as they like and release it.
+ * Each snapshot counts its references, the holder keeping one while it is
+ * current, so a snapshot swapped out stays whole for the readers still on
+ * it and is retired when the last of them releases it.
+ *
+ * A published trie must not be changed, so anything that adds to a
+ * dictionary does so by publishing a new version.
+ *
+ * @author Ali Jarjis
+ */
+public class DictionaryHolder {
+
+    private final AtomicReference<Snapshot> current;
+    private final AtomicLong versions;
+    private final AtomicLong retired;
+    private final ExecutorService builder;
+
+    /**
+     * Constructs a holder publishing a trie as version 1, building its
+     * completion cache if it has none
+     *
+     * @param trie      first trie to serve, which must not be changed after
+     * @param source    where the trie was built from
+     */
+    public DictionaryHolder(AutoCompletionTrie trie, String source) {
+        this.versions = new AtomicLong();
+        this.retired = new AtomicLong();
+        this.current = new AtomicReference<>(newSnapshot(trie, source));
+        this.builder = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "dictionary-builder");
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Builds a holder from a comma separated text document
+     *
+     * @param file  address of file to read from
+     * @return      holder of the file's trie as version 1
+     * @throws IOException if file cannot be read
+     */
+    public static DictionaryHolder fromCSV(String file) throws IOException {
+        return new DictionaryHolder(build(file), file);
+    }
+
+    /**
+     * Acquires the current snapshot, which must be released once read
+     *
+     * @return the current snapshot
+     */
+    public Snapshot acquire() {
+        // A snapshot retired between reading and retaining it has already
+        // been replaced, so the next read finds its successor
+        while (true) {
+            Snapshot snapshot = current.get();
+
+            if (snapshot.retain()) {
+                return snapshot;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the version currently published
+     *
+     * @return current version number
+     */
+    public long currentVersion() {
+        return current.get().version;
+    }
+
+    /**
+     * Retrieves the number of versions retired
+     *
+     * @return number of snapshots released by every reader
+     */
+    public long retiredCount() {
+        return retired.get();
+    }
+
+    /**
+     * Publishes a trie as the next version, retiring the current one once
+     * its readers have released it. The trie's completion cache is built
+     * first if it has none.
+     *
+     * @param trie      trie to publish, which must not be changed after
+     * @param source    where the trie was built from
+     * @return          version number of the trie
+     */
+    public long publish(AutoCompletionTrie trie, String source) {
+        Snapshot snapshot = newSnapshot(trie, source);
+        current.getAndSet(snapshot).release();
+
+        return snapshot.version;
+    }
+
+    /**
+     * Rebuilds the dictionary from a comma separated text document on the
+     * background thread, publishing it once built
+     *
+     * @param file  address of file to read from
+     * @return      the version published, or the reason it failed
+     */
+    public Future<Long> reload(final String file) {
+        return builder.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws IOException {
+                return publish(build(file), file);
+            }
+        });
+    }
+
+    /**
+     * Stops the background thread once any rebuild under way is published
+     */
+    public void shutdown() {
+        builder.shutdown();
+    }
+
+    /**
+     * Builds a trie with its completion cache from a document
+     *
+     * @param file  address of file to read from
+     * @return      the built trie
+     * @throws IOException if file cannot be read
+     */
+    private static AutoCompletionTrie build(String file) throws IOException {
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionaryFromCSV(file);
+
+        // Adding the dictionary builds its completion cache as well
+        return AutoCompletion.addDictionary(dictionary);
+    }
+
+    private Snapshot newSnapshot(AutoCompletionTrie trie, String source) {
+        // Built before the trie is shared, as readers must not change it
+        if (!trie.isCompletionCacheBuilt()) {
+            trie.buildCompletionCache();
+        }
+
+        return new Snapshot(trie, versions.incrementAndGet(), source);
+    }
+
+    /**
+     * One published version of the dictionary. Its trie is kept private and
+     * only the queries are offered, so a reader cannot change a version
+     * other readers are sharing.
+     */
+    public class Snapshot {
+        private final AutoCompletionTrie trie;
+        public final long version;
+        public final String source;
+
+        // Starts with the holder's own reference
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        Snapshot(AutoCompletionTrie trie, long version, String source) {
+            this.trie = trie;
+            this.version = version;
+            this.source = source;
+        }
+
+        /**
+         * Fills a reusable holder with the k most frequent words that match
+         * a given prefix
+         *
+         * @param prefix    prefix to search for
+         * @param k         maximum number of words to retrieve
+         * @param result    holder to fill, emptied first
+         */
+        public void complete(CharSequence prefix, int k,
+                CompletionResult result) {
+            trie.complete(prefix, k, result);
+        }
+
+        /**
+         * Retrieves the k best words matching a prefix with up to a given
+         * number of edits
+         *
+         * @param prefix    prefix typed
+         * @param maxEdits  most edits allowed, from 0 to MAX_EDITS
+         * @param k         maximum number of words to retrieve
+         * @return          words mapped to their frequency, best first
+         */
+        public LinkedHashMap<String, Integer> completeFuzzy(String prefix,
+                int maxEdits, int k) {
+            return FuzzyCompletion.complete(trie, prefix, maxEdits, k);
+        }
+
+        /**
+         * Checks if a key is a word in this version
+         *
+         * @param key   key to search for
+         * @return      true if key exists, else false
+         */
+        public boolean contains(String key) {
+            return trie.contains(key);
+        }
+
+        /**
+         * Counts the words that match a given prefix
+         *
+         * @param prefix    prefix to search for
+         * @return          number of words starting with prefix
+         */
+        public int countCompletions(String prefix) {
+            return trie.countCompletions(prefix);
+        }
+
+        /**
+         * Retrieves the total frequency of the words that match a prefix
+         *
+         * @param prefix    prefix to search for
+         * @return          sum of the frequencies of words starting with
+         *                  prefix
+         */
+        public int getTotalFrequency(String prefix) {
+            return trie.getTotalFrequency(prefix);
+        }
+
+        /**
+         * Adds a reference unless the snapshot is already retired
+         *
+         * @return true if retained, false if retired
+         */
+        boolean retain() {
+            int count = references.get();
+
+            while (count > 0) {
+                if (references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+
+                count = references.get();
+            }
+
+            return false;
+        }
+
+        /**
+         * Drops a reference, retiring the snapshot if it was the last
+         */
+        public void release() {
+            if (references.decrementAndGet() == 0) {
+                retired.incrementAndGet();
+            }
+        }
+
+        /**
+         * Checks if every reference has been released
+         *
+         * @return true if retired, else false
+         */
+        public boolean isRetired() {
+            return references.get() == 0;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final DictionaryHolder holder = fromCSV("lotr.csv");
+        File grown = File.createTempFile("lotr-grown", ".csv");
+        grown.deleteOnExit();
+
+        // Writes a second corpus, the trilogy with one word more
+        PrintWriter writer = new PrintWriter(grown, "UTF-8");
+        writer.println(new String(java.nio.file.Files.readAllBytes(
+                new File("lotr.csv").toPath()), "UTF-8").trim() + ",zzyzx");
+        writer.close();
+
+        // Readers check each snapshot holds the new word only in the even
+        // versions, which come from the grown corpus
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong inconsistent = new AtomicLong();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] readers = new Thread[4];
+
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    CompletionResult result = new CompletionResult(3);
+
+                    while (running.get()) {
+                        Snapshot snapshot = holder.acquire();
+
+                        try {
+                            boolean grown = snapshot.version % 2 == 0;
+                            snapshot.complete("zzy", 3, result);
+
+                            if (snapshot.contains("zzyzx") != grown
+                                    || result.size() != (grown ? 1 : 0)
+                                    || snapshot.isRetired()) {
+                                inconsistent.incrementAndGet();
+                            }
+
+                            reads.incrementAndGet();
+                        } finally {
+                            snapshot.release();
+                        }
+                    }
+                }
+            });
+            readers[t].start();
+        }
+
+        // Holds version 1 across a swap, as a slow reader would
+        Snapshot slow = holder.acquire();
+
+        for (int i = 0; i < 6; i++) {
+            String file = i % 2 == 0 ? grown.getPath() : "lotr.csv";
+            holder.reload(file).get();
+        }
+
+        boolean slowIntact = !slow.isRetired() && slow.version == 1
+                && !slow.contains("zzyzx");
+        slow.release();
+
+        running.set(false);
+
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        holder.shutdown();
+
+        System.out.println("Current version: " + holder.currentVersion());
+        System.out.println("Reads: " + reads.get() + ", inconsistent: "
+                + inconsistent.get());
+        System.out.println("Slow reader kept version 1 across swaps? "
+                + slowIntact + ", retired once released? "
+                + slow.isRetired());
+        System.out.println("Versions retired: " + holder.retiredCount());
+    }
+}
@@ -11,14 +11,14 @@
  ******************************************************************************/
 package autocomplete;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Scanner;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -35,21 +35,18 @@ public class DictionaryMaker {
      * @param file address of file to read from
      * @return a list of words retrieved from the file
      *
-     * @throws java.io.FileNotFoundException if file does not exist
+     * @throws java.io.IOException if file cannot be read
      */
     public static ArrayList<String> readWordsFromCSV(String file)
-            throws FileNotFoundException {
-        Scanner sc = new Scanner(new File(file));
-        sc.useDelimiter("[ |,\r\n]+");
-        ArrayList<String> words = new ArrayList<>();
-        String str;
-
-        while (sc.hasNext()) {
-            str = sc.next();
-            str = str.trim();
-            str = str.toLowerCase();
-            words.add(str);
-        }
+            throws IOException {
+        final ArrayList<String> words = new ArrayList<>();
+
+        new CorpusTokenizer().tokenize(file, new TokenConsumer() {
+            @Override
+            public void accept(char[] token, int length) {
+                words.add(new String(token, 0, length));
+            }
+        });
 
         return words;
     }
@@ -79,18 +76,32 @@ public class DictionaryMaker {
      * @param words list of words to form dictionary from
      * @return      hash table of words and their frequency
      */
-    public static TreeMap formDictionary(ArrayList<String> words) {
-        TreeMap<String, Integer> dictionary = new TreeMap();
+    public static TreeMap<String, Integer> formDictionary(
+            ArrayList<String> words) {
+        WordCounter counter = new WordCounter();
         
         for (String w : words) {
-            if (dictionary.containsKey(w)) {
-                dictionary.put(w, dictionary.get(w) + 1);
-            } else {
-                dictionary.put(w, 1);
-            }
+            counter.increment(w, 1);
         }
         
-        return dictionary;
+        return counter.toDictionary();
+    }
+
+    /**
+     * Forms a dictionary (sorted alphabetically) straight from the words of a 
+     * comma separated text document, without holding the document's words
+     *
+     * @param file address of file to read from
+     * @return      hash table of words and their frequency
+     * @throws java.io.IOException if file cannot be read
+     */
+    public static TreeMap<String, Integer> formDictionaryFromCSV(
+            String file) throws IOException {
+        WordCounter counter = new WordCounter();
+
+        new CorpusTokenizer().tokenize(file, counter);
+
+        return counter.toDictionary();
     }
 
     /**
@@ -99,9 +110,20 @@ public class DictionaryMaker {
      * @param dictionary    dictionary to save to file
      * @throws java.io.IOException if failed to write to file
      */
-    public static void saveToFile(TreeMap dictionary) throws IOException {
-        String file = "dictionaryOuput.txt";
-        
+    public static void saveToFile(TreeMap<String, Integer> dictionary)
+            throws IOException {
+        saveToFile(dictionary, "dictionaryOuput.txt");
+    }
+
+    /**
+     * Saves the dictionary to a given file
+     *
+     * @param dictionary    dictionary to save to file
+     * @param file          location where to write to
+     * @throws java.io.IOException if failed to write to file
+     */
+    public static void saveToFile(TreeMap<String, Integer> dictionary,
+            String file) throws IOException {
         FileWriter fileWriter = new FileWriter(file);
         PrintWriter printWriter = new PrintWriter(fileWriter);
 
@@ -117,10 +139,34 @@ public class DictionaryMaker {
 
     }
 
+    /**
+     * Saves words streamed in alphabetical order to a given file, in the
+     * same format as a saved dictionary, without holding them all
+     *
+     * @param words     words and their frequencies
+     * @param file      location where to write to
+     * @throws java.io.IOException if failed to write to file
+     */
+    public static void saveToFile(Iterator<Map.Entry<String, Integer>> words,
+            String file) throws IOException {
+        PrintWriter printWriter = new PrintWriter(new BufferedWriter(
+                new FileWriter(file)));
+
+        while (words.hasNext()) {
+            Map.Entry<String, Integer> pair = words.next();
+            printWriter.println(pair.getKey() + ", " + pair.getValue());
+        }
+
+        printWriter.close();
+
+        if (printWriter.checkError()) {
+            throw new IOException("Failed to write " + file);
+        }
+    }
+
     public static void main(String[] args) throws Exception {
-        ArrayList<String> in = readWordsFromCSV("testDocument.txt");
-        
-        TreeMap dictionary = DictionaryMaker.formDictionary(in);
+        TreeMap<String, Integer> dictionary
+                = formDictionaryFromCSV("testDocument.txt");
         
         DictionaryMaker.saveToFile(dictionary);
     }
@@ -0,0 +1,798 @@
+/** ***************************************************************************
+ *
+ * File        : ExternalDictionaryBuilder.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that forms a dictionary of any size within a fixed
+ *               amount of memory, by spilling sorted runs to disk and
+ *               merging them.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Counts words in a WordCounter until its tables reach a share of a memory
+ * cap, then writes them out in alphabetical order as a run and starts a new
+ * counter. Once every document is counted the runs are merged, a bounded
+ * number at a time, into one alphabetical stream of words and counts that
+ * can be saved in the format of DictionaryMaker.saveToFile or bulk loaded
+ * into a trie.
+ *
+ * A run is a file of records, each a word and its count in variable-length
+ * integers: the number of characters shared with the word before, the
+ * number that follow, those characters and the count. Sorted words share
+ * long prefixes, so most records are a few bytes.
+ *
+ * A quarter of the cap goes to counting, leaving room for the counter's
+ * tables to double and be sorted, and half to merging, which reads each run
+ * through a fixed buffer. The memory used is bounded by the cap whatever
+ * the size of the documents, though a trie loaded from the stream still
+ * holds every distinct word.
+ *
+ * @author Ali Jarjis
+ */
+public class ExternalDictionaryBuilder implements TokenConsumer, Closeable {
+
+    /**
+     * Smallest memory cap allowed
+     */
+    public static final long MIN_MEMORY_CAP = 256 * 1024;
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_FAN_IN = 1024;
+
+    private final long memoryCap;
+    private final long runBudget;
+    private final int fanIn;
+    private final File directory;
+    private final ArrayList<File> runs;
+    private final CorpusTokenizer tokenizer;
+    private WordCounter counter;
+    private char[] word;
+    private Merger merger;
+    private int runsWritten;
+    private int mergePasses;
+    private long peakBytes;
+
+    /**
+     * Constructs a builder spilling runs to the temporary directory
+     *
+     * @param memoryCap most bytes to hold in counts and buffers
+     */
+    public ExternalDictionaryBuilder(long memoryCap) {
+        this(memoryCap, new File(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Constructs a builder spilling runs to a given directory
+     *
+     * @param memoryCap most bytes to hold in counts and buffers
+     * @param directory directory to write runs to
+     */
+    public ExternalDictionaryBuilder(long memoryCap, File directory) {
+        if (memoryCap < MIN_MEMORY_CAP) {
+            throw new IllegalArgumentException("Memory cap must be at least "
+                    + MIN_MEMORY_CAP + " bytes");
+        }
+
+        this.memoryCap = memoryCap;
+        this.runBudget = memoryCap / 4;
+        this.fanIn = (int) Math.min(MAX_FAN_IN,
+                Math.max(2, memoryCap / 2 / BUFFER_SIZE - 1));
+        this.directory = directory;
+        this.runs = new ArrayList<>();
+        this.tokenizer = new CorpusTokenizer();
+        this.counter = new WordCounter();
+        this.word = new char[64];
+        this.runsWritten = 0;
+        this.mergePasses = 0;
+        this.peakBytes = counter.sizeInBytes();
+    }
+
+    /**
+     * Counts the words of a comma separated text document
+     *
+     * @param file  address of file to read from
+     * @throws IOException if file cannot be read or a run cannot be written
+     */
+    public void addFile(String file) throws IOException {
+        try {
+            tokenizer.tokenize(file, this);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Counts one occurrence of a token, spilling a run if the counter has
+     * outgrown its share of the cap
+     *
+     * @param token     buffer holding the token's characters
+     * @param length    number of characters in the token
+     */
+    @Override
+    public void accept(char[] token, int length) {
+        if (counter == null) {
+            throw new IllegalStateException("Words already merged");
+        }
+
+        counter.accept(token, length);
+        long bytes = counter.sizeInBytes();
+
+        if (bytes > runBudget) {
+            peakBytes = Math.max(peakBytes, bytes);
+
+            try {
+                spill();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Merges every run into one stream of words in alphabetical order, each
+     * with its total count. Words can no longer be counted afterwards.
+     *
+     * @return words and their counts, in alphabetical order
+     * @throws IOException if a run cannot be read or written
+     */
+    public Iterator<Map.Entry<String, Integer>> sortedWords()
+            throws IOException {
+        if (counter != null) {
+            peakBytes = Math.max(peakBytes, counter.sizeInBytes());
+
+            if (counter.size() > 0) {
+                spill();
+            }
+
+            counter = null;
+        }
+
+        // Merges the oldest runs into one until few enough remain to merge
+        // in a single pass
+        while (runs.size() > fanIn) {
+            List<File> inputs = new ArrayList<>(runs.subList(0, fanIn));
+            File output = newRunFile();
+            Merger pass = new Merger(inputs);
+            RunWriter writer = new RunWriter(output);
+
+            try {
+                while (pass.next()) {
+                    writer.write(pass.word, pass.length, pass.count);
+                }
+            } finally {
+                pass.close();
+                writer.close();
+            }
+
+            runs.subList(0, fanIn).clear();
+            runs.add(output);
+            mergePasses++;
+
+            for (File input : inputs) {
+                Files.delete(input.toPath());
+            }
+        }
+
+        if (merger != null) {
+            merger.close();
+        }
+
+        merger = new Merger(runs);
+        mergePasses++;
+
+        return new Iterator<Map.Entry<String, Integer>>() {
+            private final Merger words = merger;
+            private boolean ready = false;
+            private boolean more = true;
+
+            @Override
+            public boolean hasNext() {
+                if (!ready && more) {
+                    try {
+                        more = words.next();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+
+                    ready = true;
+                }
+
+                return more;
+            }
+
+            @Override
+            public Map.Entry<String, Integer> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                ready = false;
+
+                return new AbstractMap.SimpleImmutableEntry<>(
+                        new String(words.word, 0, words.length), words.count);
+            }
+        };
+    }
+
+    /**
+     * Merges every run and saves the words to a file, in the format of
+     * DictionaryMaker.saveToFile
+     *
+     * @param file  location where to write to
+     * @throws IOException if a run cannot be read or the file written
+     */
+    public void saveToFile(String file) throws IOException {
+        try {
+            DictionaryMaker.saveToFile(sortedWords(), file);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Merges every run and bulk loads the words into a trie
+     *
+     * @return trie of every word counted
+     * @throws IOException if a run cannot be read or written
+     */
+    public AutoCompletionTrie buildTrie() throws IOException {
+        try {
+            return AutoCompletionTrie.fromSorted(sortedWords());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Retrieves the number of runs written, counting those written by
+     * merging
+     *
+     * @return number of runs written
+     */
+    public int runCount() {
+        return runsWritten;
+    }
+
+    /**
+     * Retrieves the number of merges run, the last being the one streamed
+     *
+     * @return number of merges
+     */
+    public int mergePasses() {
+        return mergePasses;
+    }
+
+    /**
+     * Estimates the most bytes held at once by the counter and the merge
+     * buffers
+     *
+     * @return peak bytes held
+     */
+    public long peakBytes() {
+        return Math.max(peakBytes, (long) (fanIn + 1) * BUFFER_SIZE);
+    }
+
+    /**
+     * Retrieves the memory cap
+     *
+     * @return most bytes to hold in counts and buffers
+     */
+    public long getMemoryCap() {
+        return memoryCap;
+    }
+
+    /**
+     * Closes any open merge and deletes every run
+     *
+     * @throws IOException if a run cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (merger != null) {
+            merger.close();
+            merger = null;
+        }
+
+        for (File run : runs) {
+            Files.deleteIfExists(run.toPath());
+        }
+
+        runs.clear();
+        counter = null;
+    }
+
+    /**
+     * Writes the counted words as a run in alphabetical order and starts
+     * counting afresh
+     *
+     * @throws IOException if the run cannot be written
+     */
+    private void spill() throws IOException {
+        File run = newRunFile();
+        RunWriter writer = new RunWriter(run);
+
+        try {
+            for (Integer id : counter.sortedIds()) {
+                word = counter.copyWord(id, word);
+                writer.write(word, counter.wordLength(id), counter.count(id));
+            }
+        } finally {
+            writer.close();
+        }
+
+        runs.add(run);
+        counter = new WordCounter();
+    }
+
+    /**
+     * Creates an empty file for a run
+     *
+     * @return the new file
+     * @throws IOException if the file cannot be created
+     */
+    private File newRunFile() throws IOException {
+        File run = File.createTempFile("dictionary-run-", ".bin", directory);
+        run.deleteOnExit();
+        runsWritten++;
+
+        return run;
+    }
+
+    /**
+     * Writes a variable-length integer, seven bits to a byte
+     *
+     * @param out   stream to write to
+     * @param value value to write, not negative
+     * @throws IOException if the stream fails
+     */
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        out.write(value);
+    }
+
+    /**
+     * Reads a variable-length integer
+     *
+     * @param in    stream to read from
+     * @param first first byte, already read
+     * @return      value read
+     * @throws IOException if the stream fails or ends part way
+     */
+    static int readVarint(InputStream in, int first) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b = first;
+
+        while (true) {
+            if (b == -1) {
+                throw new EOFException("Run ends part way through a record");
+            }
+
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+
+            shift += 7;
+            b = in.read();
+        }
+    }
+
+    /**
+     * Compares two words the way String.compareTo does
+     */
+    private static int compareWords(char[] a, int aLength, char[] b,
+            int bLength) {
+        int length = Math.min(aLength, bLength);
+
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return a[i] - b[i];
+            }
+        }
+
+        return aLength - bLength;
+    }
+
+    /**
+     * Writes a run of words in alphabetical order, each sharing its prefix
+     * with the word before
+     */
+    private static class RunWriter {
+        private final OutputStream out;
+        private char[] previous;
+        private int previousLength;
+
+        RunWriter(File file) throws IOException {
+            this.out = new BufferedOutputStream(new FileOutputStream(file),
+                    BUFFER_SIZE);
+            this.previous = new char[64];
+            this.previousLength = 0;
+        }
+
+        /**
+         * Writes a word after every word already written
+         *
+         * @param word      buffer holding the word's characters
+         * @param length    number of characters in the word
+         * @param count     number of times the word was counted
+         * @throws IOException if the file cannot be written
+         */
+        void write(char[] word, int length, int count) throws IOException {
+            int shared = 0;
+            int limit = Math.min(length, previousLength);
+
+            while (shared < limit && word[shared] == previous[shared]) {
+                shared++;
+            }
+
+            writeVarint(out, shared);
+            writeVarint(out, length - shared);
+
+            for (int i = shared; i < length; i++) {
+                writeVarint(out, word[i]);
+            }
+
+            writeVarint(out, count);
+
+            if (previous.length < length) {
+                previous = Arrays.copyOf(previous,
+                        Math.max(length, previous.length * 2));
+            }
+
+            System.arraycopy(word, shared, previous, shared, length - shared);
+            previousLength = length;
+        }
+
+        void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a run a record at a time, holding the current word
+     */
+    private static class RunReader {
+        private final InputStream in;
+        char[] word;
+        int length;
+        int count;
+
+        RunReader(File file) throws IOException {
+            this.in = new BufferedInputStream(new FileInputStream(file),
+                    BUFFER_SIZE);
+            this.word = new char[64];
+            this.length = 0;
+            this.count = 0;
+        }
+
+        /**
+         * Moves on to the next word of the run
+         *
+         * @return true if there was another word, false at the end
+         * @throws IOException if the file cannot be read
+         */
+        boolean next() throws IOException {
+            int first = in.read();
+
+            if (first == -1) {
+                return false;
+            }
+
+            int shared = readVarint(in, first);
+            int suffix = readVarint(in, in.read());
+
+            if (shared > length) {
+                throw new IOException("Run shares more than its last word");
+            }
+
+            if (word.length < shared + suffix) {
+                word = Arrays.copyOf(word,
+                        Math.max(shared + suffix, word.length * 2));
+            }
+
+            for (int i = shared; i < shared + suffix; i++) {
+                word[i] = (char) readVarint(in, in.read());
+            }
+
+            length = shared + suffix;
+            count = readVarint(in, in.read());
+
+            return true;
+        }
+
+        void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Merges runs by always taking the alphabetically first current word,
+     * adding up the counts of a word found in more than one run
+     */
+    private static class Merger {
+        private final PriorityQueue<RunReader> queue;
+        char[] word;
+        int length;
+        int count;
+
+        Merger(List<File> files) throws IOException {
+            this.queue = new PriorityQueue<>(Math.max(1, files.size()),
+                    new Comparator<RunReader>() {
+                @Override
+                public int compare(RunReader a, RunReader b) {
+                    return compareWords(a.word, a.length, b.word, b.length);
+                }
+            });
+            this.word = new char[64];
+
+            try {
+                for (File file : files) {
+                    advance(new RunReader(file));
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Moves on to the next word of the merged runs
+         *
+         * @return true if there was another word, false at the end
+         * @throws IOException if a run cannot be read
+         */
+        boolean next() throws IOException {
+            if (queue.isEmpty()) {
+                return false;
+            }
+
+            RunReader first = queue.poll();
+
+            if (word.length < first.length) {
+                word = new char[Math.max(first.length, word.length * 2)];
+            }
+
+            System.arraycopy(first.word, 0, word, 0, first.length);
+            length = first.length;
+            count = first.count;
+            advance(first);
+
+            // Each run holds a word once, so the rest of its count is at the
+            // front of other runs
+            while (!queue.isEmpty() && compareWords(queue.peek().word,
+                    queue.peek().length, word, length) == 0) {
+                RunReader same = queue.poll();
+                count += same.count;
+                advance(same);
+            }
+
+            return true;
+        }
+
+        /**
+         * Puts a reader back in the queue if it has another word, else
+         * closes it
+         */
+        private void advance(RunReader reader) throws IOException {
+            if (reader.next()) {
+                queue.add(reader);
+            } else {
+                reader.close();
+            }
+        }
+
+        void close() throws IOException {
+            while (!queue.isEmpty()) {
+                queue.poll().close();
+            }
+        }
+    }
+
+    /**
+     * Writes the trilogy followed by words drawn from a made up vocabulary,
+     * the r-th most common drawn about 1/r of the time
+     *
+     * @param to            file to write to
+     * @param tokens        number of words to draw
+     * @param vocabulary    number of words to draw from
+     * @throws IOException if a file cannot be read or written
+     */
+    private static void writeCorpus(File to, int tokens, int vocabulary)
+            throws IOException {
+        java.util.Random random = new java.util.Random(42);
+        PrintWriter writer = new PrintWriter(to, "UTF-8");
+
+        writer.println(new String(Files.readAllBytes(
+                new File("lotr.csv").toPath()), "UTF-8").trim());
+
+        for (int i = 0; i < tokens; i++) {
+            int rank = (int) Math.pow(vocabulary + 1, random.nextDouble()) - 1;
+
+            // Scrambles the rank so common words are spread through the
+            // alphabet
+            writer.print(Integer.toString((rank * 40503 + 12345) & 0xFFFFFF,
+                    26).replace('0', 'q'));
+            writer.print(i % 20 == 19 ? '\n' : ',');
+        }
+
+        writer.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String file = args.length > 0 ? args[0] : null;
+        long memoryCap = args.length > 1 ? Long.parseLong(args[1])
+                : MIN_MEMORY_CAP;
+
+        // With an output file, only builds and saves, so it can be run with
+        // a heap smaller than the corpus's dictionary
+        if (args.length > 2) {
+            long start = System.nanoTime();
+            ExternalDictionaryBuilder builder
+                    = new ExternalDictionaryBuilder(memoryCap);
+
+            try {
+                builder.addFile(file);
+                builder.saveToFile(args[2]);
+            } finally {
+                builder.close();
+            }
+
+            System.out.printf("Saved %s to %s in %.2f s: %d runs, %d merges, "
+                    + "peak %d KB of a %d KB cap%n", file, args[2],
+                    (System.nanoTime() - start) / 1e9, builder.runCount(),
+                    builder.mergePasses(), builder.peakBytes() / 1024,
+                    memoryCap / 1024);
+            return;
+        }
+
+        // Builds a corpus far larger than the trilogy, whose dictionary
+        // spills many runs under the smallest cap and needs several merges
+        if (file == null) {
+            File corpus = File.createTempFile("corpus", ".csv");
+            corpus.deleteOnExit();
+            writeCorpus(corpus, 2000000, 400000);
+            file = corpus.getPath();
+        }
+
+        // Builds the dictionary both ways
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionaryFromCSV(file);
+        ExternalDictionaryBuilder builder
+                = new ExternalDictionaryBuilder(memoryCap);
+        TreeMap<String, Integer> merged = new TreeMap<>();
+
+        try {
+            builder.addFile(file);
+            Iterator<Map.Entry<String, Integer>> words = builder.sortedWords();
+
+            while (words.hasNext()) {
+                Map.Entry<String, Integer> pair = words.next();
+                merged.put(pair.getKey(), pair.getValue());
+            }
+        } finally {
+            builder.close();
+        }
+
+        System.out.println("Runs written: " + builder.runCount()
+                + ", merges: " + builder.mergePasses() + ", peak "
+                + builder.peakBytes() / 1024 + " KB of a "
+                + memoryCap / 1024 + " KB cap");
+        System.out.println("Same dictionary as in memory? "
+                + merged.equals(dictionary));
+
+        // Saves through the merge, checking the file is the same byte for
+        // byte as one saved from the TreeMap
+        File expected = File.createTempFile("dictionary", ".txt");
+        File streamed = File.createTempFile("dictionary", ".txt");
+        expected.deleteOnExit();
+        streamed.deleteOnExit();
+        DictionaryMaker.saveToFile(dictionary, expected.getPath());
+        builder = new ExternalDictionaryBuilder(memoryCap);
+
+        try {
+            builder.addFile(file);
+            builder.saveToFile(streamed.getPath());
+        } finally {
+            builder.close();
+        }
+
+        System.out.println("Same saved file? " + Arrays.equals(
+                Files.readAllBytes(expected.toPath()),
+                Files.readAllBytes(streamed.toPath())));
+
+        // Bulk loads a trie from the merge, checking it against one added a
+        // word at a time
+        builder = new ExternalDictionaryBuilder(memoryCap);
+        AutoCompletionTrie bulk;
+
+        try {
+            builder.addFile(file);
+            bulk = builder.buildTrie();
+        } finally {
+            builder.close();
+        }
+
+        AutoCompletionTrie added = AutoCompletion.addDictionary(dictionary);
+        boolean same = bulk.nodeCount() == added.nodeCount();
+
+        for (String prefix : DictionaryMaker.readWordsFromCSV(
+                "lotrQueries.csv")) {
+            same &= bulk.countCompletions(prefix)
+                    == added.countCompletions(prefix)
+                    && bulk.getTotalFrequency(prefix)
+                    == added.getTotalFrequency(prefix)
+                    && AutoCompletion.getTopKWords(prefix, 3, bulk).equals(
+                            AutoCompletion.getTopKWords(prefix, 3, added));
+        }
+
+        System.out.println("Bulk loaded trie same as added? " + same);
+
+        // Times loading a trie from sorted words against adding them
+        int rounds = 5;
+        long bulkTime = 0;
+        long addTime = 0;
+
+        for (int r = 0; r < rounds * 2; r++) {
+            long start = System.nanoTime();
+            AutoCompletionTrie.fromSorted(dictionary.entrySet().iterator());
+            long middle = System.nanoTime();
+            AutoCompletion.addDictionary(dictionary);
+            long end = System.nanoTime();
+
+            if (r >= rounds) {
+                bulkTime += middle - start;
+                addTime += end - middle;
+            }
+        }
+
+        System.out.printf("Bulk load: %.2f ms, adding: %.2f ms%n",
+                bulkTime / 1e6 / rounds, addTime / 1e6 / rounds);
+
+        // Checks words out of order are refused
+        TreeMap<String, Integer> reversed = new TreeMap<>(
+                java.util.Collections.reverseOrder());
+        reversed.putAll(dictionary);
+
+        try {
+            AutoCompletionTrie.fromSorted(reversed.entrySet().iterator());
+            System.out.println("Words out of order refused? false");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Words out of order refused? true");
+        }
+    }
+}
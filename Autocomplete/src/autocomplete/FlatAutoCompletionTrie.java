@@ -0,0 +1,407 @@
+/** ***************************************************************************
+ *
+ * File        : FlatAutoCompletionTrie.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class to model a trie data structure stored in flattened
+ *               primitive arrays.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An auto completion trie with the same interface as AutoCompletionTrie,
+ * whose nodes are held in a FlatTrieStore instead of one object per node.
+ *
+ * @author Ali Jarjis
+ */
+public class FlatAutoCompletionTrie {
+
+    FlatTrieStore store;
+    int root;
+
+    /**
+     * Constructs an empty trie
+     */
+    public FlatAutoCompletionTrie() {
+        this.store = new FlatTrieStore();
+        this.root = 0;
+    }
+
+    /**
+     * Constructs a trie rooted at a given node of an existing store, without
+     * altering the store
+     *
+     * @param store store holding the nodes
+     * @param root  index of node to set as root
+     */
+    FlatAutoCompletionTrie(FlatTrieStore store, int root) {
+        this.store = store;
+        this.root = root;
+    }
+
+    /**
+     * Adds a dictionary of words with their frequency to a trie
+     *
+     * @param dictionary dictionary to add
+     * @return trie formed from words in dictionary
+     */
+    public static FlatAutoCompletionTrie addDictionary(TreeMap<String,
+            Integer> dictionary) {
+        FlatAutoCompletionTrie dictionaryTrie = new FlatAutoCompletionTrie();
+
+        Set<String> keys = dictionary.keySet();
+
+        // Adds each element in dictionary to trie
+        for (String k : keys) {
+            dictionaryTrie.add(k, dictionary.get(k));
+        }
+
+        return dictionaryTrie;
+    }
+
+    /**
+     * Adds a key to the trie
+     *
+     * @param key           key to add to trie
+     * @param frequency     amount of times to add this key to trie
+     * @return              true if successful, else false
+     */
+    public boolean add(String key, int frequency) {
+        boolean success = false;
+        int currentNode = this.root;
+        int[] path = new int[key.length() + 1];
+        path[0] = currentNode;
+
+        //Loops through each char in key adding to Trie if it doesn't exist
+        for (int i = 0; i < key.length(); i++) {
+            int nextNode = store.setOffspring(currentNode, key.charAt(i));
+
+            // Adds char to Trie if it doesn't exist
+            if (nextNode > 0) {
+                success = true;
+            }
+
+            currentNode = Math.abs(nextNode);
+            path[i + 1] = currentNode;
+        }
+
+        int change = store.isWord(currentNode)
+                ? frequency - store.frequency[currentNode] : frequency;
+
+        store.setWord(currentNode);
+        store.frequency[currentNode] = frequency;
+
+        // Updates subtree aggregates of every node on the key's path, deepest
+        // first, as each maximum relies on its offspring's maximum
+        for (int i = key.length(); i >= 0; i--) {
+            store.subtreeFrequency[path[i]] += change;
+            store.refreshMaxFrequency(path[i]);
+        }
+
+        return success;
+    }
+
+    /**
+     * Checks if key exists in trie
+     *
+     * @param key key to search for
+     * @return true if key exists, else false
+     */
+    public boolean contains(String key) {
+        int currentNode = walk(key);
+
+        // Returns true if key is a whole word in Trie
+        return currentNode != -1 && store.isWord(currentNode);
+    }
+
+    /**
+     * Retrieves a new trie rooted at a given prefix
+     *
+     * @param prefix prefix to root trie at
+     * @return sub-trie rooted at given prefix if exists, else null
+     */
+    public FlatAutoCompletionTrie getSubTrie(String prefix) {
+        int currentNode = walk(prefix);
+
+        // Return null if prefix does not exist in trie
+        if (currentNode == -1) {
+            return null;
+        }
+
+        return new FlatAutoCompletionTrie(store, currentNode);
+    }
+
+    /**
+     * Retrieves the k most frequent words that match a given prefix, using a
+     * best-first search bounded by each subtree's highest frequency
+     *
+     * @param prefix    prefix to search for
+     * @param k         maximum number of words to retrieve
+     * @return          words mapped to their frequency, ordered by frequency
+     *                  (decreasing) and then alphabetically
+     */
+    public LinkedHashMap<String, Integer> getTopKWords(String prefix, int k) {
+        int node = walk(prefix);
+
+        if (node == -1) {
+            return new LinkedHashMap<>();
+        }
+
+        LinkedHashMap<String, Integer> topWords = new LinkedHashMap<>();
+        NodeQueue queue = new NodeQueue();
+
+        if (store.maxFrequency[node] > 0) {
+            queue.add(node, prefix.toLowerCase(), store.maxFrequency[node],
+                    false);
+        }
+
+        // Entries leave the queue in rank order, so the search stops as soon
+        // as k words have left it, no unexplored branch can beat them
+        while (queue.size > 0 && topWords.size() < k) {
+            int current = queue.node[0];
+            String word = queue.word[0];
+            int priority = queue.priority[0];
+            boolean isWord = queue.isWord[0];
+
+            queue.remove();
+
+            if (isWord) {
+                topWords.put(word, priority);
+                continue;
+            }
+
+            if (store.isWord(current)) {
+                queue.add(current, word, store.frequency[current], true);
+            }
+
+            // Add all offspring of current node bounded by their maximum
+            for (int child = store.firstChild[current]; child != 0;
+                    child = store.nextSibling[child]) {
+                if (store.maxFrequency[child] > 0) {
+                    queue.add(child, word + store.label[child],
+                            store.maxFrequency[child], false);
+                }
+            }
+        }
+
+        return topWords;
+    }
+
+    /**
+     * Retrieves the total frequency of all words in the trie
+     *
+     * @return sum of the frequencies of every word under the root
+     */
+    public int getTotalFrequency() {
+        return store.subtreeFrequency[root];
+    }
+
+    /**
+     * Retrieves the number of nodes in the underlying store
+     *
+     * @return number of nodes in use
+     */
+    public int nodeCount() {
+        return store.size;
+    }
+
+    /**
+     * Follows a key down from the root
+     *
+     * @param key key to follow
+     * @return index of the node the key ends on, or -1 if it leaves the trie
+     */
+    private int walk(String key) {
+        int currentNode = this.root;
+
+        // Loops through each char in key checking if it exists in the Trie
+        for (int i = 0; i < key.length(); i++) {
+            currentNode = store.getOffspring(currentNode, key.charAt(i));
+
+            if (currentNode == 0) {
+                return -1;
+            }
+        }
+
+        return currentNode;
+    }
+
+    /**
+     * A binary heap of nodes and words waiting to be explored by the
+     * best-first search, held in parallel arrays so node indices are never
+     * boxed. Entries are ordered by priority (decreasing), then
+     * alphabetically, with a word ahead of the node it ends on.
+     */
+    private static final class NodeQueue {
+        int[] node = new int[16];
+        String[] word = new String[16];
+        int[] priority = new int[16];
+        boolean[] isWord = new boolean[16];
+        int size;
+
+        /**
+         * Adds an entry to the queue, growing it if full
+         *
+         * @param n         index of node
+         * @param w         word formed by the path to the node
+         * @param p         highest frequency the entry can lead to
+         * @param finished  whether the entry is a finished word
+         */
+        void add(int n, String w, int p, boolean finished) {
+            if (size == node.length) {
+                node = Arrays.copyOf(node, size * 2);
+                word = Arrays.copyOf(word, size * 2);
+                priority = Arrays.copyOf(priority, size * 2);
+                isWord = Arrays.copyOf(isWord, size * 2);
+            }
+
+            int i = size++;
+
+            while (i > 0 && ranksBefore(p, w, finished, (i - 1) / 2)) {
+                move((i - 1) / 2, i);
+                i = (i - 1) / 2;
+            }
+
+            set(i, n, w, p, finished);
+        }
+
+        /**
+         * Removes the first entry, restoring heap order
+         */
+        void remove() {
+            size--;
+
+            int n = node[size];
+            String w = word[size];
+            int p = priority[size];
+            boolean finished = isWord[size];
+            int i = 0;
+
+            word[size] = null;
+
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+
+                if (child + 1 < size && ranksBefore(priority[child + 1],
+                        word[child + 1], isWord[child + 1], child)) {
+                    child++;
+                }
+
+                if (!ranksBefore(priority[child], word[child], isWord[child],
+                        p, w, finished)) {
+                    break;
+                }
+
+                move(child, i);
+                i = child;
+            }
+
+            if (size > 0) {
+                set(i, n, w, p, finished);
+            }
+        }
+
+        private boolean ranksBefore(int p, String w, boolean finished,
+                int i) {
+            return ranksBefore(p, w, finished, priority[i], word[i],
+                    isWord[i]);
+        }
+
+        private static boolean ranksBefore(int p, String w, boolean finished,
+                int otherP, String otherW, boolean otherFinished) {
+            if (p != otherP) {
+                return p > otherP;
+            }
+
+            int order = w.compareTo(otherW);
+
+            if (order != 0) {
+                return order < 0;
+            }
+
+            return finished && !otherFinished;
+        }
+
+        private void move(int from, int to) {
+            set(to, node[from], word[from], priority[from], isWord[from]);
+        }
+
+        private void set(int i, int n, String w, int p, boolean finished) {
+            node[i] = n;
+            word[i] = w;
+            priority[i] = p;
+            isWord[i] = finished;
+        }
+    }
+
+    /**
+     * Measures the heap currently in use, after requesting a collection
+     *
+     * @return bytes of heap in use
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws IOException {
+        ArrayList<String> lotr = readWordsFromCSV("lotr.csv");
+        ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionary(lotr);
+
+        // Measures the heap taken by each layout of the same dictionary
+        long before = usedHeap();
+        AutoCompletionTrie objectTrie = new AutoCompletionTrie();
+
+        // Adds words without the completion cache, which the flat layout
+        // does not have, so only the nodes themselves are compared
+        for (String k : dictionary.keySet()) {
+            objectTrie.add(k, dictionary.get(k));
+        }
+
+        long objectBytes = usedHeap() - before;
+
+        before = usedHeap();
+        FlatAutoCompletionTrie flatTrie = addDictionary(dictionary);
+        long flatBytes = usedHeap() - before;
+
+        int nodes = objectTrie.nodeCount();
+
+        System.out.println("Nodes: " + nodes);
+        System.out.printf("Bytes per node (objects): %.1f%n",
+                (double) objectBytes / nodes);
+        System.out.printf("Bytes per node (flat, measured): %.1f%n",
+                (double) flatBytes / flatTrie.nodeCount());
+        System.out.printf("Bytes per node (flat, reserved): %.1f%n",
+                flatTrie.store.bytesPerNode());
+
+        // Tests that both layouts give the same answers
+        boolean same = true;
+
+        for (String q : lotrQueries) {
+            same &= objectTrie.getTopKWords(q, 3)
+                    .equals(flatTrie.getTopKWords(q, 3));
+            same &= objectTrie.contains(q) == flatTrie.contains(q);
+        }
+
+        System.out.println("\nSame answers for queries? " + same);
+    }
+}
@@ -0,0 +1,181 @@
+/** ***************************************************************************
+ *
+ * File        : FlatTrieStore.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class to store trie nodes in parallel primitive arrays.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.util.Arrays;
+
+/**
+ * Stores every node of a trie in parallel primitive arrays addressed by node
+ * index, rather than as one object per node. Node 0 is always the root, so
+ * an index of 0 in a child or sibling link means no such node.
+ *
+ * @author Ali Jarjis
+ */
+class FlatTrieStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    char[] label;
+    int[] firstChild;
+    int[] nextSibling;
+    int[] frequency;
+    int[] subtreeFrequency;
+    int[] maxFrequency;
+    long[] isWord;
+    int size;
+
+    /**
+     * Constructs a store holding only a root node
+     */
+    FlatTrieStore() {
+        this.label = new char[INITIAL_CAPACITY];
+        this.firstChild = new int[INITIAL_CAPACITY];
+        this.nextSibling = new int[INITIAL_CAPACITY];
+        this.frequency = new int[INITIAL_CAPACITY];
+        this.subtreeFrequency = new int[INITIAL_CAPACITY];
+        this.maxFrequency = new int[INITIAL_CAPACITY];
+        this.isWord = new long[INITIAL_CAPACITY / 64];
+        this.size = 1;
+    }
+
+    /**
+     * Recovers an offspring if present
+     *
+     * @param node  index of parent node
+     * @param c     value of offspring to retrieve
+     * @return      index of the offspring node if exists, else 0
+     */
+    int getOffspring(int node, char c) {
+        c = Character.toLowerCase(c);   // Ensures trie remains lowercase
+
+        // Siblings are kept in alphabetical order, so stop once passed
+        for (int child = firstChild[node]; child != 0;
+                child = nextSibling[child]) {
+            if (label[child] == c) {
+                return child;
+            } else if (label[child] > c) {
+                return 0;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Creates a new child node for a given value, keeping siblings in
+     * alphabetical order
+     *
+     * @param node  index of parent node
+     * @param c     value to add as offspring
+     * @return      index of the new offspring, or negated index of the
+     *              offspring if it already existed
+     */
+    int setOffspring(int node, char c) {
+        c = Character.toLowerCase(c);   // Ensures trie remains lowercase
+
+        int previous = 0;
+        int child = firstChild[node];
+
+        // Finds the first sibling not before the new value
+        while (child != 0 && label[child] < c) {
+            previous = child;
+            child = nextSibling[child];
+        }
+
+        if (child != 0 && label[child] == c) {
+            return -child;
+        }
+
+        int created = allocate(c);
+        nextSibling[created] = child;
+
+        if (previous == 0) {
+            firstChild[node] = created;
+        } else {
+            nextSibling[previous] = created;
+        }
+
+        return created;
+    }
+
+    /**
+     * Checks whether a node ends a word
+     *
+     * @param node index of node
+     * @return true if node ends a word, else false
+     */
+    boolean isWord(int node) {
+        return (isWord[node >>> 6] & (1L << node)) != 0;
+    }
+
+    /**
+     * Marks a node as ending a word
+     *
+     * @param node index of node
+     */
+    void setWord(int node) {
+        isWord[node >>> 6] |= 1L << node;
+    }
+
+    /**
+     * Recomputes the highest frequency of any word under a node
+     *
+     * @param node index of node to refresh
+     */
+    void refreshMaxFrequency(int node) {
+        int max = isWord(node) ? frequency[node] : 0;
+
+        for (int child = firstChild[node]; child != 0;
+                child = nextSibling[child]) {
+            max = Math.max(max, maxFrequency[child]);
+        }
+
+        maxFrequency[node] = max;
+    }
+
+    /**
+     * Calculates the number of bytes reserved per node by the arrays
+     *
+     * @return bytes reserved for each node currently in use
+     */
+    double bytesPerNode() {
+        long bytes = (long) label.length * Character.BYTES
+                + (long) firstChild.length * Integer.BYTES * 5
+                + (long) isWord.length * Long.BYTES;
+
+        return (double) bytes / size;
+    }
+
+    /**
+     * Allocates a new node, growing the arrays if full
+     *
+     * @param c value of the new node
+     * @return index of the new node
+     */
+    private int allocate(char c) {
+        if (size == label.length) {
+            int capacity = label.length * 2;
+
+            label = Arrays.copyOf(label, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            frequency = Arrays.copyOf(frequency, capacity);
+            subtreeFrequency = Arrays.copyOf(subtreeFrequency, capacity);
+            maxFrequency = Arrays.copyOf(maxFrequency, capacity);
+            isWord = Arrays.copyOf(isWord, capacity / 64);
+        }
+
+        label[size] = c;
+
+        return size++;
+    }
+}
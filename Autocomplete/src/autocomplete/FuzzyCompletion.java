@@ -0,0 +1,431 @@
+/** ***************************************************************************
+ *
+ * File        : FuzzyCompletion.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that completes prefixes typed with a few mistakes.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Completes a prefix that may hold typos. A word matches when some prefix
+ * of it is within a given number of edits (insertions, deletions or
+ * substitutions) of the prefix typed, and costs the fewest edits of any of
+ * its prefixes.
+ *
+ * The trie is walked depth first carrying one row of the Levenshtein table
+ * per node, the distance from the node's path to every prefix of the query.
+ * A row's smallest entry never falls further down, so a branch is dropped
+ * as soon as it exceeds the edits allowed, and the walk stops at a node once
+ * going deeper cannot lower the cost already found, handing the node's whole
+ * subtree on at that cost. Only nodes within reach of the query are
+ * visited, never the whole dictionary.
+ *
+ * The subtrees found are then searched best first, a word scoring its
+ * frequency divided by the edit penalty once per edit, so by default an
+ * exact completion beats a completion one edit away unless the latter is
+ * ten times as frequent.
+ *
+ * @author Ali Jarjis
+ */
+public class FuzzyCompletion {
+
+    /**
+     * Most edits a query may be allowed
+     */
+    public static final int MAX_EDITS = 2;
+
+    /**
+     * Factor each edit divides a word's score by, unless given
+     */
+    public static final double DEFAULT_EDIT_PENALTY = 10;
+
+    private final char[] query;
+    private final int maxEdits;
+    private final double[] weights;
+    private final StringBuilder path;
+    private int[][] rows;
+    private final PriorityQueue<Match> queue;
+    private int nodesVisited;
+
+    /**
+     * Constructs the state of one fuzzy search
+     *
+     * @param prefix        prefix typed
+     * @param maxEdits      most edits allowed
+     * @param editPenalty   factor each edit divides a word's score by
+     */
+    private FuzzyCompletion(String prefix, int maxEdits, double editPenalty) {
+        this.query = prefix.toLowerCase().toCharArray();
+        this.maxEdits = maxEdits;
+        this.weights = new double[maxEdits + 1];
+        this.path = new StringBuilder();
+        this.rows = new int[query.length + maxEdits + 2][];
+        this.queue = new PriorityQueue<>();
+
+        for (int i = 0; i <= maxEdits; i++) {
+            weights[i] = Math.pow(editPenalty, -i);
+        }
+    }
+
+    /**
+     * Retrieves the k best words matching a prefix with up to a given number
+     * of edits, using the default edit penalty
+     *
+     * @param trie      trie to search
+     * @param prefix    prefix typed
+     * @param maxEdits  most edits allowed, from 0 to MAX_EDITS
+     * @param k         maximum number of words to retrieve
+     * @return          words mapped to their frequency, best first
+     */
+    public static LinkedHashMap<String, Integer> complete(
+            AutoCompletionTrie trie, String prefix, int maxEdits, int k) {
+        return complete(trie, prefix, maxEdits, k, DEFAULT_EDIT_PENALTY);
+    }
+
+    /**
+     * Retrieves the k best words matching a prefix with up to a given number
+     * of edits, ordered by frequency divided by the edit penalty once per
+     * edit (decreasing), then by edits and then alphabetically
+     *
+     * @param trie          trie to search
+     * @param prefix        prefix typed
+     * @param maxEdits      most edits allowed, from 0 to MAX_EDITS
+     * @param k             maximum number of words to retrieve
+     * @param editPenalty   factor each edit divides a word's score by, at
+     *                      least 1
+     * @return              words mapped to their frequency, best first
+     */
+    public static LinkedHashMap<String, Integer> complete(
+            AutoCompletionTrie trie, String prefix, int maxEdits, int k,
+            double editPenalty) {
+        if (maxEdits < 0 || maxEdits > MAX_EDITS) {
+            throw new IllegalArgumentException("Edits must be from 0 to "
+                    + MAX_EDITS);
+        }
+
+        if (editPenalty < 1) {
+            throw new IllegalArgumentException(
+                    "Edit penalty must be at least 1");
+        }
+
+        boolean measured = CompletionMetrics.isEnabled();
+        long startNanos = measured ? System.nanoTime() : 0;
+        long startBytes = measured ? CompletionMetrics.allocatedBytes() : 0;
+        FuzzyCompletion search = new FuzzyCompletion(prefix, maxEdits,
+                editPenalty);
+        int[] firstRow = new int[search.query.length + 1];
+
+        for (int j = 0; j < firstRow.length; j++) {
+            firstRow[j] = j;
+        }
+
+        search.rows[0] = firstRow;
+        search.walk(trie.root, 0, firstRow[search.query.length]);
+
+        LinkedHashMap<String, Integer> topWords = search.rank(k);
+
+        if (measured) {
+            CompletionMetrics.TOP_WORDS.record(prefix, startNanos, startBytes,
+                    search.nodesVisited, topWords.size(), topWords.size());
+        }
+
+        return topWords;
+    }
+
+    /**
+     * Walks the offspring of a node still within reach of the query,
+     * queueing the subtrees and words that match (recursively)
+     *
+     * @param currentNode   node currently being walked
+     * @param depth         length of the path to the node
+     * @param cost          fewest edits from any prefix of the path to the
+     *                      query
+     */
+    private void walk(AutoCompletionTrieNode currentNode, int depth,
+            int cost) {
+        nodesVisited++;
+        int[] row = rows[depth];
+
+        if (depth + 1 == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+
+        if (rows[depth + 1] == null) {
+            rows[depth + 1] = new int[query.length + 1];
+        }
+
+        int[] childRow = rows[depth + 1];
+
+        // For each offspring, works out its row from this one
+        for (int i = 0; i < currentNode.offspringCount(); i++) {
+            AutoCompletionTrieNode child = currentNode.offspringAt(i);
+            char c = currentNode.offspringKey(i);
+            int smallest = childRow[0] = row[0] + 1;
+
+            for (int j = 1; j <= query.length; j++) {
+                int substitute = row[j - 1] + (query[j - 1] == c ? 0 : 1);
+
+                childRow[j] = Math.min(substitute,
+                        Math.min(row[j], childRow[j - 1]) + 1);
+                smallest = Math.min(smallest, childRow[j]);
+            }
+
+            int childCost = Math.min(cost, childRow[query.length]);
+
+            if (smallest > maxEdits && childCost > maxEdits) {
+                continue;
+            }
+
+            path.append(c);
+
+            // Going deeper cannot lower the cost, so the whole subtree
+            // matches at it
+            if (smallest >= childCost) {
+                queue.add(new Match(child, path.toString(), childCost,
+                        child.maxFrequency * weights[childCost], false));
+            } else {
+                if (child.isWord && childCost <= maxEdits) {
+                    queue.add(new Match(child, path.toString(), childCost,
+                            child.frequency * weights[childCost], true));
+                }
+
+                walk(child, depth + 1, childCost);
+                childRow = rows[depth + 1];
+            }
+
+            path.setLength(depth);
+        }
+    }
+
+    /**
+     * Searches the queued subtrees best first for the k best words
+     *
+     * @param k maximum number of words to retrieve
+     * @return  words mapped to their frequency, best first
+     */
+    private LinkedHashMap<String, Integer> rank(int k) {
+        LinkedHashMap<String, Integer> topWords = new LinkedHashMap<>();
+
+        // Matches leave the queue in rank order, so the search stops as soon
+        // as k words have left it
+        while (!queue.isEmpty() && topWords.size() < k) {
+            Match match = queue.remove();
+
+            if (match.isWord) {
+                topWords.put(match.word, match.node.frequency);
+                continue;
+            }
+
+            AutoCompletionTrieNode currentNode = match.node;
+            nodesVisited++;
+
+            if (currentNode.isWord) {
+                queue.add(new Match(currentNode, match.word, match.cost,
+                        currentNode.frequency * weights[match.cost], true));
+            }
+
+            // Add all offspring of current node bounded by their maximum
+            for (int i = 0; i < currentNode.offspringCount(); i++) {
+                AutoCompletionTrieNode child = currentNode.offspringAt(i);
+
+                queue.add(new Match(child,
+                        match.word + currentNode.offspringKey(i), match.cost,
+                        child.maxFrequency * weights[match.cost], false));
+            }
+        }
+
+        return topWords;
+    }
+
+    /**
+     * A subtree or word matching the query, ranked by the best score it
+     * can lead to
+     */
+    private static class Match implements Comparable<Match> {
+        AutoCompletionTrieNode node;
+        String word;
+        int cost;
+        double score;
+        boolean isWord;
+
+        Match(AutoCompletionTrieNode node, String word, int cost,
+                double score, boolean isWord) {
+            this.node = node;
+            this.word = word;
+            this.cost = cost;
+            this.score = score;
+            this.isWord = isWord;
+        }
+
+        /**
+         * Orders by score (decreasing), then by edits, then alphabetically,
+         * with a word ahead of the subtree it heads
+         */
+        @Override
+        public int compareTo(Match other) {
+            if (score != other.score) {
+                return Double.compare(other.score, score);
+            }
+
+            if (cost != other.cost) {
+                return Integer.compare(cost, other.cost);
+            }
+
+            int order = word.compareTo(other.word);
+
+            if (order != 0) {
+                return order;
+            }
+
+            return Boolean.compare(other.isWord, isWord);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionaryFromCSV("lotr.csv");
+        AutoCompletionTrie trie = AutoCompletion.addDictionary(dictionary);
+        ArrayList<String> queries = new ArrayList<>();
+        int rounds = 200;
+
+        // Makes a typo of every query by dropping, doubling or swapping a
+        // character
+        for (int i = 0; i < lotrQueries.size(); i++) {
+            String q = lotrQueries.get(i);
+            int at = q.length() / 2;
+
+            queries.add(q);
+
+            if (i % 3 == 0 && q.length() > 1) {
+                queries.add(q.substring(0, at) + q.substring(at + 1));
+            } else if (i % 3 == 1) {
+                queries.add(q.substring(0, at + 1) + q.substring(at));
+            } else if (q.length() > 1) {
+                queries.add(q.substring(0, at - 1) + q.charAt(at)
+                        + q.charAt(at - 1) + q.substring(at + 1));
+            }
+        }
+
+        queries.add("frdo");
+        queries.add("gandlf");
+
+        System.out.println("frdo: " + complete(trie, "frdo", 1, 3));
+        System.out.println("gandlf: " + complete(trie, "gandlf", 1, 3));
+        System.out.println("gandlf, exact: "
+                + AutoCompletion.getTopThreeWords("gandlf", trie));
+
+        // Tests every query against scoring each word of the dictionary
+        boolean same = true;
+
+        for (int maxEdits = 0; maxEdits <= MAX_EDITS; maxEdits++) {
+            for (String q : queries) {
+                same &= complete(trie, q, maxEdits, 3).equals(
+                        bruteForce(dictionary, q, maxEdits, 3));
+            }
+        }
+
+        System.out.println("Same answers as scoring every word? " + same);
+
+        // Times the exact and fuzzy searches over the same queries
+        long[] times = new long[MAX_EDITS + 2];
+
+        for (int r = 0; r < rounds * 2; r++) {
+            for (int mode = 0; mode < times.length; mode++) {
+                long start = System.nanoTime();
+
+                for (String q : queries) {
+                    if (mode == 0) {
+                        AutoCompletion.getTopKWords(q, 3, trie);
+                    } else {
+                        complete(trie, q, mode - 1, 3);
+                    }
+                }
+
+                if (r >= rounds) {
+                    times[mode] += System.nanoTime() - start;
+                }
+            }
+        }
+
+        System.out.printf("Per query exact: %.0f ns",
+                (double) times[0] / rounds / queries.size());
+
+        for (int maxEdits = 0; maxEdits <= MAX_EDITS; maxEdits++) {
+            System.out.printf(", %d edit(s): %.0f ns", maxEdits,
+                    (double) times[maxEdits + 1] / rounds / queries.size());
+        }
+
+        System.out.println();
+    }
+
+    /**
+     * Scores every word of a dictionary against a query
+     *
+     * @param dictionary    words mapped to their frequency
+     * @param prefix        prefix typed
+     * @param maxEdits      most edits allowed
+     * @param k             maximum number of words to retrieve
+     * @return              words mapped to their frequency, best first
+     */
+    private static LinkedHashMap<String, Integer> bruteForce(
+            TreeMap<String, Integer> dictionary, String prefix, int maxEdits,
+            int k) {
+        FuzzyCompletion search = new FuzzyCompletion(prefix, maxEdits,
+                DEFAULT_EDIT_PENALTY);
+        char[] q = search.query;
+
+        for (Map.Entry<String, Integer> pair : dictionary.entrySet()) {
+            String word = pair.getKey();
+            int[] row = new int[q.length + 1];
+            int cost = q.length;
+
+            for (int j = 0; j <= q.length; j++) {
+                row[j] = j;
+            }
+
+            // Finds the fewest edits from any prefix of the word
+            for (int i = 0; i < word.length(); i++) {
+                int[] next = new int[q.length + 1];
+                next[0] = i + 1;
+
+                for (int j = 1; j <= q.length; j++) {
+                    next[j] = Math.min(row[j - 1]
+                            + (q[j - 1] == word.charAt(i) ? 0 : 1),
+                            Math.min(row[j], next[j - 1]) + 1);
+                }
+
+                row = next;
+                cost = Math.min(cost, row[q.length]);
+            }
+
+            if (cost <= maxEdits) {
+                search.queue.add(new Match(null, word, cost,
+                        pair.getValue() * search.weights[cost], true));
+            }
+        }
+
+        LinkedHashMap<String, Integer> topWords = new LinkedHashMap<>();
+
+        while (!search.queue.isEmpty() && topWords.size() < k) {
+            Match match = search.queue.remove();
+            topWords.put(match.word, dictionary.get(match.word));
+        }
+
+        return topWords;
+    }
+}
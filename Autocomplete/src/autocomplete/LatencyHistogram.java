@@ -0,0 +1,196 @@
+/** ***************************************************************************
+ *
+ * File        : LatencyHistogram.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that records latencies in log-linear buckets.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in the style of HdrHistogram. Values below 128
+ * are counted exactly, and above that every power of two is split into 64
+ * linear buckets, so any value is reported to within about 1.6% however
+ * large it is. Recording is a few shifts and one atomic add, with nothing
+ * allocated, so many threads can record at once.
+ *
+ * @author Ali Jarjis
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+    // Enough buckets for any positive long
+    private static final int BUCKETS = SUB_BUCKETS
+            + (64 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+
+    /**
+     * Constructs an empty histogram
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * Records a value, negative values being recorded as 0
+     *
+     * @param value value to record, such as a latency in nanoseconds
+     */
+    public void record(long value) {
+        counts.incrementAndGet(bucketOf(Math.max(0, value)));
+    }
+
+    /**
+     * Retrieves the number of values recorded
+     *
+     * @return number of values
+     */
+    public long count() {
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+
+        return count;
+    }
+
+    /**
+     * Retrieves the value below which a given share of values fall
+     *
+     * @param percentile share of values, from 0 to 100
+     * @return highest value of the bucket the percentile falls in, or 0 if
+     *         nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        long seen = 0;
+
+        // Walks buckets from the lowest until the rank is reached
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+
+            if (seen >= Math.max(1, rank)) {
+                return highestValueOf(i);
+            }
+        }
+
+        return highestValueOf(BUCKETS - 1);
+    }
+
+    /**
+     * Retrieves the highest value recorded, to within its bucket
+     *
+     * @return highest value, or 0 if nothing was recorded
+     */
+    public long max() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highestValueOf(i);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Adds every value recorded by another histogram to this one
+     *
+     * @param other histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+     * Copies the histogram as it is now
+     *
+     * @return a new histogram with the same counts
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+
+        return copy;
+    }
+
+    /**
+     * Forgets every value recorded
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Finds the bucket a value is counted in
+     *
+     * @param value value to place, not negative
+     * @return index of bucket
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        // Shifts the value down until it lies in the top half of the
+        // sub-buckets, the shift choosing the power of two
+        int shift = 63 - Long.numberOfLeadingZeros(value)
+                - (SUB_BUCKET_BITS - 1);
+
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS
+                + (int) (value >>> shift) - HALF_SUB_BUCKETS;
+    }
+
+    /**
+     * Finds the highest value counted in a bucket
+     *
+     * @param bucket index of bucket
+     * @return highest value placed in the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long sub = (bucket - SUB_BUCKETS) % HALF_SUB_BUCKETS
+                + HALF_SUB_BUCKETS;
+
+        // The last bucket would overflow, so holds up to the largest long
+        if (shift + SUB_BUCKET_BITS >= 63 && sub == SUB_BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,446 @@
+/** ***************************************************************************
+ *
+ * File        : MappedAutoCompletionTrie.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that answers queries directly from a memory-mapped
+ *               trie snapshot.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
+
+/**
+ * A read-only trie over a snapshot written by TrieSnapshot. Nothing is
+ * copied onto the heap when loading, queries read the mapped records in
+ * place, so processes mapping the same file share one page-cached copy.
+ *
+ * @author Ali Jarjis
+ */
+public class MappedAutoCompletionTrie {
+
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+
+    /**
+     * Constructs a trie over a mapped snapshot
+     *
+     * @param buffer    mapped snapshot
+     * @param nodeCount number of records in snapshot
+     */
+    private MappedAutoCompletionTrie(ByteBuffer buffer, int nodeCount) {
+        this.buffer = buffer;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Maps a snapshot file into memory
+     *
+     * @param file address of snapshot to load
+     * @return trie reading from the mapped snapshot
+     * @throws IOException if file cannot be read or is not a supported
+     *                     snapshot
+     */
+    public static MappedAutoCompletionTrie load(String file)
+            throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+
+            if (buffer.limit() < TrieSnapshot.HEADER_SIZE
+                    || buffer.getInt(0) != TrieSnapshot.MAGIC) {
+                throw new IOException(file + " is not a trie snapshot");
+            }
+
+            if (buffer.getInt(4) != TrieSnapshot.VERSION
+                    || buffer.getInt(12) != TrieSnapshot.RECORD_SIZE) {
+                throw new IOException("Unsupported snapshot version "
+                        + buffer.getInt(4) + " in " + file);
+            }
+
+            int nodeCount = buffer.getInt(8);
+
+            // A snapshot always holds the root, and exactly one record for
+            // each node after the header
+            if (nodeCount < 1) {
+                throw new IOException("Invalid node count " + nodeCount
+                        + " in " + file);
+            }
+
+            if (buffer.limit() != TrieSnapshot.HEADER_SIZE
+                    + (long) nodeCount * TrieSnapshot.RECORD_SIZE) {
+                throw new IOException(file + " holds " + buffer.limit()
+                        + " bytes, not the " + nodeCount + " nodes its "
+                        + "header gives");
+            }
+
+            checkLinks(buffer, nodeCount, file);
+
+            return new MappedAutoCompletionTrie(buffer, nodeCount);
+        } finally {
+            // The mapping stays valid once the file is closed
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Checks every record's links point at records in the layout
+     * TrieSnapshot writes: a parent before its offspring, a first offspring
+     * straight after its parent and a sibling after it with the same parent.
+     * Every link followed then leads to a record, and only ever forward or
+     * only ever back, so no query can loop.
+     *
+     * @param buffer    mapped snapshot
+     * @param nodeCount number of records in snapshot
+     * @param file      address of snapshot, for the error
+     * @throws IOException if a link breaks the layout
+     */
+    private static void checkLinks(ByteBuffer buffer, int nodeCount,
+            String file) throws IOException {
+        for (int node = 0; node < nodeCount; node++) {
+            int record = TrieSnapshot.HEADER_SIZE
+                    + node * TrieSnapshot.RECORD_SIZE;
+            int parent = buffer.getInt(record + TrieSnapshot.PARENT);
+            int sibling = buffer.getInt(record + TrieSnapshot.NEXT_SIBLING);
+            byte flags = buffer.get(record + TrieSnapshot.FLAGS);
+
+            if (node == 0 ? parent != -1 : parent < 0 || parent >= node) {
+                throw new IOException("Invalid parent " + parent
+                        + " of node " + node + " in " + file);
+            }
+
+            if (sibling != 0 && (node == 0 || sibling <= node
+                    || sibling >= nodeCount
+                    || parentOf(buffer, sibling) != parent)) {
+                throw new IOException("Invalid sibling " + sibling
+                        + " of node " + node + " in " + file);
+            }
+
+            if ((flags & TrieSnapshot.HAS_OFFSPRING) != 0
+                    && (node + 1 >= nodeCount
+                    || parentOf(buffer, node + 1) != node)) {
+                throw new IOException("Node " + node + " has no offspring "
+                        + "after it in " + file);
+            }
+        }
+    }
+
+    private static int parentOf(ByteBuffer buffer, int node) {
+        return buffer.getInt(TrieSnapshot.HEADER_SIZE
+                + node * TrieSnapshot.RECORD_SIZE + TrieSnapshot.PARENT);
+    }
+
+    /**
+     * Checks if key exists in trie
+     *
+     * @param key key to search for
+     * @return true if key exists, else false
+     */
+    public boolean contains(String key) {
+        int node = walk(key);
+
+        // Returns true if key is a whole word in Trie
+        return node != -1 && (flags(node) & TrieSnapshot.IS_WORD) != 0;
+    }
+
+    /**
+     * Retrieves the total frequency of every word matching a prefix
+     *
+     * @param prefix prefix to search for
+     * @return sum of the frequencies of matching words
+     */
+    public int getTotalFrequency(String prefix) {
+        int node = walk(prefix);
+
+        return node == -1 ? 0 : field(node, TrieSnapshot.SUBTREE_FREQUENCY);
+    }
+
+    /**
+     * Retrieves the k most frequent words that match a given prefix, using a
+     * best-first search bounded by each subtree's highest frequency. The
+     * queue holds packed primitive keys, and strings are only made for the
+     * words returned.
+     *
+     * @param prefix    prefix to search for
+     * @param k         maximum number of words to retrieve
+     * @return          words mapped to their frequency, ordered by frequency
+     *                  (decreasing) and then alphabetically
+     */
+    public LinkedHashMap<String, Integer> getTopKWords(String prefix, int k) {
+        LinkedHashMap<String, Integer> topWords = new LinkedHashMap<>();
+        int node = walk(prefix);
+
+        if (node == -1) {
+            return topWords;
+        }
+
+        long[] heap = new long[16];
+        int size = 0;
+
+        heap = push(heap, size++, pack(maxFrequency(node), node, false));
+
+        // Keys leave the heap in rank order, so the search stops as soon as
+        // k words have left it, no unexplored branch can beat them
+        while (size > 0 && topWords.size() < k) {
+            long top = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+
+            int current = unpackNode(top);
+
+            if ((top & 1) != 0) {
+                topWords.put(wordAt(current), (int) (top >>> 32));
+                continue;
+            }
+
+            byte flags = flags(current);
+
+            if ((flags & TrieSnapshot.IS_WORD) != 0) {
+                heap = push(heap, size++, pack(
+                        field(current, TrieSnapshot.FREQUENCY), current, true));
+            }
+
+            // Add all offspring of current node bounded by their maximum
+            if ((flags & TrieSnapshot.HAS_OFFSPRING) != 0) {
+                for (int child = current + 1; child != 0;
+                        child = field(child, TrieSnapshot.NEXT_SIBLING)) {
+                    if (maxFrequency(child) > 0) {
+                        heap = push(heap, size++,
+                                pack(maxFrequency(child), child, false));
+                    }
+                }
+            }
+        }
+
+        return topWords;
+    }
+
+    /**
+     * Retrieves the number of nodes in the snapshot
+     *
+     * @return number of nodes
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Follows a key down from the root
+     *
+     * @param key key to follow
+     * @return index of the node the key ends on, or -1 if it leaves the trie
+     */
+    private int walk(String key) {
+        int node = 0;
+
+        for (int i = 0; i < key.length(); i++) {
+            char c = Character.toLowerCase(key.charAt(i));
+
+            if ((flags(node) & TrieSnapshot.HAS_OFFSPRING) == 0) {
+                return -1;
+            }
+
+            int child = node + 1;
+
+            // Offspring are in alphabetical order, so stop once passed
+            while (child != 0 && label(child) < c) {
+                child = field(child, TrieSnapshot.NEXT_SIBLING);
+            }
+
+            if (child == 0 || label(child) != c) {
+                return -1;
+            }
+
+            node = child;
+        }
+
+        return node;
+    }
+
+    /**
+     * Rebuilds the word ending at a node by following parent links
+     *
+     * @param node index of node
+     * @return word formed by the path to the node
+     */
+    private String wordAt(int node) {
+        StringBuilder word = new StringBuilder();
+
+        for (int current = node; current > 0;
+                current = field(current, TrieSnapshot.PARENT)) {
+            word.append(label(current));
+        }
+
+        return word.reverse().toString();
+    }
+
+    private int field(int node, int offset) {
+        return buffer.getInt(TrieSnapshot.HEADER_SIZE
+                + node * TrieSnapshot.RECORD_SIZE + offset);
+    }
+
+    private int maxFrequency(int node) {
+        return field(node, TrieSnapshot.MAX_FREQUENCY);
+    }
+
+    private char label(int node) {
+        return buffer.getChar(TrieSnapshot.HEADER_SIZE
+                + node * TrieSnapshot.RECORD_SIZE + TrieSnapshot.LABEL);
+    }
+
+    private byte flags(int node) {
+        return buffer.get(TrieSnapshot.HEADER_SIZE
+                + node * TrieSnapshot.RECORD_SIZE + TrieSnapshot.FLAGS);
+    }
+
+    /**
+     * Packs a queue entry into a key that sorts by priority (decreasing),
+     * then by node number, which is alphabetical order, with a word ahead of
+     * the node it ends on
+     *
+     * @param priority  highest frequency the entry can lead to
+     * @param node      index of node
+     * @param isWord    whether the entry is a finished word
+     * @return          packed key, larger keys ranking first
+     */
+    private static long pack(int priority, int node, boolean isWord) {
+        return ((long) priority << 32)
+                | ((long) (Integer.MAX_VALUE - node) << 1)
+                | (isWord ? 1 : 0);
+    }
+
+    private static int unpackNode(long key) {
+        return Integer.MAX_VALUE - (int) ((key & 0xFFFFFFFFL) >>> 1);
+    }
+
+    /**
+     * Adds a key to a binary max-heap, growing it if full
+     *
+     * @param heap  heap to add to
+     * @param size  number of keys in heap
+     * @param key   key to add
+     * @return      the heap, reallocated if it grew
+     */
+    private static long[] push(long[] heap, int size, long key) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+
+        int i = size;
+
+        while (i > 0 && heap[(i - 1) / 2] < key) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+
+        heap[i] = key;
+
+        return heap;
+    }
+
+    /**
+     * Restores heap order after the root has been replaced
+     *
+     * @param heap  heap to restore
+     * @param size  number of keys in heap
+     */
+    private static void siftDown(long[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+
+        long key = heap[0];
+        int i = 0;
+
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+
+            if (heap[child] <= key) {
+                break;
+            }
+
+            heap[i] = heap[child];
+            i = child;
+        }
+
+        heap[i] = key;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String snapshot = "lotr.trie";
+        ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
+
+        // Times the usual start up, building the trie from the corpus
+        long start = System.nanoTime();
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionary(readWordsFromCSV("lotr.csv"));
+        AutoCompletionTrie trie = AutoCompletion.addDictionary(dictionary);
+        trie.getTopKWords(lotrQueries.get(0), 3);
+        long buildTime = System.nanoTime() - start;
+
+        TrieSnapshot.write(trie, snapshot);
+
+        // Times start up from the snapshot instead
+        start = System.nanoTime();
+        MappedAutoCompletionTrie mappedTrie = load(snapshot);
+        mappedTrie.getTopKWords(lotrQueries.get(0), 3);
+        long loadTime = System.nanoTime() - start;
+
+        boolean same = true;
+
+        for (String q : lotrQueries) {
+            same &= trie.getTopKWords(q, 3)
+                    .equals(mappedTrie.getTopKWords(q, 3));
+            same &= trie.contains(q) == mappedTrie.contains(q);
+        }
+
+        System.out.println("Same answers for queries? " + same);
+        System.out.println("Snapshot size: " + new File(snapshot).length()
+                + " bytes, " + mappedTrie.nodeCount() + " nodes");
+        System.out.printf("Start up from corpus: %.2f ms%n", buildTime / 1e6);
+        System.out.printf("Start up from snapshot: %.2f ms%n", loadTime / 1e6);
+
+        // Tests that a sibling link pointing back to its own node, which
+        // would loop forever, is refused on load
+        File corrupt = File.createTempFile("lotr-corrupt", ".trie");
+        corrupt.deleteOnExit();
+        Files.copy(new File(snapshot).toPath(), corrupt.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        RandomAccessFile writer = new RandomAccessFile(corrupt, "rw");
+        writer.seek(TrieSnapshot.HEADER_SIZE + TrieSnapshot.RECORD_SIZE
+                + TrieSnapshot.NEXT_SIBLING);
+        writer.writeInt(1);
+        writer.close();
+
+        try {
+            load(corrupt.getPath());
+            System.out.println("Looping snapshot refused? false");
+        } catch (IOException e) {
+            System.out.println("Looping snapshot refused? true ("
+                    + e.getMessage() + ")");
+        }
+    }
+}
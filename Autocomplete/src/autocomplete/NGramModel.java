@@ -0,0 +1,873 @@
+/** ***************************************************************************
+ *
+ * File        : NGramModel.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that predicts the next word of a sentence from the
+ *               one or two words before it.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A bigram and trigram model of a corpus, scored with stupid backoff: a
+ * word seen after both context words scores its trigram count over the
+ * context's count, else a word seen after the last context word scores 0.4
+ * of its bigram share, else any word scores 0.16 of its unigram share. Each
+ * context word given costs a step back when the word was not seen after
+ * it, even if the context itself was never seen, so with one context word
+ * a bigram scores its whole share and a unigram 0.4 of its share.
+ *
+ * The model counts while the corpus is tokenized, in the same pass that
+ * counts words for the dictionary. The tokenizer passes no sentence breaks,
+ * so the corpus is counted as one run of words. Words are numbered by a
+ * WordCounter and pairs and triples of numbers are packed into longs and
+ * counted in open-addressing tables. Building then renumbers the words
+ * alphabetically and lays each context's followers out in flat arrays
+ * twice, by word for looking a count up and by count for reading the best
+ * first, so a prediction reads only the start of a few sorted runs.
+ *
+ * @author Ali Jarjis
+ */
+public class NGramModel implements TokenConsumer {
+
+    /**
+     * Weight of each step back to a shorter context
+     */
+    public static final double BACKOFF = 0.4;
+
+    // Words are packed 21 bits apiece into a trigram's long
+    private static final int ID_BITS = 21;
+    private static final int MAX_WORDS = 1 << ID_BITS;
+    private static final long ID_MASK = MAX_WORDS - 1;
+
+    private final WordCounter counter;
+    private LongCounter bigramCounts;
+    private LongCounter trigramCounts;
+    private int previous;
+    private int beforePrevious;
+
+    // Built model, words numbered alphabetically
+    private boolean built;
+    private String[] words;
+    private int[] unigramCounts;
+    private long totalCount;
+    private int[] rankedWords;
+    private int[] bigramContextCounts;
+    private Followers bigrams;
+    private long[] trigramContexts;
+    private int[] trigramContextCounts;
+    private Followers trigrams;
+
+    /**
+     * Constructs an empty model
+     */
+    public NGramModel() {
+        this.counter = new WordCounter();
+        this.bigramCounts = new LongCounter();
+        this.trigramCounts = new LongCounter();
+        this.previous = -1;
+        this.beforePrevious = -1;
+        this.built = false;
+    }
+
+    /**
+     * Counts a comma separated text document in one pass
+     *
+     * @param file address of file to read from
+     * @return the built model
+     * @throws IOException if file cannot be read
+     */
+    public static NGramModel fromCSV(String file) throws IOException {
+        NGramModel model = new NGramModel();
+
+        new CorpusTokenizer().tokenize(file, model);
+        model.build();
+
+        return model;
+    }
+
+    /**
+     * Counts the next word of the corpus
+     *
+     * @param token     buffer holding the word's characters
+     * @param length    number of characters in the word
+     */
+    @Override
+    public void accept(char[] token, int length) {
+        if (built) {
+            throw new IllegalStateException("Model is already built");
+        }
+
+        int id = counter.increment(token, 0, length, 1);
+
+        if (id >= MAX_WORDS) {
+            throw new IllegalStateException("More than " + MAX_WORDS
+                    + " distinct words");
+        }
+
+        if (previous >= 0) {
+            bigramCounts.increment(pack(previous, id));
+
+            if (beforePrevious >= 0) {
+                trigramCounts.increment(pack(beforePrevious, previous, id));
+            }
+        }
+
+        beforePrevious = previous;
+        previous = id;
+    }
+
+    /**
+     * Retrieves the counter of single words, for forming the dictionary
+     *
+     * @return counter of every word seen
+     */
+    public WordCounter getWordCounter() {
+        return counter;
+    }
+
+    /**
+     * Lays the counts out for prediction, after which no more words may be
+     * counted
+     */
+    public void build() {
+        int size = counter.size();
+        Integer[] sorted = counter.sortedIds();
+        int[] alphabetical = new int[size];
+
+        words = new String[size];
+        unigramCounts = new int[size];
+        totalCount = 0;
+
+        // Renumbers words alphabetically so ties between scores are broken
+        // by number
+        for (int i = 0; i < size; i++) {
+            alphabetical[sorted[i]] = i;
+            words[i] = counter.word(sorted[i]);
+            unigramCounts[i] = counter.count(sorted[i]);
+            totalCount += unigramCounts[i];
+        }
+
+        rankedWords = rank(unigramCounts, 0, size);
+
+        // Bigram contexts are single words, so are indexed directly
+        long[] keys = bigramCounts.renumber(alphabetical, 1);
+        bigrams = new Followers(keys, bigramCounts.values(), keys.length);
+        int[] starts = new int[size + 1];
+        bigramContextCounts = new int[size];
+
+        for (int i = 0; i < keys.length; i++) {
+            int context = (int) (keys[i] >>> ID_BITS);
+            starts[context + 1]++;
+            bigramContextCounts[context] += bigrams.byWordCounts[i];
+        }
+
+        for (int i = 0; i < size; i++) {
+            starts[i + 1] += starts[i];
+        }
+
+        bigrams.rankRuns(starts);
+
+        // Trigram contexts are pairs, so are kept sorted and searched
+        keys = trigramCounts.renumber(alphabetical, 2);
+        trigrams = new Followers(keys, trigramCounts.values(), keys.length);
+        long[] contexts = new long[keys.length];
+        int[] contextStarts = new int[keys.length + 1];
+        int contextCount = 0;
+
+        for (int i = 0; i < keys.length; i++) {
+            long context = keys[i] >>> ID_BITS;
+
+            if (contextCount == 0 || contexts[contextCount - 1] != context) {
+                contexts[contextCount] = context;
+                contextStarts[contextCount++] = i;
+            }
+        }
+
+        contextStarts[contextCount] = keys.length;
+        trigramContexts = Arrays.copyOf(contexts, contextCount);
+        trigrams.rankRuns(Arrays.copyOf(contextStarts, contextCount + 1));
+        trigramContextCounts = new int[contextCount];
+
+        for (int c = 0; c < contextCount; c++) {
+            for (int i = trigrams.starts[c]; i < trigrams.starts[c + 1]; i++) {
+                trigramContextCounts[c] += trigrams.byWordCounts[i];
+            }
+        }
+
+        bigramCounts = null;
+        trigramCounts = null;
+        built = true;
+    }
+
+    /**
+     * Predicts the k most likely next words of a partial sentence
+     *
+     * @param sentence  words typed so far, separated as in the corpus
+     * @param k         maximum number of words to predict
+     * @return          words mapped to their score, best first, or no
+     *                  words if k is less than 1
+     */
+    public LinkedHashMap<String, Double> predict(String sentence, int k) {
+        String[] tokens = sentence.trim().toLowerCase().split("[ |,\r\n]+");
+        int last = -1;
+        int beforeLast = -1;
+        int context = 0;
+
+        if (k < 1) {
+            return new LinkedHashMap<>();
+        }
+
+        if (tokens.length > 0 && !tokens[tokens.length - 1].isEmpty()) {
+            context = Math.min(2, tokens.length);
+            last = find(tokens[tokens.length - 1]);
+
+            if (tokens.length > 1) {
+                beforeLast = find(tokens[tokens.length - 2]);
+            }
+        }
+
+        int[] ids = new int[k];
+        double[] scores = new double[k];
+        int count = predict(beforeLast, last, context, k, ids, scores);
+        LinkedHashMap<String, Double> predictions = new LinkedHashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            predictions.put(words[ids[i]], scores[i]);
+        }
+
+        return predictions;
+    }
+
+    /**
+     * Predicts the k most likely words to follow two words, each of which
+     * may be unknown
+     *
+     * @param beforeLast    number of the word before last, or -1
+     * @param last          number of the last word, or -1
+     * @param context       number of context words given, unknown ones
+     *                      included, at most 2
+     * @param k             maximum number of words to predict
+     * @param ids           filled with the numbers of words predicted
+     * @param scores        filled with their scores
+     * @return              number of words predicted
+     */
+    int predict(int beforeLast, int last, int context, int k, int[] ids,
+            double[] scores) {
+        int count = 0;
+
+        if (k < 1) {
+            return 0;
+        }
+
+        int trigramContext = beforeLast >= 0 && last >= 0
+                ? Arrays.binarySearch(trigramContexts,
+                        ((long) beforeLast << ID_BITS) | last) : -1;
+        double weight = 1;
+
+        // Takes the best words after both words in order, leaving shorter
+        // contexts to insert any word that scores higher
+        if (trigramContext >= 0) {
+            double total = trigramContextCounts[trigramContext];
+
+            for (int i = trigrams.starts[trigramContext]; i
+                    < trigrams.starts[trigramContext + 1] && count < k; i++) {
+                ids[count] = trigrams.rankedWords[i];
+                scores[count++] = trigrams.rankedCounts[i] / total;
+            }
+        }
+
+        // Words not seen after both words back off, whether or not the two
+        // words were ever seen together
+        if (context > 1) {
+            weight *= BACKOFF;
+        }
+
+        // Backs off to the words after the last word, skipping words already
+        // scored by the trigram
+        if (last >= 0) {
+            double total = bigramContextCounts[last];
+
+            for (int i = bigrams.starts[last]; i < bigrams.starts[last + 1];
+                    i++) {
+                double score = weight * bigrams.rankedCounts[i] / total;
+
+                if (count == k && score < scores[k - 1]) {
+                    break;
+                }
+
+                int word = bigrams.rankedWords[i];
+
+                if (trigramContext < 0
+                        || trigrams.find(trigramContext, word) < 0) {
+                    count = offer(ids, scores, count, k, word, score);
+                }
+            }
+        }
+
+        if (context > 0) {
+            weight *= BACKOFF;
+        }
+
+        // Backs off to every word, skipping words scored by either context
+        for (int i = 0; i < rankedWords.length; i++) {
+            int word = rankedWords[i];
+            double score = weight * unigramCounts[word] / totalCount;
+
+            if (count == k && score < scores[k - 1]) {
+                break;
+            }
+
+            if ((last < 0 || bigrams.find(last, word) < 0)
+                    && (trigramContext < 0
+                    || trigrams.find(trigramContext, word) < 0)) {
+                count = offer(ids, scores, count, k, word, score);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Retrieves the number of a word
+     *
+     * @param word  word to search for
+     * @return      number of the word if seen, else -1
+     */
+    public int find(String word) {
+        int pos = Arrays.binarySearch(words, word);
+
+        return pos >= 0 ? pos : -1;
+    }
+
+    /**
+     * Retrieves the number of distinct words seen
+     *
+     * @return number of words
+     */
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * Estimates the bytes held by the built model's arrays, not counting the
+     * words themselves
+     *
+     * @return bytes used by the model
+     */
+    public long sizeInBytes() {
+        return (long) words.length * Integer.BYTES * 3
+                + bigrams.sizeInBytes() + trigrams.sizeInBytes()
+                + (long) trigramContexts.length
+                * (Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Inserts a word into a ranked list of predictions, ordered by score
+     * (decreasing) and then alphabetically
+     *
+     * @param ids       ranked word numbers
+     * @param scores    scores of ranked words
+     * @param count     number of words currently ranked
+     * @param k         most words ranked
+     * @param word      number of word to insert
+     * @param score     score of word to insert
+     * @return          new number of ranked words
+     */
+    private static int offer(int[] ids, double[] scores, int count, int k,
+            int word, double score) {
+        int pos = Math.min(count, k - 1);
+
+        if (count == k && (score < scores[pos]
+                || (score == scores[pos] && word > ids[pos]))) {
+            return count;
+        }
+
+        // Shifts lower ranked words down, dropping the last if list is full
+        while (pos > 0 && (score > scores[pos - 1]
+                || (score == scores[pos - 1] && word < ids[pos - 1]))) {
+            ids[pos] = ids[pos - 1];
+            scores[pos] = scores[pos - 1];
+            pos--;
+        }
+
+        ids[pos] = word;
+        scores[pos] = score;
+
+        return Math.min(count + 1, k);
+    }
+
+    /**
+     * Ranks a run of words by count (decreasing) and then by number
+     *
+     * @param counts    count of each word in the run
+     * @param from      position of the first word
+     * @param to        position after the last word
+     * @return          positions of the run, best first, less from
+     */
+    private static int[] rank(int[] counts, int from, int to) {
+        long[] order = new long[to - from];
+
+        // Packs each inverted count above its position so sorting ranks
+        for (int i = from; i < to; i++) {
+            order[i - from] = ((long) (Integer.MAX_VALUE - counts[i]) << 32)
+                    | (i - from);
+        }
+
+        Arrays.sort(order);
+        int[] positions = new int[order.length];
+
+        for (int i = 0; i < order.length; i++) {
+            positions[i] = (int) order[i];
+        }
+
+        return positions;
+    }
+
+    /**
+     * Packs two word numbers into a long
+     *
+     * @param first     first word
+     * @param second    second word
+     * @return          packed pair
+     */
+    private static long pack(int first, int second) {
+        return ((long) first << ID_BITS) | second;
+    }
+
+    /**
+     * Packs three word numbers into a long
+     *
+     * @param first     first word
+     * @param second    second word
+     * @param third     third word
+     * @return          packed triple
+     */
+    private static long pack(int first, int second, int third) {
+        return ((((long) first << ID_BITS) | second) << ID_BITS) | third;
+    }
+
+    /**
+     * The words following every context of one length, each context's run
+     * held once sorted by word and once by count
+     */
+    private static class Followers {
+        int[] starts;
+        int[] byWord;
+        int[] byWordCounts;
+        int[] rankedWords;
+        int[] rankedCounts;
+
+        /**
+         * Constructs the followers from n-grams sorted by context then word
+         *
+         * @param keys      packed n-grams, sorted
+         * @param counts    count of each n-gram
+         * @param size      number of n-grams
+         */
+        Followers(long[] keys, int[] counts, int size) {
+            this.byWord = new int[size];
+            this.byWordCounts = counts;
+            this.rankedWords = new int[size];
+            this.rankedCounts = new int[size];
+
+            for (int i = 0; i < size; i++) {
+                byWord[i] = (int) (keys[i] & ID_MASK);
+            }
+        }
+
+        /**
+         * Ranks each context's run by count
+         *
+         * @param starts    position of each context's run, and the end
+         */
+        void rankRuns(int[] starts) {
+            this.starts = starts;
+
+            for (int c = 0; c + 1 < starts.length; c++) {
+                int[] positions = rank(byWordCounts, starts[c],
+                        starts[c + 1]);
+
+                for (int i = 0; i < positions.length; i++) {
+                    rankedWords[starts[c] + i]
+                            = byWord[starts[c] + positions[i]];
+                    rankedCounts[starts[c] + i]
+                            = byWordCounts[starts[c] + positions[i]];
+                }
+            }
+        }
+
+        /**
+         * Searches a context's run for a word
+         *
+         * @param context   number of context
+         * @param word      number of word
+         * @return          position of the word if it follows the context,
+         *                  else negative
+         */
+        int find(int context, int word) {
+            return Arrays.binarySearch(byWord, starts[context],
+                    starts[context + 1], word);
+        }
+
+        /**
+         * Estimates the bytes held by the arrays
+         *
+         * @return bytes used
+         */
+        long sizeInBytes() {
+            return (long) (starts.length + byWord.length * 4) * Integer.BYTES;
+        }
+    }
+
+    /**
+     * Counts longs in an open-addressing hash table
+     */
+    private static class LongCounter {
+        private long[] keys;
+        private int[] counts;
+        private boolean[] used;
+        private int size;
+        private int mask;
+
+        LongCounter() {
+            this.keys = new long[1024];
+            this.counts = new int[1024];
+            this.used = new boolean[1024];
+            this.size = 0;
+            this.mask = keys.length - 1;
+        }
+
+        /**
+         * Adds one to the count of a key
+         *
+         * @param key key to count
+         */
+        void increment(long key) {
+            int slot = slot(key);
+
+            // Probes linearly until the key or an empty slot is found
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                size++;
+            }
+
+            counts[slot]++;
+
+            if (size * 2 > keys.length) {
+                rehash();
+            }
+        }
+
+        /**
+         * Renumbers the words of every key and sorts the keys, after which
+         * values() gives their counts in the same order
+         *
+         * @param numbers   new number of each word
+         * @param contexts  number of context words in each key
+         * @return          renumbered keys, sorted
+         */
+        long[] renumber(int[] numbers, int contexts) {
+            long[] renumbered = new long[size];
+            int[] values = new int[size];
+            int n = 0;
+
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (!used[slot]) {
+                    continue;
+                }
+
+                long key = 0;
+
+                // Renumbers each word, first word in the highest bits
+                for (int shift = contexts * ID_BITS; shift >= 0;
+                        shift -= ID_BITS) {
+                    key = (key << ID_BITS)
+                            | numbers[(int) ((keys[slot] >>> shift) & ID_MASK)];
+                }
+
+                renumbered[n] = key;
+                values[n++] = counts[slot];
+            }
+
+            sort(renumbered, values, 0, n - 1);
+            keys = renumbered;
+            counts = values;
+            used = null;
+
+            return renumbered;
+        }
+
+        /**
+         * Retrieves the counts of the keys last renumbered
+         *
+         * @return counts in key order
+         */
+        int[] values() {
+            return counts;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+
+            return (int) (h >>> 32) & mask;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            boolean[] oldUsed = used;
+
+            keys = new long[oldKeys.length * 2];
+            counts = new int[keys.length];
+            used = new boolean[keys.length];
+            mask = keys.length - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = slot(oldKeys[i]);
+
+                    while (used[slot]) {
+                        slot = (slot + 1) & mask;
+                    }
+
+                    used[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        /**
+         * Sorts keys, moving their counts with them (quicksort)
+         *
+         * @param keys      keys to sort
+         * @param values    count of each key
+         * @param low       position of first key
+         * @param high      position of last key
+         */
+        private static void sort(long[] keys, int[] values, int low,
+                int high) {
+            while (low < high) {
+                long pivot = keys[(low + high) >>> 1];
+                int i = low;
+                int j = high;
+
+                while (i <= j) {
+                    while (keys[i] < pivot) {
+                        i++;
+                    }
+
+                    while (keys[j] > pivot) {
+                        j--;
+                    }
+
+                    if (i <= j) {
+                        long key = keys[i];
+                        keys[i] = keys[j];
+                        keys[j] = key;
+                        int value = values[i];
+                        values[i] = values[j];
+                        values[j] = value;
+                        i++;
+                        j--;
+                    }
+                }
+
+                // Recurses into the smaller side, looping on the larger
+                if (j - low < high - i) {
+                    sort(keys, values, low, j);
+                    low = i;
+                } else {
+                    sort(keys, values, i, high);
+                    high = j;
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        NGramModel model = fromCSV("lotr.csv");
+        long buildTime = System.nanoTime() - start;
+
+        System.out.printf("Built from lotr.csv in %.1f ms: %d words, %d "
+                + "bytes%n", buildTime / 1e6, model.size(),
+                model.sizeInBytes());
+        System.out.println("Same dictionary as formDictionaryFromCSV? "
+                + model.getWordCounter().toDictionary().equals(
+                        DictionaryMaker.formDictionaryFromCSV("lotr.csv")));
+
+        for (String sentence : new String[]{"frodo", "mr", "said",
+            "in the", "the ring", "out of the", "zzz"}) {
+            System.out.println(sentence + " -> "
+                    + model.predict(sentence, 3));
+        }
+
+        // Tests predictions against a model of nested hash tables that
+        // scores every word
+        ArrayList<String> corpus = readWordsFromCSV("lotr.csv");
+        HashMap<String, Integer> unigrams = new HashMap<>();
+        HashMap<String, HashMap<String, Integer>> bigrams = new HashMap<>();
+        HashMap<String, HashMap<String, Integer>> trigrams = new HashMap<>();
+
+        for (int i = 0; i < corpus.size(); i++) {
+            increment(unigrams, corpus.get(i));
+
+            if (i > 0) {
+                increment(bigrams, corpus.get(i - 1), corpus.get(i));
+            }
+
+            if (i > 1) {
+                increment(trigrams, corpus.get(i - 2) + " "
+                        + corpus.get(i - 1), corpus.get(i));
+            }
+        }
+
+        boolean same = true;
+        ArrayList<String> sentences = new ArrayList<>();
+
+        // Reversed pairs are mostly contexts never seen together
+        for (int i = 1; i < corpus.size(); i += 97) {
+            sentences.add(corpus.get(i - 1) + " " + corpus.get(i));
+            sentences.add(corpus.get(i) + " " + corpus.get(i - 1));
+            sentences.add(corpus.get(i));
+        }
+
+        for (String sentence : sentences) {
+            same &= model.predict(sentence, 5).equals(
+                    naivePredict(unigrams, bigrams, trigrams, corpus.size(),
+                            sentence, 5));
+        }
+
+        System.out.println("Same as scoring every word over "
+                + sentences.size() + " contexts? " + same);
+        System.out.println("No predictions for k = 0? "
+                + model.predict("the ring", 0).isEmpty());
+
+        // Times predictions for every context tested
+        int rounds = 200;
+        long time = 0;
+
+        for (int r = 0; r < rounds * 2; r++) {
+            start = System.nanoTime();
+
+            for (String sentence : sentences) {
+                model.predict(sentence, 3);
+            }
+
+            if (r >= rounds) {
+                time += System.nanoTime() - start;
+            }
+        }
+
+        System.out.printf("Per prediction: %.2f us%n",
+                time / 1e3 / rounds / sentences.size());
+    }
+
+    private static void increment(HashMap<String, Integer> counts,
+            String word) {
+        Integer count = counts.get(word);
+        counts.put(word, count == null ? 1 : count + 1);
+    }
+
+    private static void increment(
+            HashMap<String, HashMap<String, Integer>> counts, String context,
+            String word) {
+        if (!counts.containsKey(context)) {
+            counts.put(context, new HashMap<String, Integer>());
+        }
+
+        increment(counts.get(context), word);
+    }
+
+    /**
+     * Predicts the next words by scoring every word with stupid backoff
+     */
+    private static LinkedHashMap<String, Double> naivePredict(
+            HashMap<String, Integer> unigrams,
+            HashMap<String, HashMap<String, Integer>> bigrams,
+            HashMap<String, HashMap<String, Integer>> trigrams, long total,
+            String sentence, int k) {
+        String[] tokens = sentence.split(" ");
+        String last = tokens[tokens.length - 1];
+        HashMap<String, Integer> afterLast = bigrams.get(last);
+        HashMap<String, Integer> afterBoth = tokens.length > 1
+                ? trigrams.get(sentence) : null;
+        TreeMap<String, Double> scores = new TreeMap<>();
+
+        for (Map.Entry<String, Integer> pair : unigrams.entrySet()) {
+            String word = pair.getKey();
+            double weight = 1;
+
+            if (tokens.length > 1) {
+                if (afterBoth != null && afterBoth.containsKey(word)) {
+                    scores.put(word, afterBoth.get(word)
+                            / (double) sum(afterBoth));
+                    continue;
+                }
+
+                weight *= BACKOFF;
+            }
+
+            if (afterLast != null && afterLast.containsKey(word)) {
+                scores.put(word, weight * afterLast.get(word)
+                        / (double) sum(afterLast));
+                continue;
+            }
+
+            weight *= BACKOFF;
+
+            scores.put(word, weight * pair.getValue() / total);
+        }
+
+        ArrayList<Map.Entry<String, Double>> ranked
+                = new ArrayList<>(scores.entrySet());
+        LinkedHashMap<String, Double> predictions = new LinkedHashMap<>();
+
+        // Stable sort keeps equal scores alphabetical
+        Collections.sort(ranked, new Comparator<Map.Entry<String, Double>>() {
+            @Override
+            public int compare(Map.Entry<String, Double> a,
+                    Map.Entry<String, Double> b) {
+                return Double.compare(b.getValue(), a.getValue());
+            }
+        });
+
+        for (int i = 0; i < Math.min(k, ranked.size()); i++) {
+            predictions.put(ranked.get(i).getKey(), ranked.get(i).getValue());
+        }
+
+        return predictions;
+    }
+
+    private static int sum(HashMap<String, Integer> counts) {
+        int sum = 0;
+
+        for (int count : counts.values()) {
+            sum += count;
+        }
+
+        return sum;
+    }
+}
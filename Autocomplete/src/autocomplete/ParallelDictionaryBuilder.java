@@ -0,0 +1,212 @@
+/** ***************************************************************************
+ *
+ * File        : ParallelDictionaryBuilder.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that forms a dictionary by counting chunks of a
+ *               document in parallel.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits a document into byte ranges that start and end on delimiters, so
+ * no word is cut in two, and counts each range with its own WordCounter in
+ * a fork-join task. Partial counts are merged as tasks join. Delimiters are
+ * all single byte characters that never occur inside a multi-byte UTF-8
+ * character, so a range boundary never splits a character either.
+ *
+ * @author Ali Jarjis
+ */
+public class ParallelDictionaryBuilder {
+
+    private static final long MIN_CHUNK = 256 * 1024;
+
+    private ParallelDictionaryBuilder() {}
+
+    /**
+     * Forms a dictionary (sorted alphabetically) from a comma separated text
+     * document, counting chunks of it in parallel
+     *
+     * @param file          address of file to read from
+     * @param parallelism   number of threads to count with
+     * @return              hash table of words and their frequency
+     * @throws IOException if file cannot be read
+     */
+    public static TreeMap<String, Integer> formDictionary(String file,
+            int parallelism) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            long chunk = Math.max(MIN_CHUNK, size / (parallelism * 4L));
+
+            WordCounter counter = pool.invoke(
+                    new CountTask(channel, 0, size, chunk));
+
+            return counter.toDictionary();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+            in.close();
+        }
+    }
+
+    /**
+     * Finds the first delimiter at or after a position
+     *
+     * @param channel   channel to search
+     * @param position  position to search from
+     * @param end       position to stop searching at
+     * @return          position of the delimiter, or end if there is none
+     * @throws IOException if channel cannot be read
+     */
+    static long alignToDelimiter(FileChannel channel, long position,
+            long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        while (position < end) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+
+            if (read == -1) {
+                break;
+            }
+
+            for (int i = 0; i < read && position + i < end; i++) {
+                if (CorpusTokenizer.isDelimiter((char) buffer.get(i))) {
+                    return position + i;
+                }
+            }
+
+            position += read;
+        }
+
+        return end;
+    }
+
+    /**
+     * Counts the words in a byte range, splitting it in two while it is
+     * larger than a chunk
+     */
+    private static class CountTask extends RecursiveTask<WordCounter> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final long chunk;
+
+        CountTask(FileChannel channel, long start, long end, long chunk) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected WordCounter compute() {
+            try {
+                if (end - start > chunk) {
+                    long middle = alignToDelimiter(channel,
+                            start + (end - start) / 2, end);
+
+                    if (middle > start && middle < end) {
+                        CountTask left = new CountTask(channel, start, middle,
+                                chunk);
+                        CountTask right = new CountTask(channel, middle, end,
+                                chunk);
+
+                        left.fork();
+                        WordCounter counter = right.compute();
+                        counter.merge(left.join());
+
+                        return counter;
+                    }
+                }
+
+                WordCounter counter = new WordCounter();
+                new CorpusTokenizer().tokenize(channel, start, end, counter);
+
+                return counter;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String file = args.length > 0 ? args[0] : null;
+
+        // Without a corpus given, repeats the trilogy to give threads work
+        if (file == null) {
+            File corpus = File.createTempFile("lotr", ".csv");
+            corpus.deleteOnExit();
+            byte[] lotr = Files.readAllBytes(new File("lotr.csv").toPath());
+            FileOutputStream out = new FileOutputStream(corpus);
+
+            for (int i = 0; i < 300; i++) {
+                out.write(lotr);
+                out.write('\n');
+            }
+
+            out.close();
+            file = corpus.getPath();
+        }
+
+        // Tests that the saved dictionary is byte for byte the same
+        File sequentialFile = File.createTempFile("sequential", ".txt");
+        File parallelFile = File.createTempFile("parallel", ".txt");
+        sequentialFile.deleteOnExit();
+        parallelFile.deleteOnExit();
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        DictionaryMaker.saveToFile(DictionaryMaker.formDictionaryFromCSV(file),
+                sequentialFile.getPath());
+        DictionaryMaker.saveToFile(formDictionary(file, cores),
+                parallelFile.getPath());
+
+        System.out.println("Byte identical output? " + Arrays.equals(
+                Files.readAllBytes(sequentialFile.toPath()),
+                Files.readAllBytes(parallelFile.toPath())));
+
+        // Times each thread count, taking the best of several runs
+        double baseline = 0;
+
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            long best = Long.MAX_VALUE;
+
+            for (int r = 0; r < 5; r++) {
+                long start = System.nanoTime();
+                formDictionary(file, threads);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+
+            if (threads == 1) {
+                baseline = best;
+            }
+
+            System.out.printf("%d thread(s): %.1f ms, speedup %.2fx%n",
+                    threads, best / 1e6, baseline / best);
+        }
+    }
+}
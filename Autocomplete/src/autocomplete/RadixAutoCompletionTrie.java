@@ -0,0 +1,365 @@
+/** ***************************************************************************
+ *
+ * File        : RadixAutoCompletionTrie.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class to model a path-compressed (radix) trie, where chains
+ *               of single offspring collapse into one labelled edge.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import static autocomplete.DictionaryMaker.readWordsFromCSV;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ *
+ * @author Ali Jarjis
+ */
+public class RadixAutoCompletionTrie {
+
+    RadixAutoCompletionTrieNode root;
+    String rootPath;
+
+    /**
+     * Constructs an empty trie
+     */
+    public RadixAutoCompletionTrie() {
+        this.root = new RadixAutoCompletionTrieNode(new char[0]);
+        this.rootPath = "";
+    }
+
+    /**
+     * Constructs a trie rooted at a given node, without altering the node
+     *
+     * @param root      node to set as root
+     * @param rootPath  word formed by the path to the root
+     */
+    RadixAutoCompletionTrie(RadixAutoCompletionTrieNode root,
+            String rootPath) {
+        this.root = root;
+        this.rootPath = rootPath;
+    }
+
+    /**
+     * Adds a dictionary of words with their frequency to a trie
+     *
+     * @param dictionary dictionary to add
+     * @return trie formed from words in dictionary
+     */
+    public static RadixAutoCompletionTrie addDictionary(TreeMap<String,
+            Integer> dictionary) {
+        RadixAutoCompletionTrie dictionaryTrie = new RadixAutoCompletionTrie();
+
+        Set<String> keys = dictionary.keySet();
+
+        // Adds each element in dictionary to trie
+        for (String k : keys) {
+            dictionaryTrie.add(k, dictionary.get(k));
+        }
+
+        return dictionaryTrie;
+    }
+
+    /**
+     * Adds a key to the trie, splitting an edge if the key leaves it part
+     * way along
+     *
+     * @param key           key to add to trie
+     * @param frequency     amount of times to add this key to trie
+     * @return              true if successful, else false
+     */
+    public boolean add(String key, int frequency) {
+        String word = key.toLowerCase();
+        boolean success = false;
+        RadixAutoCompletionTrieNode currentNode = this.root;
+        ArrayList<RadixAutoCompletionTrieNode> path = new ArrayList<>();
+        path.add(currentNode);
+        int i = 0;
+
+        // Follows edges matching the key, adding or splitting where it leaves
+        while (i < word.length()) {
+            RadixAutoCompletionTrieNode child
+                    = currentNode.getOffspring(word.charAt(i));
+
+            if (child == null) {
+                child = new RadixAutoCompletionTrieNode(
+                        word.substring(i).toCharArray());
+                currentNode.addOffspring(child);
+                success = true;
+                i = word.length();
+            } else {
+                int common = commonLength(child.label, word, i);
+
+                if (common < child.label.length) {
+                    child = split(currentNode, child, common);
+                    success = true;
+                }
+
+                i += common;
+            }
+
+            currentNode = child;
+            path.add(currentNode);
+        }
+
+        int change = currentNode.isWord
+                ? frequency - currentNode.frequency : frequency;
+
+        currentNode.isWord = true;
+        currentNode.frequency = frequency;
+
+        // Updates subtree aggregates of every node on the key's path, deepest
+        // first, as each maximum relies on its offspring's maximum
+        for (int j = path.size() - 1; j >= 0; j--) {
+            path.get(j).subtreeFrequency += change;
+            path.get(j).refreshMaxFrequency();
+        }
+
+        return success;
+    }
+
+    /**
+     * Checks if key exists in trie
+     *
+     * @param key key to search for
+     * @return true if key exists, else false
+     */
+    public boolean contains(String key) {
+        String word = key.toLowerCase();
+        RadixAutoCompletionTrieNode currentNode = this.root;
+        int i = 0;
+
+        // Follows whole edges only, as a key ending mid-edge is not a word
+        while (i < word.length()) {
+            RadixAutoCompletionTrieNode nextNode
+                    = currentNode.getOffspring(word.charAt(i));
+
+            if (nextNode == null || commonLength(nextNode.label, word, i)
+                    < nextNode.label.length) {
+                return false;
+            }
+
+            i += nextNode.label.length;
+            currentNode = nextNode;
+        }
+
+        // Returns true if key is a whole word in Trie
+        return currentNode.isWord;
+    }
+
+    /**
+     * Retrieves a new trie rooted at a given prefix, which may end part way
+     * along an edge
+     *
+     * @param prefix prefix to root trie at
+     * @return sub-trie rooted at given prefix if exists, else null
+     */
+    public RadixAutoCompletionTrie getSubTrie(String prefix) {
+        String word = prefix.toLowerCase();
+        RadixAutoCompletionTrieNode currentNode = this.root;
+        int i = 0;
+        int edgeStart = 0;
+
+        while (i < word.length()) {
+            RadixAutoCompletionTrieNode nextNode
+                    = currentNode.getOffspring(word.charAt(i));
+
+            // Return null if prefix does not exist in trie
+            if (nextNode == null) {
+                return null;
+            }
+
+            int common = commonLength(nextNode.label, word, i);
+
+            // The rest of the prefix must match the edge up to where either
+            // ends, every word below then starts with the whole edge
+            if (common < nextNode.label.length && i + common < word.length()) {
+                return null;
+            }
+
+            edgeStart = i;
+            i += nextNode.label.length;
+            currentNode = nextNode;
+        }
+
+        // Completes the last edge if the prefix stopped part way along it
+        String path = i == word.length() ? word 
+                : word.substring(0, edgeStart) + new String(currentNode.label);
+
+        return new RadixAutoCompletionTrie(currentNode,
+                rootPath.isEmpty() ? path : rootPath + path);
+    }
+
+    /**
+     * Retrieves the k most frequent words that match a given prefix, using a
+     * best-first search bounded by each subtree's highest frequency
+     *
+     * @param prefix    prefix to search for
+     * @param k         maximum number of words to retrieve
+     * @return          words mapped to their frequency, ordered by frequency
+     *                  (decreasing) and then alphabetically
+     */
+    public LinkedHashMap<String, Integer> getTopKWords(String prefix, int k) {
+        RadixAutoCompletionTrie queryTrie = getSubTrie(prefix);
+
+        if (queryTrie == null) {
+            return new LinkedHashMap<>();
+        }
+
+        RankedSearch<RadixAutoCompletionTrieNode> search
+                = new RankedSearch<RadixAutoCompletionTrieNode>(
+                        queryTrie.root, queryTrie.rootPath,
+                        queryTrie.root.maxFrequency) {
+            @Override
+            void expand(RadixAutoCompletionTrieNode currentNode,
+                    String word) {
+                if (currentNode.isWord) {
+                    addWord(currentNode, word, currentNode.frequency);
+                }
+
+                // Add all offspring of current node bounded by their maximum
+                for (int i = 0; i < currentNode.offspringCount; i++) {
+                    RadixAutoCompletionTrieNode child
+                            = currentNode.offspring[i];
+
+                    addNode(child, word + new String(child.label),
+                            child.maxFrequency);
+                }
+            }
+        };
+
+        return search.getTopKWords(k);
+    }
+
+    /**
+     * Counts the nodes in the trie (iteratively)
+     *
+     * @return number of nodes in the trie
+     */
+    public int nodeCount() {
+        int count = 0;
+        ArrayList<RadixAutoCompletionTrieNode> stack = new ArrayList<>();
+        stack.add(root);
+
+        while (!stack.isEmpty()) {
+            RadixAutoCompletionTrieNode currentNode
+                    = stack.remove(stack.size() - 1);
+            count++;
+
+            for (int i = 0; i < currentNode.offspringCount; i++) {
+                stack.add(currentNode.offspring[i]);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Splits an edge in two, inserting a new node part way along it
+     *
+     * @param parent    node the edge leaves
+     * @param child     node the edge leads to
+     * @param at        number of characters to keep on the upper edge
+     * @return          the new node in the middle of the edge
+     */
+    private static RadixAutoCompletionTrieNode split(
+            RadixAutoCompletionTrieNode parent,
+            RadixAutoCompletionTrieNode child, int at) {
+        RadixAutoCompletionTrieNode middle = new RadixAutoCompletionTrieNode(
+                Arrays.copyOfRange(child.label, 0, at));
+
+        parent.replaceOffspring(middle);
+
+        child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+        middle.addOffspring(child);
+        middle.subtreeFrequency = child.subtreeFrequency;
+        middle.maxFrequency = child.maxFrequency;
+
+        return middle;
+    }
+
+    /**
+     * Counts how many characters of a label match a key from a given position
+     *
+     * @param label     edge label to compare
+     * @param key       key to compare against
+     * @param from      position in key to start comparing from
+     * @return          length of the common run
+     */
+    private static int commonLength(char[] label, String key, int from) {
+        int length = Math.min(label.length, key.length() - from);
+        int i = 0;
+
+        while (i < length && label[i] == key.charAt(from + i)) {
+            i++;
+        }
+
+        return i;
+    }
+
+    public static void main(String[] args) throws IOException {
+        ArrayList<String> lotr = readWordsFromCSV("lotr.csv");
+        ArrayList<String> lotrQueries = readWordsFromCSV("lotrQueries.csv");
+        TreeMap<String, Integer> dictionary
+                = DictionaryMaker.formDictionary(lotr);
+
+        AutoCompletionTrie trie = AutoCompletion.addDictionary(dictionary);
+        RadixAutoCompletionTrie radixTrie = addDictionary(dictionary);
+
+        // Tests that both tries give the same answers
+        boolean same = true;
+
+        for (String q : lotrQueries) {
+            same &= trie.getTopKWords(q, 3)
+                    .equals(radixTrie.getTopKWords(q, 3));
+            same &= trie.contains(q) == radixTrie.contains(q);
+        }
+
+        System.out.println("Same answers for queries? " + same);
+        System.out.println("Nodes (trie): " + trie.nodeCount());
+        System.out.println("Nodes (radix): " + radixTrie.nodeCount());
+
+        // Times walking every dictionary word as a prefix, after a warm up
+        Set<String> keys = dictionary.keySet();
+        int rounds = 200;
+        long trieTime = 0;
+        long radixTime = 0;
+
+        for (int r = 0; r < rounds * 2; r++) {
+            long start = System.nanoTime();
+
+            for (String k : keys) {
+                trie.getSubTrie(k);
+            }
+
+            long middle = System.nanoTime();
+
+            for (String k : keys) {
+                radixTrie.getSubTrie(k);
+            }
+
+            long end = System.nanoTime();
+
+            if (r >= rounds) {
+                trieTime += middle - start;
+                radixTime += end - middle;
+            }
+        }
+
+        long walks = (long) rounds * keys.size();
+
+        System.out.printf("Prefix walk (trie): %.1f ns%n",
+                (double) trieTime / walks);
+        System.out.printf("Prefix walk (radix): %.1f ns%n",
+                (double) radixTime / walks);
+    }
+}
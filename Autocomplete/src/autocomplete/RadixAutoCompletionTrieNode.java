@@ -0,0 +1,130 @@
+/** ***************************************************************************
+ *
+ * File        : RadixAutoCompletionTrieNode.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class to model a node in a path-compressed trie, reached
+ *               by an edge labelled with a run of characters.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Ali Jarjis
+ */
+public class RadixAutoCompletionTrieNode {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final RadixAutoCompletionTrieNode[] NO_OFFSPRING
+            = new RadixAutoCompletionTrieNode[0];
+
+    char[] label;
+    char[] keys;
+    RadixAutoCompletionTrieNode[] offspring;
+    int offspringCount;
+    boolean isWord;
+    int frequency;
+    int subtreeFrequency;
+    int maxFrequency;
+
+    /**
+     * Constructs a node reached by an edge with a given label
+     *
+     * @param label characters on the edge leading to this node
+     */
+    public RadixAutoCompletionTrieNode(char[] label) {
+        this.label = label;
+        this.keys = NO_KEYS;
+        this.offspring = NO_OFFSPRING;
+        this.offspringCount = 0;
+        this.isWord = false;
+        this.frequency = 0;
+        this.subtreeFrequency = 0;
+        this.maxFrequency = 0;
+    }
+
+    /**
+     * Recovers the offspring whose edge starts with a given character
+     *
+     * @param c     first character of the offspring's edge
+     * @return      the offspring node, if exists else null
+     */
+    public RadixAutoCompletionTrieNode getOffspring(char c) {
+        int pos = findOffspring(c);
+
+        return pos >= 0 ? offspring[pos] : null;
+    }
+
+    /**
+     * Adds an offspring, keeping offspring in alphabetical order of their
+     * edge's first character
+     *
+     * @param child offspring to add, whose first character is not yet used
+     */
+    public void addOffspring(RadixAutoCompletionTrieNode child) {
+        int pos = -(findOffspring(child.label[0]) + 1);
+
+        if (offspringCount == offspring.length) {
+            int capacity = Math.max(2, offspringCount * 2);
+
+            keys = Arrays.copyOf(keys, capacity);
+            offspring = Arrays.copyOf(offspring, capacity);
+        }
+
+        System.arraycopy(keys, pos, keys, pos + 1, offspringCount - pos);
+        System.arraycopy(offspring, pos, offspring, pos + 1,
+                offspringCount - pos);
+        keys[pos] = child.label[0];
+        offspring[pos] = child;
+        offspringCount++;
+    }
+
+    /**
+     * Replaces the offspring whose edge starts with the same character as a
+     * given node
+     *
+     * @param child offspring to put in place of the existing one
+     */
+    public void replaceOffspring(RadixAutoCompletionTrieNode child) {
+        offspring[findOffspring(child.label[0])] = child;
+    }
+
+    /**
+     * Recomputes the highest frequency of any word under this node
+     */
+    public void refreshMaxFrequency() {
+        int max = isWord ? frequency : 0;
+
+        for (int i = 0; i < offspringCount; i++) {
+            max = Math.max(max, offspring[i].maxFrequency);
+        }
+
+        maxFrequency = max;
+    }
+
+    /**
+     * Searches the first characters of the offspring's edges, which are
+     * kept beside the offspring so the scan stays within one array
+     *
+     * @param c     first character to search for
+     * @return      position of the offspring if present, else (-(insertion
+     *              point) - 1)
+     */
+    private int findOffspring(char c) {
+        for (int i = 0; i < offspringCount; i++) {
+            if (keys[i] == c) {
+                return i;
+            } else if (keys[i] > c) {
+                return -(i + 1);
+            }
+        }
+
+        return -(offspringCount + 1);
+    }
+}
@@ -0,0 +1,183 @@
+/** ***************************************************************************
+ *
+ * File        : RankedSearch.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that finds the most frequent words under a trie
+ *               node with a best-first search, whatever the trie's layout.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.util.LinkedHashMap;
+import java.util.PriorityQueue;
+
+/**
+ * A best-first search over the nodes and words under a trie node, ranked by
+ * the highest frequency each can lead to. Every trie keeps the same bound,
+ * the highest frequency in a subtree, so only expanding a node differs
+ * between them and is left to a subclass. Words leave the queue in rank
+ * order, so each one is found having explored only the branches that could
+ * beat it.
+ *
+ * @author Ali Jarjis
+ * @param <N> type of the trie's nodes
+ */
+abstract class RankedSearch<N> {
+
+    private final PriorityQueue<Candidate<N>> queue;
+    private int visited;
+    private int scanned;
+
+    /**
+     * Constructs a search from a node
+     *
+     * @param node          node to search from
+     * @param word          word formed by the path to the node
+     * @param maxFrequency  highest frequency under the node
+     */
+    RankedSearch(N node, String word, int maxFrequency) {
+        this.queue = new PriorityQueue<>();
+        this.visited = 0;
+        this.scanned = 0;
+        addNode(node, word, maxFrequency);
+    }
+
+    /**
+     * Queues the word a node ends, if any, and each of its offspring
+     *
+     * @param node  node to expand
+     * @param word  word formed by the path to the node
+     */
+    abstract void expand(N node, String word);
+
+    /**
+     * Queues a word a node ends
+     *
+     * @param node      node the word ends on
+     * @param word      the word
+     * @param frequency frequency of the word
+     */
+    final void addWord(N node, String word, int frequency) {
+        queue.add(new Candidate<>(node, word, frequency, true));
+        scanned++;
+    }
+
+    /**
+     * Queues a node to expand, unless no word under it has a frequency
+     *
+     * @param node          node to queue
+     * @param word          word formed by the path to the node
+     * @param maxFrequency  highest frequency under the node
+     */
+    final void addNode(N node, String word, int maxFrequency) {
+        if (maxFrequency > 0) {
+            queue.add(new Candidate<>(node, word, maxFrequency, false));
+        }
+    }
+
+    /**
+     * Searches until the next word leaves the queue
+     *
+     * @return the next word in rank order, or null if there are no more
+     */
+    final Candidate<N> nextWord() {
+        while (!queue.isEmpty()) {
+            Candidate<N> candidate = queue.remove();
+
+            if (candidate.isWord) {
+                return candidate;
+            }
+
+            visited++;
+            expand(candidate.node, candidate.word);
+        }
+
+        return null;
+    }
+
+    /**
+     * Retrieves the next k words in rank order
+     *
+     * @param k maximum number of words to retrieve
+     * @return  words mapped to their frequency, ordered by frequency
+     *          (decreasing) and then alphabetically
+     */
+    final LinkedHashMap<String, Integer> getTopKWords(int k) {
+        LinkedHashMap<String, Integer> topWords = new LinkedHashMap<>();
+
+        // Candidates leave the queue in rank order, so the search stops as
+        // soon as k words have left it, no unexplored branch can beat them
+        while (topWords.size() < k) {
+            Candidate<N> candidate = nextWord();
+
+            if (candidate == null) {
+                break;
+            }
+
+            topWords.put(candidate.word, candidate.priority);
+        }
+
+        return topWords;
+    }
+
+    /**
+     * Retrieves the number of nodes expanded so far
+     *
+     * @return nodes visited
+     */
+    final int visited() {
+        return visited;
+    }
+
+    /**
+     * Retrieves the number of words queued so far
+     *
+     * @return words scanned
+     */
+    final int scanned() {
+        return scanned;
+    }
+
+    /**
+     * A node or word waiting to be explored by the best-first search, ranked
+     * by the highest frequency it can lead to
+     *
+     * @param <N> type of the trie's nodes
+     */
+    static final class Candidate<N> implements Comparable<Candidate<N>> {
+        final N node;
+        final String word;
+        final int priority;
+        final boolean isWord;
+
+        Candidate(N node, String word, int priority, boolean isWord) {
+            this.node = node;
+            this.word = word;
+            this.priority = priority;
+            this.isWord = isWord;
+        }
+
+        /**
+         * Orders by priority (decreasing), then alphabetically, with a word
+         * ahead of the node it ends on so ties come out alphabetically
+         */
+        @Override
+        public int compareTo(Candidate<N> other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+
+            int order = word.compareTo(other.word);
+
+            if (order != 0) {
+                return order;
+            }
+
+            return Boolean.compare(other.isWord, isWord);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/** ***************************************************************************
+ *
+ * File        : RankedWordIterator.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that lazily walks the words under a trie node from
+ *               most to least frequent.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks the words under a node by frequency (decreasing) and then
+ * alphabetically, the order getTopKWords uses. It is the same best-first
+ * search carried on for as long as words are asked for, so reading the
+ * first n words explores only the branches that can hold them. The trie
+ * must not be changed while it is walked.
+ *
+ * @author Ali Jarjis
+ */
+class RankedWordIterator implements Iterator<Map.Entry<String, Integer>> {
+
+    private final RankedSearch<AutoCompletionTrieNode> search;
+    private RankedSearch.Candidate<AutoCompletionTrieNode> nextWord;
+    private long remaining;
+
+    /**
+     * Constructs an iterator over the words under a node
+     *
+     * @param node      node to walk from
+     * @param prefix    word formed by the path to the node
+     * @param limit     most words to give
+     */
+    RankedWordIterator(AutoCompletionTrieNode node, String prefix,
+            long limit) {
+        this.search = AutoCompletionTrie.rankedSearch(node,
+                prefix.toLowerCase());
+        this.remaining = limit;
+    }
+
+    /**
+     * Moves the walk past every word ranked up to and including a given
+     * word. Words ranked before it are still searched, so resuming deep
+     * into the order costs as much as reaching that point.
+     *
+     * @param after     word to resume after
+     * @param frequency frequency of the word
+     */
+    void skipTo(String after, int frequency) {
+        RankedSearch.Candidate<AutoCompletionTrieNode> last
+                = new RankedSearch.Candidate<>(null, after.toLowerCase(),
+                        frequency, true);
+
+        while (advance() && nextWord.compareTo(last) <= 0) {
+            nextWord = null;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining > 0 && advance();
+    }
+
+    @Override
+    public Map.Entry<String, Integer> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        RankedSearch.Candidate<AutoCompletionTrieNode> word = nextWord;
+        nextWord = null;
+        remaining--;
+
+        return new AbstractMap.SimpleImmutableEntry<>(word.word,
+                word.priority);
+    }
+
+    /**
+     * Searches until the next word leaves the queue
+     *
+     * @return true if there is a next word, else false
+     */
+    private boolean advance() {
+        if (nextWord == null) {
+            nextWord = search.nextWord();
+        }
+
+        return nextWord != null;
+    }
+}
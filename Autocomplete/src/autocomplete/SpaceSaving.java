@@ -0,0 +1,466 @@
+/** ***************************************************************************
+ *
+ * File        : SpaceSaving.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that finds the most frequent words of a stream
+ *               while keeping a fixed number of them.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+
+/**
+ * Keeps at most a fixed number of words, each with a count, using the
+ * Space-Saving algorithm. A word already kept has its count raised. A new
+ * word takes the place of the kept word with the least count, inheriting
+ * that count as its possible error, so a count is never below the word's
+ * true count and at most its error above it. Any word occurring more than
+ * total / capacity times is sure to be kept.
+ *
+ * Kept words are found through an open-addressing table keyed by their
+ * characters, so counting a kept word allocates nothing, and the least
+ * counted word is at the top of a min-heap. Counts stop at
+ * Integer.MAX_VALUE rather than wrapping.
+ *
+ * @author Ali Jarjis
+ */
+public class SpaceSaving implements TokenConsumer {
+
+    private final int capacity;
+    private final String[] words;
+    private final int[] hashes;
+    private final int[] counts;
+    private final int[] errors;
+
+    // Ids ordered as a min-heap by count, and the position of each id
+    private final int[] heap;
+    private final int[] positions;
+
+    // Slots hold (id + 1), so 0 marks an empty slot
+    private final int[] table;
+    private final int mask;
+
+    private int size;
+    private long total;
+
+    /**
+     * Constructs a summary keeping up to a number of words
+     *
+     * @param capacity  most words to keep
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity < 1 || capacity > 1 << 28) {
+            throw new IllegalArgumentException("Capacity must be from 1 to "
+                    + (1 << 28));
+        }
+
+        this.capacity = capacity;
+        this.words = new String[capacity];
+        this.hashes = new int[capacity];
+        this.counts = new int[capacity];
+        this.errors = new int[capacity];
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.table = new int[Integer.highestOneBit(capacity) * 4];
+        this.mask = table.length - 1;
+        this.size = 0;
+        this.total = 0;
+    }
+
+    /**
+     * Counts one occurrence of a token
+     *
+     * @param token     buffer holding the token's characters
+     * @param length    number of characters in the token
+     */
+    @Override
+    public void accept(char[] token, int length) {
+        offer(token, 0, length, 1);
+    }
+
+    /**
+     * Adds to the count of a word held in a buffer, keeping it in place of
+     * the least counted word if it is not already kept
+     *
+     * @param buffer    buffer holding the word's characters
+     * @param offset    position of the word's first character
+     * @param length    number of characters in the word
+     * @param amount    amount to add, not negative
+     * @return          the word's new count
+     */
+    public int offer(char[] buffer, int offset, int length, int amount) {
+        int hash = hash(buffer, offset, length);
+        int id = find(buffer, offset, length, hash);
+
+        total += amount;
+
+        if (id >= 0) {
+            counts[id] = saturatedAdd(counts[id], amount);
+            siftDown(positions[id]);
+
+            return counts[id];
+        }
+
+        if (size < capacity) {
+            id = size++;
+            errors[id] = 0;
+            counts[id] = amount;
+            heap[id] = id;
+            positions[id] = id;
+        } else {
+            // Replaces the least counted word, whose count bounds the
+            // newcomer's earlier occurrences
+            id = heap[0];
+            removeSlot(id);
+            errors[id] = counts[id];
+            counts[id] = saturatedAdd(counts[id], amount);
+        }
+
+        words[id] = new String(buffer, offset, length);
+        hashes[id] = hash;
+        insertSlot(id);
+        siftUp(positions[id]);
+        siftDown(positions[id]);
+
+        return counts[id];
+    }
+
+    /**
+     * Raises a word's count to an estimate made elsewhere, such as by a
+     * CountMinSketch, keeping the word in place of the least counted one
+     * only if the estimate is higher. Rare words then never displace kept
+     * ones, at the cost of counts being only as good as the estimates.
+     *
+     * @param buffer    buffer holding the word's characters
+     * @param offset    position of the word's first character
+     * @param length    number of characters in the word
+     * @param estimate  estimated count of the word, never below its true
+     *                  count
+     * @return          true if the word is kept, else false
+     */
+    public boolean admit(char[] buffer, int offset, int length,
+            int estimate) {
+        int hash = hash(buffer, offset, length);
+        int id = find(buffer, offset, length, hash);
+
+        total++;
+
+        if (id >= 0) {
+            if (estimate > counts[id]) {
+                counts[id] = estimate;
+                siftDown(positions[id]);
+            }
+
+            return true;
+        }
+
+        if (size < capacity) {
+            id = size++;
+            heap[id] = id;
+            positions[id] = id;
+        } else if (estimate > counts[heap[0]]) {
+            id = heap[0];
+            removeSlot(id);
+        } else {
+            return false;
+        }
+
+        words[id] = new String(buffer, offset, length);
+        hashes[id] = hash;
+        counts[id] = estimate;
+        errors[id] = 0;
+        insertSlot(id);
+        siftUp(positions[id]);
+        siftDown(positions[id]);
+
+        return true;
+    }
+
+    /**
+     * Retrieves the count of a word, which is never below its true count
+     *
+     * @param word  word to look up
+     * @return      count of the word, or 0 if it is not kept
+     */
+    public int count(String word) {
+        int id = find(word);
+
+        return id >= 0 ? counts[id] : 0;
+    }
+
+    /**
+     * Retrieves the most a word's count may exceed its true count by
+     *
+     * @param word  word to look up
+     * @return      error of the word's count, or 0 if it is not kept
+     */
+    public int error(String word) {
+        int id = find(word);
+
+        return id >= 0 ? errors[id] : 0;
+    }
+
+    /**
+     * Checks if a word is kept
+     *
+     * @param word  word to look up
+     * @return      true if kept, else false
+     */
+    public boolean contains(String word) {
+        return find(word) >= 0;
+    }
+
+    /**
+     * Retrieves the most times a word that is not kept can have occurred
+     *
+     * @return least count kept once full, else 0
+     */
+    public int unkeptBound() {
+        return size < capacity ? 0 : counts[heap[0]];
+    }
+
+    /**
+     * Retrieves every kept word
+     *
+     * @return kept words, in no order
+     */
+    public String[] words() {
+        return Arrays.copyOf(words, size);
+    }
+
+    /**
+     * Retrieves the words with the highest counts
+     *
+     * @param k number of words to retrieve
+     * @return  words mapped to their counts, by count (decreasing) and then
+     *          alphabetically
+     */
+    public LinkedHashMap<String, Integer> getTopKWords(int k) {
+        Integer[] ids = new Integer[size];
+
+        for (int id = 0; id < size; id++) {
+            ids[id] = id;
+        }
+
+        Arrays.sort(ids, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return counts[a] != counts[b]
+                        ? Integer.compare(counts[b], counts[a])
+                        : words[a].compareTo(words[b]);
+            }
+        });
+
+        LinkedHashMap<String, Integer> top = new LinkedHashMap<>();
+
+        for (int i = 0; i < Math.min(k, size); i++) {
+            top.put(words[ids[i]], counts[ids[i]]);
+        }
+
+        return top;
+    }
+
+    /**
+     * Retrieves the number of words kept
+     *
+     * @return number of words kept
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the most words kept
+     *
+     * @return capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Retrieves the total of every count offered
+     *
+     * @return total count
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Estimates the bytes held by the summary, its words included
+     *
+     * @return bytes used by the summary
+     */
+    public long sizeInBytes() {
+        long bytes = (long) capacity * (Integer.BYTES * 5 + 8)
+                + (long) table.length * Integer.BYTES;
+
+        // Counts each String's header, array header and characters
+        for (int id = 0; id < size; id++) {
+            bytes += 40 + (long) words[id].length() * Character.BYTES;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Finds the id of a word
+     */
+    private int find(String word) {
+        char[] chars = word.toCharArray();
+
+        return find(chars, 0, chars.length, hash(chars, 0, chars.length));
+    }
+
+    /**
+     * Finds the id of a word held in a buffer
+     *
+     * @return id of the word if kept, else -1
+     */
+    private int find(char[] buffer, int offset, int length, int hash) {
+        for (int slot = hash & mask; table[slot] != 0;
+                slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+
+            if (hashes[id] == hash && equalsKey(id, buffer, offset, length)) {
+                return id;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Checks if a kept word matches a buffer
+     */
+    private boolean equalsKey(int id, char[] buffer, int offset, int length) {
+        String word = words[id];
+
+        if (word.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != buffer[offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Places an id in the first empty slot from its hash
+     */
+    private void insertSlot(int id) {
+        int slot = hashes[id] & mask;
+
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = id + 1;
+    }
+
+    /**
+     * Empties an id's slot, shifting back any later id of the same probe
+     * run that could no longer be found past the gap
+     */
+    private void removeSlot(int id) {
+        int hole = hashes[id] & mask;
+
+        while (table[hole] != id + 1) {
+            hole = (hole + 1) & mask;
+        }
+
+        for (int next = (hole + 1) & mask; table[next] != 0;
+                next = (next + 1) & mask) {
+            int home = hashes[table[next] - 1] & mask;
+
+            // Moves the id back if the hole lies between its home and slot
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+
+        table[hole] = 0;
+    }
+
+    private void siftUp(int position) {
+        int id = heap[position];
+
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+
+            if (counts[heap[parent]] <= counts[id]) {
+                break;
+            }
+
+            place(heap[parent], position);
+            position = parent;
+        }
+
+        place(id, position);
+    }
+
+    private void siftDown(int position) {
+        int id = heap[position];
+
+        while (true) {
+            int child = position * 2 + 1;
+
+            if (child >= size) {
+                break;
+            }
+
+            if (child + 1 < size && counts[heap[child + 1]]
+                    < counts[heap[child]]) {
+                child++;
+            }
+
+            if (counts[heap[child]] >= counts[id]) {
+                break;
+            }
+
+            place(heap[child], position);
+            position = child;
+        }
+
+        place(id, position);
+    }
+
+    private void place(int id, int position) {
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    /**
+     * Adds a count that is not negative, stopping at Integer.MAX_VALUE
+     */
+    private static int saturatedAdd(int count, int amount) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) count + amount);
+    }
+
+    /**
+     * Hashes a word as String.hashCode does, then spreads the high bits down
+     * since only the low bits pick a slot
+     */
+    private static int hash(char[] buffer, int offset, int length) {
+        int h = 0;
+
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + buffer[offset + i];
+        }
+
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,28 @@
+/** ***************************************************************************
+ *
+ * File        : TokenConsumer.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : An interface for receiving words as they are tokenized.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+/**
+ *
+ * @author Ali Jarjis
+ */
+public interface TokenConsumer {
+
+    /**
+     * Receives a token. The buffer is reused for the next token, so it must
+     * be copied if it is kept.
+     *
+     * @param token     buffer holding the token's characters
+     * @param length    number of characters in the token
+     */
+    void accept(char[] token, int length);
+}
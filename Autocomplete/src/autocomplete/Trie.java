@@ -182,8 +182,8 @@ public class Trie {
      * @param allWords      all words currently found within trie
      * @return              a list containing all words in the trie
      */
-    public List getAllWords(TrieNode currentNode, StringBuilder word,
-            List allWords) {
+    public List<String> getAllWords(TrieNode currentNode, StringBuilder word,
+            List<String> allWords) {
         // Appends current node character to word (if valid)
         if (currentNode.value != null) {
             word.append(currentNode.value);
@@ -191,7 +191,7 @@ public class Trie {
 
         // Adds word to list once found
         if (currentNode.isWord) {
-            allWords.add(new StringBuilder(word));
+            allWords.add(word.toString());
         }
         
         // For each offspring, recursively call this method
@@ -258,7 +258,7 @@ public class Trie {
 
         // Test for getting all words from trie
         StringBuilder word = new StringBuilder();
-        List allWords = new ArrayList();
+        List<String> allWords = new ArrayList<>();
         System.out.println("\nAll Words: "
                 + myTrie.getAllWords(myTrie.root, word, allWords).toString());
     }
@@ -0,0 +1,135 @@
+/** ***************************************************************************
+ *
+ * File        : TrieSnapshot.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that writes a built trie to a versioned binary
+ *               snapshot file.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Snapshot layout (big-endian):
+ * <pre>
+ * header  int magic, int version, int node count, int record size
+ * record  int next sibling, int parent, int frequency, int max frequency,
+ *         int subtree frequency, char label, byte flags, byte padding
+ * </pre>
+ * Records are fixed size and numbered in depth-first order with offspring
+ * visited alphabetically, so a node's first offspring is the next record and
+ * numbering order is alphabetical order. A sibling link of 0 means none, as
+ * the root (record 0) is nobody's sibling.
+ *
+ * @author Ali Jarjis
+ */
+public class TrieSnapshot {
+
+    static final int MAGIC = 0x4C4F5452;    // "LOTR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 24;
+
+    static final int NEXT_SIBLING = 0;
+    static final int PARENT = 4;
+    static final int FREQUENCY = 8;
+    static final int MAX_FREQUENCY = 12;
+    static final int SUBTREE_FREQUENCY = 16;
+    static final int LABEL = 20;
+    static final int FLAGS = 22;
+
+    static final byte IS_WORD = 1;
+    static final byte HAS_OFFSPRING = 2;
+
+    private TrieSnapshot() {}
+
+    /**
+     * Writes a trie to a snapshot file
+     *
+     * @param trie  trie to write
+     * @param file  location where to write to
+     * @throws IOException if failed to write to file
+     */
+    public static void write(AutoCompletionTrie trie, String file)
+            throws IOException {
+        int nodeCount = trie.nodeCount();
+        AutoCompletionTrieNode[] nodes = new AutoCompletionTrieNode[nodeCount];
+        char[] labels = new char[nodeCount];
+        int[] parents = new int[nodeCount];
+        int[] nextSiblings = new int[nodeCount];
+
+        // Numbers nodes depth first (iteratively), linking each to the
+        // sibling numbered after it
+        ArrayList<AutoCompletionTrieNode> stack = new ArrayList<>();
+        ArrayList<Integer> stackParents = new ArrayList<>();
+        ArrayList<Character> stackLabels = new ArrayList<>();
+        int[] lastChild = new int[nodeCount];
+        int count = 0;
+
+        stack.add(trie.root);
+        stackParents.add(-1);
+        stackLabels.add('\0');
+
+        while (!stack.isEmpty()) {
+            int last = stack.size() - 1;
+            AutoCompletionTrieNode currentNode = stack.remove(last);
+            int parent = stackParents.remove(last);
+            int index = count++;
+
+            nodes[index] = currentNode;
+            labels[index] = stackLabels.remove(last);
+            parents[index] = parent;
+
+            if (parent != -1) {
+                if (lastChild[parent] != 0) {
+                    nextSiblings[lastChild[parent]] = index;
+                }
+
+                lastChild[parent] = index;
+            }
+
+            // Pushes offspring in reverse so they are numbered alphabetically
+            for (int i = currentNode.offspringCount() - 1; i >= 0; i--) {
+                stack.add(currentNode.offspringAt(i));
+                stackParents.add(index);
+                stackLabels.add(currentNode.offspringKey(i));
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)));
+
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nodeCount);
+            out.writeInt(RECORD_SIZE);
+
+            for (int i = 0; i < nodeCount; i++) {
+                AutoCompletionTrieNode node = nodes[i];
+                int flags = (node.isWord ? IS_WORD : 0)
+                        | (node.offspringCount() > 0 ? HAS_OFFSPRING : 0);
+
+                out.writeInt(nextSiblings[i]);
+                out.writeInt(parents[i]);
+                out.writeInt(node.frequency);
+                out.writeInt(node.maxFrequency);
+                out.writeInt(node.subtreeFrequency);
+                out.writeChar(labels[i]);
+                out.writeByte(flags);
+                out.writeByte(0);
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,427 @@
+/** ***************************************************************************
+ *
+ * File        : WordCounter.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that counts words in an open-addressing hash table
+ *               of primitive arrays.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.TreeMap;
+
+/**
+ * Counts words straight from a token buffer. Each distinct word is copied
+ * once into a shared character pool and given an id, and its count lives in
+ * an int array, so counting a word that has been seen before allocates
+ * nothing. Ids are handed out in order of first appearance and never change.
+ *
+ * @author Ali Jarjis
+ */
+public class WordCounter implements TokenConsumer {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private char[] pool;
+    private int poolSize;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] hashes;
+    private int[] counts;
+    private int size;
+
+    // Slots hold (id + 1), so 0 marks an empty slot
+    private int[] table;
+    private int mask;
+
+    private char[] scratch;
+
+    /**
+     * Constructs an empty counter
+     */
+    public WordCounter() {
+        this.pool = new char[INITIAL_CAPACITY * 8];
+        this.poolSize = 0;
+        this.offsets = new int[INITIAL_CAPACITY];
+        this.lengths = new int[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.counts = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.table = new int[INITIAL_CAPACITY * 2];
+        this.mask = table.length - 1;
+        this.scratch = new char[64];
+    }
+
+    /**
+     * Counts one occurrence of a token
+     *
+     * @param token     buffer holding the token's characters
+     * @param length    number of characters in the token
+     */
+    @Override
+    public void accept(char[] token, int length) {
+        increment(token, 0, length, 1);
+    }
+
+    /**
+     * Adds to the count of a word held in a buffer
+     *
+     * @param buffer    buffer holding the word's characters
+     * @param offset    position of the word's first character
+     * @param length    number of characters in the word
+     * @param amount    amount to add to the word's count
+     * @return          id of the word
+     */
+    public int increment(char[] buffer, int offset, int length, int amount) {
+        int hash = hash(buffer, offset, length);
+        int slot = hash & mask;
+
+        // Probes linearly until the word or an empty slot is found
+        while (table[slot] != 0) {
+            int id = table[slot] - 1;
+
+            if (hashes[id] == hash && equalsKey(id, buffer, offset, length)) {
+                counts[id] += amount;
+                return id;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        int id = insert(buffer, offset, length, hash, amount);
+        table[slot] = id + 1;
+
+        if (size * 2 > table.length) {
+            rehash();
+        }
+
+        return id;
+    }
+
+    /**
+     * Adds to the count of a word
+     *
+     * @param word      word to count
+     * @param amount    amount to add to the word's count
+     * @return          id of the word
+     */
+    public int increment(String word, int amount) {
+        if (word.length() > scratch.length) {
+            scratch = new char[word.length()];
+        }
+
+        word.getChars(0, word.length(), scratch, 0);
+
+        return increment(scratch, 0, word.length(), amount);
+    }
+
+    /**
+     * Adds every count from another counter to this one
+     *
+     * @param other counter to merge in
+     */
+    public void merge(WordCounter other) {
+        for (int id = 0; id < other.size; id++) {
+            increment(other.pool, other.offsets[id], other.lengths[id],
+                    other.counts[id]);
+        }
+    }
+
+    /**
+     * Retrieves the number of distinct words counted
+     *
+     * @return number of distinct words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves a word by its id
+     *
+     * @param id id of word
+     * @return the word
+     */
+    public String word(int id) {
+        return new String(pool, offsets[id], lengths[id]);
+    }
+
+    /**
+     * Copies a word's characters to the start of a buffer, without making a
+     * String of it
+     *
+     * @param id        id of word
+     * @param buffer    buffer to copy into
+     * @return          the buffer, or a larger copy if it was too short
+     */
+    char[] copyWord(int id, char[] buffer) {
+        if (buffer.length < lengths[id]) {
+            buffer = new char[Math.max(lengths[id], buffer.length * 2)];
+        }
+
+        System.arraycopy(pool, offsets[id], buffer, 0, lengths[id]);
+
+        return buffer;
+    }
+
+    /**
+     * Retrieves the length of a word by its id
+     *
+     * @param id id of word
+     * @return number of characters in the word
+     */
+    int wordLength(int id) {
+        return lengths[id];
+    }
+
+    /**
+     * Retrieves the count of a word by its id
+     *
+     * @param id id of word
+     * @return number of times the word was counted
+     */
+    public int count(int id) {
+        return counts[id];
+    }
+
+    /**
+     * Finds the id of a word
+     *
+     * @param word word to search for
+     * @return id of the word if counted, else -1
+     */
+    public int find(String word) {
+        char[] chars = word.toCharArray();
+        int hash = hash(chars, 0, chars.length);
+
+        for (int slot = hash & mask; table[slot] != 0;
+                slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+
+            if (hashes[id] == hash && equalsKey(id, chars, 0, chars.length)) {
+                return id;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Sorts word ids alphabetically by their word
+     *
+     * @return ids of every word in alphabetical order
+     */
+    public Integer[] sortedIds() {
+        Integer[] ids = new Integer[size];
+
+        for (int id = 0; id < size; id++) {
+            ids[id] = id;
+        }
+
+        Arrays.sort(ids, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return compareKeys(a, b);
+            }
+        });
+
+        return ids;
+    }
+
+    /**
+     * Forms a dictionary (sorted alphabetically) of the counted words
+     *
+     * @return hash table of words and their frequency
+     */
+    public TreeMap<String, Integer> toDictionary() {
+        TreeMap<String, Integer> dictionary = new TreeMap<>();
+
+        for (Integer id : sortedIds()) {
+            dictionary.put(word(id), counts[id]);
+        }
+
+        return dictionary;
+    }
+
+    /**
+     * Estimates the bytes held by the counter's arrays
+     *
+     * @return bytes used by the counter
+     */
+    public long sizeInBytes() {
+        return (long) pool.length * Character.BYTES
+                + (long) offsets.length * Integer.BYTES * 4
+                + (long) table.length * Integer.BYTES;
+    }
+
+    /**
+     * Compares the words of two ids the way String.compareTo does
+     *
+     * @param a first id
+     * @param b second id
+     * @return negative, zero or positive as a's word sorts before, with or
+     *         after b's
+     */
+    private int compareKeys(int a, int b) {
+        int length = Math.min(lengths[a], lengths[b]);
+
+        for (int i = 0; i < length; i++) {
+            char ca = pool[offsets[a] + i];
+            char cb = pool[offsets[b] + i];
+
+            if (ca != cb) {
+                return ca - cb;
+            }
+        }
+
+        return lengths[a] - lengths[b];
+    }
+
+    /**
+     * Checks if a counted word matches a buffer
+     */
+    private boolean equalsKey(int id, char[] buffer, int offset, int length) {
+        if (lengths[id] != length) {
+            return false;
+        }
+
+        int start = offsets[id];
+
+        for (int i = 0; i < length; i++) {
+            if (pool[start + i] != buffer[offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies a new word into the pool and gives it the next id
+     */
+    private int insert(char[] buffer, int offset, int length, int hash,
+            int amount) {
+        if (size == offsets.length) {
+            int capacity = size * 2;
+
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        if (poolSize + length > pool.length) {
+            pool = Arrays.copyOf(pool,
+                    Math.max(pool.length * 2, poolSize + length));
+        }
+
+        System.arraycopy(buffer, offset, pool, poolSize, length);
+
+        int id = size++;
+        offsets[id] = poolSize;
+        lengths[id] = length;
+        hashes[id] = hash;
+        counts[id] = amount;
+        poolSize += length;
+
+        return id;
+    }
+
+    /**
+     * Doubles the table, re-placing every id by its stored hash
+     */
+    private void rehash() {
+        table = new int[table.length * 2];
+        mask = table.length - 1;
+
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            table[slot] = id + 1;
+        }
+    }
+
+    /**
+     * Hashes a word as String.hashCode does, then spreads the high bits down
+     * since only the low bits pick a slot
+     */
+    private static int hash(char[] buffer, int offset, int length) {
+        int h = 0;
+
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + buffer[offset + i];
+        }
+
+        return h ^ (h >>> 16);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String file = "lotr.csv";
+        int rounds = 500;
+        CorpusTokenizer tokenizer = new CorpusTokenizer();
+
+        // Tests that both ways of counting give the same dictionary
+        final TreeMap<String, Integer> boxed = new TreeMap<>();
+        TokenConsumer treeCounter = new TokenConsumer() {
+            @Override
+            public void accept(char[] token, int length) {
+                String w = new String(token, 0, length);
+
+                if (boxed.containsKey(w)) {
+                    boxed.put(w, boxed.get(w) + 1);
+                } else {
+                    boxed.put(w, 1);
+                }
+            }
+        };
+
+        tokenizer.tokenize(file, treeCounter);
+        WordCounter counter = new WordCounter();
+        tokenizer.tokenize(file, counter);
+
+        System.out.println("Same dictionary? "
+                + boxed.equals(counter.toDictionary()));
+
+        // Times each way of counting, after a warm up
+        long treeTime = 0;
+        long counterTime = 0;
+        long treeBytes = 0;
+        long counterBytes = 0;
+
+        for (int r = 0; r < rounds * 2; r++) {
+            boxed.clear();
+            long start = System.nanoTime();
+            long startBytes = CompletionMetrics.threadAllocatedBytes();
+            tokenizer.tokenize(file, treeCounter);
+            long middle = System.nanoTime();
+            long middleBytes = CompletionMetrics.threadAllocatedBytes();
+            counter = new WordCounter();
+            tokenizer.tokenize(file, counter);
+            long end = System.nanoTime();
+            long endBytes = CompletionMetrics.threadAllocatedBytes();
+
+            if (r >= rounds) {
+                treeTime += middle - start;
+                counterTime += end - middle;
+                treeBytes += middleBytes - startBytes;
+                counterBytes += endBytes - middleBytes;
+            }
+        }
+
+        System.out.printf("TreeMap: %.3f ms, %d bytes allocated%n",
+                treeTime / 1e6 / rounds, treeBytes / rounds);
+        System.out.printf("WordCounter: %.3f ms, %d bytes allocated%n",
+                counterTime / 1e6 / rounds, counterBytes / rounds);
+    }
+}
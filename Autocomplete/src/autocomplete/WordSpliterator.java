@@ -0,0 +1,372 @@
+/** ***************************************************************************
+ *
+ * File        : WordSpliterator.java
+ *
+ * Date        : 17-Oct-2026
+ *
+ * Description : A class that lazily walks the words under a trie node in
+ *               alphabetical order.
+ *
+ * Author      : Ali Jarjis
+ *
+ ******************************************************************************/
+package autocomplete;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Walks the words under a node in alphabetical order, one word per call, so
+ * reading the first n words costs about n words of work however many lie
+ * under the node. The walk keeps its own stack of nodes rather than
+ * recursing, so keys of any length are safe.
+ *
+ * Each frame of the stack holds a node and the range of its offspring still
+ * to be walked. Splitting hands the first half of the shallowest range with
+ * two or more offspring, and everything before it, to a new spliterator, so
+ * a parallel stream can share out whole subtrees while still keeping order.
+ * The trie must not be changed while it is walked.
+ *
+ * @author Ali Jarjis
+ */
+class WordSpliterator implements Spliterator<Map.Entry<String, Integer>> {
+
+    private static final int INITIAL_DEPTH = 16;
+
+    private AutoCompletionTrieNode[] nodes;
+    private int[] next;
+    private int[] end;
+
+    // Characters of the path to the top node, the first base being the
+    // path to the bottom node
+    private char[] path;
+    private final int base;
+    private int top;
+
+    // Whether the top node's own word is yet to be given
+    private boolean pending;
+
+    private long remaining;
+    private long estimate;
+    private int nodesVisited;
+
+    /**
+     * Constructs a spliterator over the words under a node
+     *
+     * @param node      node to walk from
+     * @param prefix    word formed by the path to the node
+     * @param limit     most words to give
+     */
+    WordSpliterator(AutoCompletionTrieNode node, String prefix, long limit) {
+        this.base = prefix.length();
+        this.nodes = new AutoCompletionTrieNode[INITIAL_DEPTH];
+        this.next = new int[INITIAL_DEPTH];
+        this.end = new int[INITIAL_DEPTH];
+        this.path = Arrays.copyOf(prefix.toCharArray(),
+                base + INITIAL_DEPTH);
+        this.top = 0;
+        this.nodes[0] = node;
+        this.next[0] = 0;
+        this.end[0] = node.offspringCount();
+        this.pending = true;
+        this.remaining = limit;
+        this.estimate = node.wordCount;
+    }
+
+    /**
+     * Constructs a copy of another spliterator's walk
+     *
+     * @param other spliterator to copy
+     */
+    private WordSpliterator(WordSpliterator other) {
+        this.base = other.base;
+        this.nodes = other.nodes.clone();
+        this.next = other.next.clone();
+        this.end = other.end.clone();
+        this.path = other.path.clone();
+        this.top = other.top;
+        this.pending = other.pending;
+        this.remaining = other.remaining;
+        this.estimate = other.estimate;
+    }
+
+    /**
+     * Moves the walk past every word up to and including a given word, so
+     * the next word given is the first that follows it
+     *
+     * @param after word to resume after
+     */
+    void skipTo(String after) {
+        after = after.toLowerCase();
+
+        // Checks how the word compares with the path to the bottom node
+        for (int i = 0; i < base; i++) {
+            if (i == after.length() || after.charAt(i) < path[i]) {
+                return;
+            } else if (after.charAt(i) > path[i]) {
+                top = -1;
+                return;
+            }
+        }
+
+        // The word lies under the bottom node, so follows its path down
+        // skipping every offspring before it and every word along it
+        pending = false;
+
+        while (base + top < after.length()) {
+            char c = after.charAt(base + top);
+            AutoCompletionTrieNode node = nodes[top];
+            int pos = node.findKey(c);
+
+            if (pos < 0) {
+                next[top] = Math.max(next[top], -(pos + 1));
+                return;
+            }
+
+            next[top] = Math.max(next[top], pos + 1);
+            push(c, node.offspringAt(pos));
+            pending = false;
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Map.Entry<String, Integer>>
+            action) {
+        if (remaining <= 0) {
+            return false;
+        }
+
+        // Walks until the next node holding a word is reached
+        while (top >= 0) {
+            AutoCompletionTrieNode node = nodes[top];
+
+            if (pending) {
+                pending = false;
+
+                if (node.isWord) {
+                    remaining--;
+                    action.accept(new AbstractMap.SimpleImmutableEntry<>(
+                            new String(path, 0, base + top), node.frequency));
+                    return true;
+                }
+            }
+
+            if (next[top] < end[top]) {
+                int i = next[top]++;
+                push(node.offspringKey(i), node.offspringAt(i));
+            } else {
+                nodes[top--] = null;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Puts an offspring of the top node on top of the stack
+     *
+     * @param c     value of offspring
+     * @param child the offspring node
+     */
+    private void push(char c, AutoCompletionTrieNode child) {
+        if (top + 1 == nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            next = Arrays.copyOf(next, nodes.length);
+            end = Arrays.copyOf(end, nodes.length);
+        }
+
+        if (base + top == path.length) {
+            path = Arrays.copyOf(path, path.length * 2);
+        }
+
+        path[base + top] = c;
+        top++;
+        nodes[top] = child;
+        next[top] = 0;
+        end[top] = child.offspringCount();
+        pending = true;
+        nodesVisited++;
+    }
+
+    @Override
+    public Spliterator<Map.Entry<String, Integer>> trySplit() {
+        // A limit counts across the whole walk, so limited walks stay whole
+        if (remaining != Long.MAX_VALUE) {
+            return null;
+        }
+
+        // Finds the shallowest frame with two or more offspring left
+        for (int t = 0; t <= top; t++) {
+            if (end[t] - next[t] >= 2) {
+                int middle = next[t] + (end[t] - next[t]) / 2;
+                WordSpliterator prefix = new WordSpliterator(this);
+
+                // Leaves any offspring left by shallower frames to this
+                for (int j = 0; j < t; j++) {
+                    prefix.end[j] = prefix.next[j];
+                }
+
+                prefix.end[t] = middle;
+                prefix.estimate = estimate >>>= 1;
+
+                // Keeps only the second half of the frame's offspring
+                Arrays.fill(nodes, t + 1, top + 1, null);
+                next[t] = middle;
+                top = t;
+                pending = false;
+
+                return prefix;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Math.min(estimate, remaining);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL;
+    }
+
+    /**
+     * Retrieves the number of nodes the walk has stepped into
+     *
+     * @return number of nodes visited, not counting the first
+     */
+    int nodesVisited() {
+        return nodesVisited;
+    }
+
+    public static void main(String[] args) throws IOException {
+        TreeMap<String, Integer> dictionary 
+                = DictionaryMaker.formDictionaryFromCSV("lotr.csv");
+        AutoCompletionTrie trie = AutoCompletion.addDictionary(dictionary);
+        List<Map.Entry<String, Integer>> expected 
+                = new ArrayList<>(dictionary.entrySet());
+
+        // Tests walking every word alphabetically, in one go and in parallel
+        List<Map.Entry<String, Integer>> all = trie.streamWords("", false)
+                .collect(Collectors.<Map.Entry<String, Integer>>toList());
+        List<Map.Entry<String, Integer>> parallel = trie.streamWords("", true)
+                .collect(Collectors.<Map.Entry<String, Integer>>toList());
+
+        System.out.println("Alphabetical walk matches dictionary? "
+                + all.equals(expected));
+        System.out.println("Parallel walk matches dictionary? "
+                + parallel.equals(expected));
+
+        // Tests paging through the words starting with g, 20 at a time
+        List<Map.Entry<String, Integer>> pages = new ArrayList<>();
+        String after = null;
+        int pageCount = 0;
+
+        do {
+            Iterator<Map.Entry<String, Integer>> page 
+                    = trie.iterateWords("g", after, 20);
+            after = null;
+
+            while (page.hasNext()) {
+                Map.Entry<String, Integer> pair = page.next();
+                pages.add(pair);
+                after = pair.getKey();
+            }
+
+            pageCount++;
+        } while (after != null);
+
+        System.out.println("Pages of g (" + pageCount + ") match dictionary? "
+                + pages.equals(new ArrayList<>(
+                        dictionary.subMap("g", "h").entrySet())));
+
+        // Tests paging through every word by frequency
+        Collections.sort(expected,
+                new Comparator<Map.Entry<String, Integer>>() {
+            @Override
+            public int compare(Map.Entry<String, Integer> a,
+                    Map.Entry<String, Integer> b) {
+                int order = b.getValue().compareTo(a.getValue());
+
+                return order != 0 ? order : a.getKey().compareTo(b.getKey());
+            }
+        });
+
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>();
+        after = null;
+        int afterFrequency = 0;
+
+        do {
+            Iterator<Map.Entry<String, Integer>> page 
+                    = trie.iterateByFrequency("", after, afterFrequency, 500);
+            after = null;
+
+            while (page.hasNext()) {
+                Map.Entry<String, Integer> pair = page.next();
+                ranked.add(pair);
+                after = pair.getKey();
+                afterFrequency = pair.getValue();
+            }
+        } while (after != null);
+
+        System.out.println("Pages by frequency match dictionary? "
+                + ranked.equals(expected));
+
+        // Times the first 20 words under the root against every word
+        int rounds = 2000;
+        long lazyTime = 0;
+        long eagerTime = 0;
+
+        for (int r = 0; r < rounds * 2; r++) {
+            long start = System.nanoTime();
+            Iterator<Map.Entry<String, Integer>> first 
+                    = trie.iterateWords("", null, 20);
+
+            while (first.hasNext()) {
+                first.next();
+            }
+
+            long middle = System.nanoTime();
+
+            trie.getAllWords(trie.root, new StringBuilder(),
+                    new HashMap<String, Integer>());
+
+            if (r >= rounds) {
+                lazyTime += middle - start;
+                eagerTime += System.nanoTime() - middle;
+            }
+        }
+
+        System.out.printf("First 20 words: %.1f us, all %d words: %.1f us%n",
+                lazyTime / 1e3 / rounds, dictionary.size(),
+                eagerTime / 1e3 / rounds);
+
+        // Tests a key too deep for a recursive walk
+        AutoCompletionTrie deep = new AutoCompletionTrie();
+        StringBuilder key = new StringBuilder();
+
+        for (int i = 0; i < 200000; i++) {
+            key.append((char) ('a' + i % 26));
+        }
+
+        deep.add(key.toString(), 1);
+        deep.add("ab", 2);
+
+        System.out.println("Words under a 200000 character key: "
+                + deep.streamWords("a", false).count());
+    }
+}